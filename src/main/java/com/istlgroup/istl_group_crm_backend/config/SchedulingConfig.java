@@ -0,0 +1,13 @@
+package com.istlgroup.istl_group_crm_backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the @Scheduled jobs (ProjectStatsScheduler); each job has its own
+ * scheduler.project-stats.* switch and cron
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
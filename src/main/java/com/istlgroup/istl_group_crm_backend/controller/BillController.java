@@ -4,8 +4,8 @@ package com.istlgroup.istl_group_crm_backend.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -14,14 +14,14 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.istlgroup.istl_group_crm_backend.service.BillService;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.BillAttachmentDTO;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.BillDTO;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.BillStatsDTO;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.PaymentDTO;
 
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -50,12 +50,27 @@ public class BillController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "billDate") String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDirection,
+            @RequestParam(required = false) String cursor,
             @RequestHeader("X-User-Role") String userRole
     ) {
         try {
             boolean isAdmin = "ADMIN".equalsIgnoreCase(userRole) || 
                             "SUPERADMIN".equalsIgnoreCase(userRole);
             
+            // Keyset mode: any cursor parameter (empty for the first slice) skips OFFSET and COUNT
+            if (cursor != null) {
+                KeysetSlice<BillDTO> slice = billService.getBillsSlice(
+                        projectId, groupId, subGroupId, status, vendorId, poId,
+                        cursor, size, sortBy, sortDirection, isAdmin
+                );
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("bills", slice.getContent());
+                response.put("hasNext", slice.hasNext());
+                response.put("nextCursor", slice.getNextCursor());
+                return ResponseEntity.ok(response);
+            }
+            
             Page<BillDTO> bills = billService.getBills(
                     projectId, groupId, subGroupId, status, vendorId, poId,
                     search, page, size, sortBy, sortDirection, isAdmin
@@ -69,6 +84,8 @@ public class BillController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching bills", e);
             Map<String, Object> error = new HashMap<>();
@@ -200,35 +217,7 @@ public class BillController {
      */
     @GetMapping("/{id}/download")
     public ResponseEntity<Resource> downloadBillFile(@PathVariable Long id) {
-        try {
-            BillDTO bill = billService.getBillById(id);
-            
-            if (bill.getBillFilePath() == null) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            Path filePath = Paths.get(bill.getBillFilePath());
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (!resource.exists() || !resource.isReadable()) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
-            }
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                           "attachment; filename=\"" + bill.getBillFileName() + "\"")
-                    .body(resource);
-                    
-        } catch (Exception e) {
-            log.error("Error downloading file for bill: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        return serveBillFile(id, false);
     }
     
     /**
@@ -237,33 +226,52 @@ public class BillController {
      */
     @GetMapping("/{id}/view")
     public ResponseEntity<Resource> viewBillFile(@PathVariable Long id) {
+        return serveBillFile(id, true);
+    }
+    
+    /**
+     * Stream a bill file from its metadata row. Range requests get 206 partial
+     * content and a matching If-None-Match gets 304, both handled by Spring
+     * for Resource bodies.
+     */
+    private ResponseEntity<Resource> serveBillFile(Long id, boolean inline) {
+        BillAttachmentDTO attachment;
         try {
-            BillDTO bill = billService.getBillById(id);
-            
-            if (bill.getBillFilePath() == null) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            Path filePath = Paths.get(bill.getBillFilePath());
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (!resource.exists() || !resource.isReadable()) {
+            attachment = billService.getAttachment(id);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        try {
+            Resource content = billService.openAttachment(attachment);
+            if (content == null) {
                 return ResponseEntity.notFound().build();
             }
             
-            String contentType = Files.probeContentType(filePath);
+            // Files uploaded before the type was recorded fall back to probing
+            String contentType = attachment.getFileType() != null
+                    ? attachment.getFileType() : Files.probeContentType(content.getFile().toPath());
             if (contentType == null) {
-                contentType = "application/octet-stream";
+                contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
             }
             
-            return ResponseEntity.ok()
+            String fileName = attachment.getFileName() != null ? attachment.getFileName() : "bill-" + id;
+            ContentDisposition disposition = (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                    .filename(fileName)
+                    .build();
+            
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                     .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                           "inline; filename=\"" + bill.getBillFileName() + "\"")
-                    .body(resource);
-                    
+                    .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+            if (attachment.getFileHash() != null) {
+                response.eTag(attachment.getFileHash());
+            } else {
+                response.lastModified(content.lastModified());
+            }
+            return response.body(content);
+            
         } catch (Exception e) {
-            log.error("Error viewing file for bill: {}", id, e);
+            log.error("Error serving file for bill: {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
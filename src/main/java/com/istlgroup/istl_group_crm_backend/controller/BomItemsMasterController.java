@@ -1,6 +1,8 @@
 package com.istlgroup.istl_group_crm_backend.controller;
 
 import com.istlgroup.istl_group_crm_backend.service.BomItemsMasterService;
+import com.istlgroup.istl_group_crm_backend.service.ReferenceDataCache;
+import com.istlgroup.istl_group_crm_backend.service.ReferenceDataCache.Kind;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -18,22 +20,24 @@ import java.util.Map;
 public class BomItemsMasterController {
 
     private final BomItemsMasterService bomItemsMasterService;
+    private final ReferenceDataCache referenceDataCache;
 
     /**
      * GET /api/bom-items-master/all
      * Get all active BOM items
      */
     @GetMapping("/all")
-    public ResponseEntity<Map<String, Object>> getAllBomItems() {
+    public ResponseEntity<?> getAllBomItems() {
         try {
-            List<Map<String, Object>> items = bomItemsMasterService.getAllActiveBomItems();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("data", items);
-            response.put("count", items.size());
-            
-            return ResponseEntity.ok(response);
+            return referenceDataCache.respond(Kind.BOM_ITEMS, null, () -> {
+                List<Map<String, Object>> items = bomItemsMasterService.getAllActiveBomItems();
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", items);
+                response.put("count", items.size());
+                return response;
+            });
         } catch (Exception e) {
             log.error("Error fetching all BOM items", e);
             return createErrorResponse("Failed to fetch BOM items", e.getMessage());
@@ -71,7 +75,7 @@ public class BomItemsMasterController {
             @RequestParam(required = false) String searchTerm,
             @RequestParam(required = false) String category) {
         try {
-            log.info("Searching BOM items - searchTerm: {}, category: {}", searchTerm, category);
+            log.debug("Searching BOM items - searchTerm: {}, category: {}", searchTerm, category);
             
             List<Map<String, Object>> items = bomItemsMasterService.searchBomItems(searchTerm, category);
             
@@ -92,15 +96,16 @@ public class BomItemsMasterController {
      * Get distinct categories
      */
     @GetMapping("/categories")
-    public ResponseEntity<Map<String, Object>> getCategories() {
+    public ResponseEntity<?> getCategories() {
         try {
-            List<String> categories = bomItemsMasterService.getDistinctCategories();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("data", categories);
-            
-            return ResponseEntity.ok(response);
+            return referenceDataCache.respond(Kind.BOM_CATEGORIES, null, () -> {
+                List<String> categories = bomItemsMasterService.getDistinctCategories();
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("data", categories);
+                return response;
+            });
         } catch (Exception e) {
             log.error("Error fetching BOM categories", e);
             return createErrorResponse("Failed to fetch categories", e.getMessage());
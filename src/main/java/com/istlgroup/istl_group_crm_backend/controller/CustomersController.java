@@ -32,11 +32,28 @@ public class CustomersController {
             @RequestParam(required = false) String subGroupName,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
             @RequestHeader("User-Id") Long userId,
             @RequestHeader("User-Role") String userRole) {
         
         Map<String, Object> response = new HashMap<>();
         try {
+            // Keyset mode: any cursor parameter (empty for the first slice) skips OFFSET and COUNT
+            if (cursor != null) {
+                KeysetSlice<CustomerWrapper> slice = customersService.getAllCustomersSlice(
+                    userId, userRole, groupName, subGroupName, cursor, size
+                );
+                
+                Map<String, Object> sliceData = new HashMap<>();
+                sliceData.put("content", slice.getContent());
+                sliceData.put("hasNext", slice.hasNext());
+                sliceData.put("nextCursor", slice.getNextCursor());
+                
+                response.put("success", true);
+                response.put("data", sliceData);
+                return ResponseEntity.ok(response);
+            }
+            
             Page<CustomerWrapper> customerPage = customersService.getAllCustomersPaginated(
                 userId, userRole, groupName, subGroupName, page, size
             );
@@ -1,12 +1,12 @@
 package com.istlgroup.istl_group_crm_backend.controller;
 
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.DropdownGroupWrapper;
-import com.istlgroup.istl_group_crm_backend.wrapperClasses.DropdownProjectWrapper;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.DropdownSubGroupWrapper;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.LeadsGroupWrapper;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.LeadsSubGroupWrapper;
-import com.istlgroup.istl_group_crm_backend.wrapperClasses.LeadsUserWrapper;
 import com.istlgroup.istl_group_crm_backend.service.DropdownFilterService;
+import com.istlgroup.istl_group_crm_backend.service.ReferenceDataCache;
+import com.istlgroup.istl_group_crm_backend.service.ReferenceDataCache.Kind;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,25 +21,26 @@ import java.util.stream.Collectors;
 public class DropdownFilterController {
     
     private final DropdownFilterService filterService;
+    private final ReferenceDataCache referenceDataCache;
     
     @GetMapping("/groups")
-    public ResponseEntity<List<DropdownGroupWrapper>> getAllGroups() {
-        return ResponseEntity.ok(filterService.getAllGroups());
+    public ResponseEntity<byte[]> getAllGroups() {
+        return referenceDataCache.respond(Kind.GROUPS, null, filterService::getAllGroups);
     }
     
     @GetMapping("/subgroups")
-    public ResponseEntity<List<DropdownSubGroupWrapper>> getSubGroups(
+    public ResponseEntity<byte[]> getSubGroups(
             @RequestParam String groupName) {
-        return ResponseEntity.ok(filterService.getSubGroupsByGroup(groupName));
+        return referenceDataCache.respond(Kind.SUB_GROUPS, groupName,
+            () -> filterService.getSubGroupsByGroup(groupName));
     }
     
     @GetMapping("/projects")
-    public ResponseEntity<List<DropdownProjectWrapper>> getProjects(
+    public ResponseEntity<byte[]> getProjects(
             @RequestParam String groupName,
             @RequestParam String subGroupName) {
-        return ResponseEntity.ok(
-            filterService.getProjectsByGroupAndSubGroup(groupName, subGroupName)
-        );
+        return referenceDataCache.respond(Kind.PROJECTS, groupName + "/" + subGroupName,
+            () -> filterService.getProjectsByGroupAndSubGroup(groupName, subGroupName));
     }
     
     // ============ LEADS-SPECIFIC ENDPOINTS (Unique Names) ============
@@ -49,15 +50,15 @@ public class DropdownFilterController {
      * Endpoint: GET /api/filters/leads-groups
      */
     @GetMapping("/leads-groups")
-    public ResponseEntity<List<LeadsGroupWrapper>> getLeadsGroups() {
-        List<DropdownGroupWrapper> groups = filterService.getAllGroups();
-        
-        // Convert to LeadsGroupWrapper to avoid naming conflicts
-        List<LeadsGroupWrapper> leadsGroups = groups.stream()
-            .map(g -> new LeadsGroupWrapper(g.getValue(), g.getLabel()))
-            .collect(Collectors.toList());
+    public ResponseEntity<byte[]> getLeadsGroups() {
+        return referenceDataCache.respond(Kind.GROUPS, "leads", () -> {
+            List<DropdownGroupWrapper> groups = filterService.getAllGroups();
             
-        return ResponseEntity.ok(leadsGroups);
+            // Convert to LeadsGroupWrapper to avoid naming conflicts
+            return groups.stream()
+                .map(g -> new LeadsGroupWrapper(g.getValue(), g.getLabel()))
+                .collect(Collectors.toList());
+        });
     }
     
     /**
@@ -65,23 +66,23 @@ public class DropdownFilterController {
      * Endpoint: GET /api/filters/leads-subgroups?groupName=Technology
      */
     @GetMapping("/leads-subgroups")
-    public ResponseEntity<List<LeadsSubGroupWrapper>> getLeadsSubGroups(
+    public ResponseEntity<byte[]> getLeadsSubGroups(
             @RequestParam String groupName) {
-        List<DropdownSubGroupWrapper> subGroups = filterService.getSubGroupsByGroup(groupName);
-        
-        // Convert to LeadsSubGroupWrapper to avoid naming conflicts
-        List<LeadsSubGroupWrapper> leadsSubGroups = subGroups.stream()
-            .map(sg -> new LeadsSubGroupWrapper(sg.getValue(), sg.getLabel()))
-            .collect(Collectors.toList());
+        return referenceDataCache.respond(Kind.SUB_GROUPS, "leads:" + groupName, () -> {
+            List<DropdownSubGroupWrapper> subGroups = filterService.getSubGroupsByGroup(groupName);
             
-        return ResponseEntity.ok(leadsSubGroups);
+            // Convert to LeadsSubGroupWrapper to avoid naming conflicts
+            return subGroups.stream()
+                .map(sg -> new LeadsSubGroupWrapper(sg.getValue(), sg.getLabel()))
+                .collect(Collectors.toList());
+        });
     }
     /**
      * Get users for Leads assignment dropdown with unique wrapper
      * Endpoint: GET /api/filters/leads-users
      */
     @GetMapping("/leads-users")
-    public ResponseEntity<List<LeadsUserWrapper>> getLeadsUsers() {
-        return ResponseEntity.ok(filterService.getLeadsUsers()); 
+    public ResponseEntity<byte[]> getLeadsUsers() {
+        return referenceDataCache.respond(Kind.LEADS_USERS, null, filterService::getLeadsUsers);
     }
 }
\ No newline at end of file
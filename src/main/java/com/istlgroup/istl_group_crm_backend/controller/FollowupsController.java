@@ -4,13 +4,18 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import jakarta.servlet.http.HttpSession;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.istlgroup.istl_group_crm_backend.customException.CustomException;
 import com.istlgroup.istl_group_crm_backend.service.FollowupsService;
+import com.istlgroup.istl_group_crm_backend.service.UserEventStream;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.FollowupWrapper;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.FollowupRequestWrapper;
 
@@ -21,6 +26,9 @@ public class FollowupsController {
     @Autowired
     private FollowupsService followupsService;
     
+    @Autowired
+    private UserEventStream userEventStream;
+    
     
     /**
      * Get all follow-ups (for Admin/SuperAdmin)
@@ -157,6 +165,18 @@ public class FollowupsController {
         }
     }
     
+    /**
+     * Stream follow-up reminders (event "followup-reminder") as they become due or overdue
+     * for the logged-in user. The user comes from the session, never from the request.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamReminders(HttpSession session) {
+        if (!(session.getAttribute("USER_ID") instanceof Long userId)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(userEventStream.subscribe(userId));
+    }
+    
     /**
      * Get overdue follow-ups
      */
@@ -5,20 +5,28 @@ import com.istlgroup.istl_group_crm_backend.entity.PaymentHistoryEntity;
 import com.istlgroup.istl_group_crm_backend.entity.CustomersEntity;
 import com.istlgroup.istl_group_crm_backend.service.InvoiceService;
 import com.istlgroup.istl_group_crm_backend.service.CustomersService;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/invoices")
@@ -41,9 +49,25 @@ public class InvoiceController {
             @RequestParam(defaultValue = "invoiceDate") String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDirection,
             @RequestHeader("x-user-id") Long userId,
+            @RequestParam(required = false) String cursor,
             @RequestHeader("x-user-role") String userRole
     ) {
         try {
+            // Keyset mode: any cursor parameter (empty for the first slice) skips OFFSET and COUNT
+            if (cursor != null) {
+                KeysetSlice<InvoiceEntity> slice = invoiceService.getInvoicesSlice(
+                        groupId, subGroupId, projectId, searchTerm,
+                        userId, userRole, cursor, size, sortBy, sortDirection
+                );
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("invoices", slice.getContent());
+                response.put("pageSize", slice.getSize());
+                response.put("hasNext", slice.hasNext());
+                response.put("nextCursor", slice.getNextCursor());
+                return ResponseEntity.ok(response);
+            }
+            
             Page<InvoiceEntity> invoices = invoiceService.getInvoices(
                     groupId, subGroupId, projectId, status, searchTerm,
                     userId, userRole, page, size, sortBy, sortDirection
@@ -58,6 +82,8 @@ public class InvoiceController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching invoices", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -253,25 +279,76 @@ public class InvoiceController {
     }
     
     @GetMapping("/{id}/download-pdf")
-    public ResponseEntity<?> downloadInvoicePdf(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<?>> downloadInvoicePdf(@PathVariable Long id) {
         try {
             InvoiceEntity invoice = invoiceService.getInvoiceByIdWithItems(id);
-            byte[] pdfBytes = invoiceService.generatePdf(invoice);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", 
-                "Invoice-" + invoice.getInvoiceNo() + ".pdf");
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
             
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            // Rendering runs on the PDF worker pool; the request thread is released while it waits
+            return invoiceService.generatePdf(invoice)
+                    .<ResponseEntity<?>>thenApply(pdfFile -> {
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.setContentType(MediaType.APPLICATION_PDF);
+                        headers.setContentDispositionFormData("attachment", 
+                            "Invoice-" + invoice.getInvoiceNo() + ".pdf");
+                        headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+                        
+                        return new ResponseEntity<>(pdfFile, headers, HttpStatus.OK);
+                    })
+                    .exceptionally(e -> pdfError(id, e));
         } catch (Exception e) {
-            log.error("Error generating PDF for invoice: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse("Failed to generate PDF: " + e.getMessage()));
+            return CompletableFuture.completedFuture(pdfError(id, e));
         }
     }
     
+    /**
+     * PDFs of all invoices matching the filter as one ZIP, streamed while the PDFs render
+     */
+    @GetMapping("/export-pdf")
+    public ResponseEntity<?> exportInvoicePdfs(
+            @RequestParam(required = false) String groupId,
+            @RequestParam(required = false) String subGroupId,
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestHeader("x-user-id") Long userId,
+            @RequestHeader("x-user-role") String userRole,
+            HttpServletResponse response
+    ) {
+        List<Long> invoiceIds;
+        try {
+            invoiceIds = invoiceService.getInvoiceIdsForExport(
+                    groupId, subGroupId, projectId, fromDate, toDate, userId, userRole);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        }
+        if (invoiceIds.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("No invoices match the filter"));
+        }
+        
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("Invoices-" + LocalDate.now() + ".zip")
+                .build()
+                .toString());
+        try {
+            invoiceService.writePdfZip(invoiceIds, response.getOutputStream());
+        } catch (IOException e) {
+            // Client disconnected or the response could not be written; nothing more can be sent
+            log.warn("Invoice PDF export aborted after headers were sent: {}", e.getMessage());
+        }
+        // Response already written
+        return null;
+    }
+    
+    private ResponseEntity<?> pdfError(Long id, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Error generating PDF for invoice: {}", id, cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createErrorResponse("Failed to generate PDF: " + cause.getMessage()));
+    }
+    
     private Map<String, Object> createSuccessResponse(String message, Object data) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
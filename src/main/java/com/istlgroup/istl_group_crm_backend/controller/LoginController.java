@@ -67,10 +67,11 @@ public class LoginController {
     @GetMapping("/users/{userId}")
     public UsersResponseWrapper users(
             @PathVariable Long userId,
-            @RequestParam int page,
-            @RequestParam int size
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor
     ) throws CustomException {
-        return logingService.Users(userId, page, size);
+        return logingService.Users(userId, page, size, cursor);
     }
 
     @GetMapping("/menuPermissions/{id}")
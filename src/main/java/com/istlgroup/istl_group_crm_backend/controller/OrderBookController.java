@@ -5,13 +5,18 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.istlgroup.istl_group_crm_backend.customException.CustomException;
+import com.istlgroup.istl_group_crm_backend.entity.OrderBookEntity;
 import com.istlgroup.istl_group_crm_backend.service.OrderBookService;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.OrderBookWrapper;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.OrderBookItemWrapper;
@@ -274,6 +279,34 @@ public ResponseEntity<Map<String, Object>> getProposalItems(
         }
     }
     
+    /**
+     * Download the uploaded PO file (streamed; supports Range and If-None-Match)
+     */
+    @GetMapping("/{id}/po-file")
+    public ResponseEntity<?> downloadPOFile(@PathVariable Long id) {
+        try {
+            OrderBookEntity orderBook = orderBookService.getPOFileOwner(id);
+            Resource content = orderBookService.loadPOFile(orderBook);
+            
+            String fileType = orderBook.getPoFileType() != null
+                    ? orderBook.getPoFileType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+            
+            // Content is addressed by hash, so the hash is a strong ETag
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(fileType))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(orderBook.getPoFileName() != null ? orderBook.getPoFileName() : "po-" + id)
+                            .build().toString())
+                    .eTag(orderBook.getPoFileHash())
+                    .body(content);
+        } catch (CustomException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+    
     /**
      * Delete order book
      */
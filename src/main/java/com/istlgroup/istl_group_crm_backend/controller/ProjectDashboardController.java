@@ -7,6 +7,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
 /**
  * REST Controller for Project Dashboard
  * Endpoint: /api/projects/{projectId}/dashboard
@@ -58,8 +62,7 @@ public class ProjectDashboardController {
         log.info("GET /api/projects/{}/dashboard/financial", projectId);
         
         try {
-            ProjectDashboardDTO dashboard = dashboardService.getDashboardData(projectId);
-            return ResponseEntity.ok(dashboard.getFinancialData());
+            return ResponseEntity.ok(dashboardService.getFinancialData(projectId));
         } catch (RuntimeException e) {
             log.error("Error fetching financial data for project {}: {}", projectId, e.getMessage());
             return ResponseEntity.notFound().build();
@@ -79,11 +82,98 @@ public class ProjectDashboardController {
         log.info("GET /api/projects/{}/dashboard/procurement", projectId);
         
         try {
-            ProjectDashboardDTO dashboard = dashboardService.getDashboardData(projectId);
-            return ResponseEntity.ok(dashboard.getProcurementData());
+            return ResponseEntity.ok(dashboardService.getProcurementData(projectId));
         } catch (RuntimeException e) {
             log.error("Error fetching procurement data for project {}: {}", projectId, e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Get only the recent activities for a project
+     */
+    @GetMapping("/{projectId}/dashboard/activities")
+    public ResponseEntity<List<ProjectDashboardDTO.ActivityDTO>> getProjectActivities(
+            @PathVariable String projectId) {
+        
+        return section(projectId, "activities", dashboardService::getRecentActivitiesSection);
+    }
+    
+    /**
+     * Get only the top vendors for a project
+     */
+    @GetMapping("/{projectId}/dashboard/top-vendors")
+    public ResponseEntity<List<ProjectDashboardDTO.VendorSummaryDTO>> getProjectTopVendors(
+            @PathVariable String projectId) {
+        
+        return section(projectId, "top-vendors", dashboardService::getTopVendorsSection);
+    }
+    
+    /**
+     * Get only the spending trend for a project
+     * 
+     * @param periods number of months/weeks to return, including the current one
+     * @param granularity "month" or "week"
+     */
+    @GetMapping("/{projectId}/dashboard/spending-trend")
+    public ResponseEntity<List<ProjectDashboardDTO.SpendingTrendDTO>> getProjectSpendingTrend(
+            @PathVariable String projectId,
+            @RequestParam(defaultValue = "6") int periods,
+            @RequestParam(defaultValue = ProjectDashboardService.TREND_MONTH) String granularity) {
+        
+        return section(projectId, "spending-trend",
+                id -> dashboardService.getSpendingTrendSection(id, periods, granularity.toLowerCase()));
+    }
+    
+    /**
+     * Get only the project timeline for a project
+     */
+    @GetMapping("/{projectId}/dashboard/timeline")
+    public ResponseEntity<List<ProjectDashboardDTO.TimelineMilestoneDTO>> getProjectTimeline(
+            @PathVariable String projectId) {
+        
+        return section(projectId, "timeline", dashboardService::getTimelineSection);
+    }
+    
+    /**
+     * Get only the payment method distribution for a project
+     */
+    @GetMapping("/{projectId}/dashboard/payment-methods")
+    public ResponseEntity<List<ProjectDashboardDTO.ChartDataDTO>> getProjectPaymentMethods(
+            @PathVariable String projectId) {
+        
+        return section(projectId, "payment-methods", dashboardService::getPaymentMethodsSection);
+    }
+    
+    /**
+     * Get only the monthly payment timeline for a project
+     */
+    @GetMapping("/{projectId}/dashboard/payment-timeline")
+    public ResponseEntity<List<ProjectDashboardDTO.PaymentTrendDTO>> getProjectPaymentTimeline(
+            @PathVariable String projectId) {
+        
+        return section(projectId, "payment-timeline", dashboardService::getPaymentTimelineSection);
+    }
+    
+    /**
+     * Dashboard read-path counters
+     */
+    @GetMapping("/dashboard/metrics")
+    public ResponseEntity<Map<String, Long>> getDashboardReadMetrics() {
+        return ResponseEntity.ok(dashboardService.getReadMetrics());
+    }
+    
+    private <T> ResponseEntity<T> section(String projectId, String section, Function<String, T> loader) {
+        log.info("GET /api/projects/{}/dashboard/{}", projectId, section);
+        
+        try {
+            return ResponseEntity.ok(loader.apply(projectId));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid {} request for project {}: {}", section, projectId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            log.error("Error fetching {} for project {}: {}", section, projectId, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.istlgroup.istl_group_crm_backend.service.ProposalsPDFService;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.ProposalWrapper;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.ProposalRequestWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -18,6 +19,7 @@ import java.util.List;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/proposals")
@@ -217,24 +219,26 @@ public ResponseEntity<Map<String, Object>> createProposal(
      * Download proposal as PDF
      */
     @GetMapping("/download-pdf/{id}")
-    public ResponseEntity<byte[]> downloadProposalPDF(
+    public CompletableFuture<ResponseEntity<Resource>> downloadProposalPDF(
             @PathVariable Long id,
             @RequestHeader("User-Id") Long userId,
             @RequestHeader("User-Role") String userRole) {
         
         try {
-            byte[] pdfBytes = proposalsPDFService.generateProposalPDF(id, userId, userRole);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "proposal-" + id + ".pdf");
-            headers.setContentLength(pdfBytes.length);
-            
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(pdfBytes);
+            // Rendering runs on the PDF worker pool; the file is streamed from the PDF cache
+            return proposalsPDFService.renderProposalPDF(id, userId, userRole)
+                .thenApply(pdfFile -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setContentType(MediaType.APPLICATION_PDF);
+                    headers.setContentDispositionFormData("attachment", "proposal-" + id + ".pdf");
+                    
+                    return ResponseEntity.ok()
+                        .headers(headers)
+                        .body(pdfFile);
+                })
+                .exceptionally(e -> ResponseEntity.badRequest().build());
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
     }
  // ADD THIS METHOD TO YOUR ProposalController.java
@@ -2,6 +2,7 @@ package com.istlgroup.istl_group_crm_backend.controller;
 
 import com.istlgroup.istl_group_crm_backend.entity.PurchaseOrderEntity;
 import com.istlgroup.istl_group_crm_backend.service.PurchaseOrderService;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.PurchaseOrderDropdownWrapper;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -45,12 +46,28 @@ public class PurchaseOrderController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "orderDate") String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDirection,
+            @RequestParam(required = false) String cursor,
             HttpServletRequest request
     ) {
         try {
             Long userId = getUserIdFromRequest(request);
             String userRole = getUserRoleFromRequest(request);
             
+            // Keyset mode: any cursor parameter (empty for the first slice) skips OFFSET and COUNT
+            if (cursor != null) {
+                KeysetSlice<PurchaseOrderEntity> slice = purchaseOrderService.getPurchaseOrdersSlice(
+                        groupName, subGroupName, projectId, searchTerm,
+                        userId, userRole, cursor, size, sortBy, sortDirection
+                );
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("purchaseOrders", slice.getContent());
+                response.put("pageSize", slice.getSize());
+                response.put("hasNext", slice.hasNext());
+                response.put("nextCursor", slice.getNextCursor());
+                return ResponseEntity.ok(response);
+            }
+            
             Page<PurchaseOrderEntity> purchaseOrders = purchaseOrderService.getPurchaseOrders(
                     groupName, subGroupName, projectId, status, searchTerm,
                     userId, userRole, page, size, sortBy, sortDirection
@@ -65,6 +82,8 @@ public class PurchaseOrderController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching purchase orders", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -1,7 +1,9 @@
 package com.istlgroup.istl_group_crm_backend.controller;
 
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.QuotationDTO;
+import com.istlgroup.istl_group_crm_backend.entity.QuotationAttachmentEntity;
 import com.istlgroup.istl_group_crm_backend.entity.QuotationEntity;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.QuotationMapper;
 import com.istlgroup.istl_group_crm_backend.service.QuotationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,7 +11,9 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -46,12 +50,30 @@ public class QuotationController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "uploadedAt") String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDirection,
+            @RequestParam(required = false) String cursor,
             HttpServletRequest request
     ) {
         try {
             Long userId = getUserIdFromRequest(request);
             String userRole = getUserRoleFromRequest(request);
             
+            // Keyset mode: any cursor parameter (empty for the first slice) skips OFFSET and COUNT
+            if (cursor != null) {
+                KeysetSlice<QuotationEntity> slice = quotationService.getQuotationsSlice(
+                        groupName, subGroupName, projectId, searchTerm,
+                        userId, userRole, cursor, size, sortBy, sortDirection
+                );
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("quotations", slice.getContent().stream()
+                        .map(QuotationMapper::toDTO)
+                        .collect(Collectors.toList()));
+                response.put("pageSize", slice.getSize());
+                response.put("hasNext", slice.hasNext());
+                response.put("nextCursor", slice.getNextCursor());
+                return ResponseEntity.ok(response);
+            }
+            
             Page<QuotationEntity> quotations = quotationService.getQuotations(
                     groupName, subGroupName, projectId, status, searchTerm,
                     userId, userRole, page, size, sortBy, sortDirection
@@ -71,6 +93,8 @@ public class QuotationController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching quotations", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -130,15 +154,12 @@ public class QuotationController {
                             .body(createErrorResponse("Only PDF and image files are allowed"));
                 }
                 
-                // Attach file to quotation
-                quotation.setQuotationFile(file.getBytes());
-                quotation.setFileName(file.getOriginalFilename());
-                quotation.setFileType(contentType);
-                quotation.setFileSize(file.getSize());
             }
             
-            // Create quotation
-            QuotationEntity created = quotationService.createQuotation(quotation, userId);
+            // Create quotation and stream the file into the content store in one transaction
+            QuotationEntity created = file != null && !file.isEmpty()
+                    ? quotationService.createQuotationWithFile(quotation, userId, file)
+                    : quotationService.createQuotation(quotation, userId);
             
             // Convert to DTO to avoid circular reference
             QuotationDTO dto = QuotationMapper.toDTO(created);
@@ -155,26 +176,25 @@ public class QuotationController {
     
     /**
      * GET /api/quotations/{id}/file
-     * Download quotation file
+     * Download quotation file (streamed; supports Range and If-None-Match)
      */
     @GetMapping("/{id}/file")
     public ResponseEntity<?> downloadFile(@PathVariable Long id) {
         try {
-            QuotationEntity quotation = quotationService.getQuotationById(id);
-            
-            if (quotation.getQuotationFile() == null || quotation.getQuotationFile().length == 0) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(createErrorResponse("No file attached to this quotation"));
-            }
+            QuotationAttachmentEntity attachment = quotationService.getAttachment(id);
+            Resource content = quotationService.loadAttachmentContent(attachment);
             
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(quotation.getFileType()));
-            headers.setContentDispositionFormData("attachment", quotation.getFileName());
-            headers.setContentLength(quotation.getFileSize());
+            String fileType = attachment.getFileType() != null
+                    ? attachment.getFileType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
             
+            // Content is addressed by hash, so the hash is a strong ETag
             return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(quotation.getQuotationFile());
+                    .contentType(MediaType.parseMediaType(fileType))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(attachment.getFileName() != null ? attachment.getFileName() : "quotation-" + id)
+                            .build().toString())
+                    .eTag(attachment.getContentHash())
+                    .body(content);
                     
         } catch (Exception e) {
             log.error("Error downloading file for quotation: {}", id, e);
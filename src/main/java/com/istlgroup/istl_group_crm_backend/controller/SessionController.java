@@ -2,13 +2,21 @@ package com.istlgroup.istl_group_crm_backend.controller;
 
 import jakarta.servlet.http.HttpSession;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.istlgroup.istl_group_crm_backend.service.SessionExpiryNotifier;
 
 @RestController
 public class SessionController {
 
+    @Autowired
+    private SessionExpiryNotifier sessionExpiryNotifier;
+
     @GetMapping("/session/check")
     public ResponseEntity<?> checkSession(HttpSession session) {
 
@@ -20,4 +28,14 @@ public class SessionController {
         // Session expired / invalid
         return ResponseEntity.status(401).body("SESSION_EXPIRED");
     }
-}
\ No newline at end of file
+
+    /**
+     * Stream of session-active / session-expiring / session-expired events for
+     * the caller's session, replacing polling of /session/check and /login/ping.
+     * Calling /login/ping still extends the session.
+     */
+    @GetMapping(value = "/session/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter sessionEvents(HttpSession session) {
+        return sessionExpiryNotifier.subscribe(session);
+    }
+}
@@ -68,8 +68,9 @@ public class UsersController {
 			@RequestParam(defaultValue = "") String searchTerm,
 			@RequestParam(defaultValue = "all") String role,
 			@RequestParam(defaultValue = "1") int page,
-			@RequestParam(defaultValue = "5") int size
+			@RequestParam(defaultValue = "5") int size,
+			@RequestParam(required = false) String cursor
 	) throws CustomException {
-		return ResponseEntity.ok(usersService.SearchUsers(userId, searchTerm, role, page, size));
+		return ResponseEntity.ok(usersService.SearchUsers(userId, searchTerm, role, page, size, cursor));
 	}
 }
\ No newline at end of file
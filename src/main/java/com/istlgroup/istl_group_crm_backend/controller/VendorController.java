@@ -2,6 +2,7 @@ package com.istlgroup.istl_group_crm_backend.controller;
 
 import com.istlgroup.istl_group_crm_backend.entity.VendorEntity;
 import com.istlgroup.istl_group_crm_backend.service.VendorService;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -41,6 +42,7 @@ public class VendorController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
             @RequestParam(defaultValue = "ASC") String sortDirection,
+            @RequestParam(required = false) String cursor,
             @RequestHeader("x-user-id") Long userId,
             @RequestHeader("x-user-role") String userRole,
             HttpServletRequest request
@@ -49,6 +51,21 @@ public class VendorController {
 //            Long userId = getUserIdFromRequest(request);
 //            String userRole = getUserRoleFromRequest(request);
             
+            // Keyset mode: any cursor parameter (empty for the first slice) skips OFFSET and COUNT
+            if (cursor != null) {
+                KeysetSlice<VendorEntity> slice = vendorService.getVendorsSlice(
+                        groupName, subGroupName, projectId, category, status, searchTerm,
+                        userId, userRole, cursor, size, sortBy, sortDirection
+                );
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("vendors", slice.getContent());
+                response.put("pageSize", slice.getSize());
+                response.put("hasNext", slice.hasNext());
+                response.put("nextCursor", slice.getNextCursor());
+                return ResponseEntity.ok(response);
+            }
+            
             Page<VendorEntity> vendors = vendorService.getVendors(
                     groupName, subGroupName, projectId, category, vendorType,
                     rating, status, searchTerm, userId, userRole,
@@ -64,6 +81,8 @@ public class VendorController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             log.error("Error fetching vendors", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
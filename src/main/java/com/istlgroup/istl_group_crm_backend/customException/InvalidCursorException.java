@@ -0,0 +1,21 @@
+package com.istlgroup.istl_group_crm_backend.customException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A paging cursor that was not issued for this list or sort order.
+ * Controllers that catch IllegalArgumentException already answer 400; the
+ * status annotation covers those that let it propagate.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException() {
+        super("Invalid cursor");
+    }
+
+    public InvalidCursorException(Throwable cause) {
+        super("Invalid cursor", cause);
+    }
+}
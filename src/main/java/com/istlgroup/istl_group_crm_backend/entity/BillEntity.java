@@ -91,6 +91,13 @@ public class BillEntity {
     @Column(name = "bill_file_size")
     private Long billFileSize;
     
+    @Column(name = "bill_file_type", length = 50)
+    private String billFileType;
+    
+    // SHA-256 of the file content, used as the download ETag
+    @Column(name = "bill_file_hash", length = 64)
+    private String billFileHash;
+    
     // Relationships - ALWAYS INITIALIZED
     @OneToMany(mappedBy = "bill", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<BillItemEntity> items = new ArrayList<>();
@@ -61,6 +61,16 @@ public class OrderBookEntity {
     @Column(name = "po_file_name")
     private String poFileName;
     
+    @Column(name = "po_file_type", length = 127)
+    private String poFileType;
+    
+    @Column(name = "po_file_size")
+    private Long poFileSize;
+    
+    // SHA-256 of the PO file in FileContentStore
+    @Column(name = "po_file_hash", length = 64)
+    private String poFileHash;
+    
     // Financial
     @Column(name = "subtotal", precision = 18, scale = 2)
     private BigDecimal subtotal = BigDecimal.ZERO;
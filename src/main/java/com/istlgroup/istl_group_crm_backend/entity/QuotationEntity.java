@@ -106,10 +106,8 @@ public class QuotationEntity {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
-    @Lob
-    @Column(name = "quotation_file", columnDefinition = "LONGBLOB")
-    private byte[] quotationFile;
-
+    // File bytes live in FileContentStore (see QuotationAttachmentEntity);
+    // the legacy quotation_file column is only read by QuotationFileMigrationService
     @Column(name = "file_name", length = 255)
     private String fileName;
 
@@ -151,6 +149,6 @@ public class QuotationEntity {
     // Helper methods
     @Transient
     public boolean hasFile() {
-        return quotationFile != null && quotationFile.length > 0;
+        return fileSize != null && fileSize > 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.istlgroup.istl_group_crm_backend.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Published by mutating services when a record that feeds project statistics
+ * changes. Handled after commit by ProjectStatsEventListener.
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class ProjectDataChangedEvent {
+
+    /**
+     * Record type that changed; each refreshes its own group of ProjectEntity stats
+     */
+    public enum Source {
+        PURCHASE_ORDER,
+        QUOTATION,
+        BILL,
+        // Client invoices and their payments: total, paid and pending invoice value
+        INVOICE,
+        VENDOR
+    }
+
+    private final String projectId;
+    private final Source source;
+}
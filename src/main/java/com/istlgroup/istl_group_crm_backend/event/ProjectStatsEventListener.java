@@ -0,0 +1,125 @@
+package com.istlgroup.istl_group_crm_backend.event;
+
+import com.istlgroup.istl_group_crm_backend.service.DashboardSnapshotCache;
+import com.istlgroup.istl_group_crm_backend.service.ProjectStatsService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps project stats current from ProjectDataChangedEvent.
+ *
+ * Events are collected after commit and coalesced per project over a short
+ * window, so a burst of changes to one project (e.g. a PO with many delivered
+ * items) costs one refresh of each affected stats source. A failed refresh
+ * is retried with exponential backoff up to project-stats.events.max-attempts
+ * times; after that the daily fix-inconsistent job repairs the project.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectStatsEventListener {
+
+    private final ProjectStatsService projectStatsService;
+    private final DashboardSnapshotCache dashboardSnapshotCache;
+
+    @Value("${project-stats.events.coalesce-window-ms:2000}")
+    private long coalesceWindowMs;
+
+    @Value("${project-stats.events.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${project-stats.events.max-retry-delay-ms:60000}")
+    private long maxRetryDelayMs;
+
+    // Values are never mutated after insert; merge() swaps in a new set
+    private final Map<String, Set<ProjectDataChangedEvent.Source>> pending = new ConcurrentHashMap<>();
+    // Failed refreshes of each project since its last success
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "project-stats-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectDataChanged(ProjectDataChangedEvent event) {
+        String projectId = event.getProjectId();
+        if (projectId == null || projectId.isBlank()) {
+            return;
+        }
+
+        addPending(projectId, EnumSet.of(event.getSource()));
+    }
+
+    private void addPending(String projectId, Set<ProjectDataChangedEvent.Source> sources) {
+        pending.merge(projectId, sources, (current, added) -> {
+            EnumSet<ProjectDataChangedEvent.Source> merged = EnumSet.copyOf(current);
+            merged.addAll(added);
+            return merged;
+        });
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::flush, coalesceWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+
+        for (String projectId : new ArrayList<>(pending.keySet())) {
+            Set<ProjectDataChangedEvent.Source> sources = pending.remove(projectId);
+            if (sources == null || sources.isEmpty()) {
+                continue;
+            }
+            try {
+                projectStatsService.updateProjectAfterChanges(projectId, sources);
+                // Snapshots built between commit and this refresh saw the old stats
+                dashboardSnapshotCache.evict(projectId);
+                failures.remove(projectId);
+            } catch (Exception e) {
+                retryLater(projectId, sources, e);
+            }
+        }
+    }
+
+    /**
+     * Put the sources of a failed refresh back after coalesceWindowMs * 2^(attempt - 1),
+     * capped at maxRetryDelayMs
+     */
+    private void retryLater(String projectId, Set<ProjectDataChangedEvent.Source> sources, Exception error) {
+        int attempt = failures.merge(projectId, 1, Integer::sum);
+        if (attempt >= maxAttempts || executor.isShutdown()) {
+            failures.remove(projectId);
+            log.error("Giving up updating stats for project {} after {} changes ({} attempts)",
+                    projectId, sources, attempt, error);
+            return;
+        }
+        long delay = Math.min(maxRetryDelayMs, coalesceWindowMs << Math.min(attempt - 1, 20));
+        log.warn("Failed to update stats for project {} after {} changes (attempt {}); retrying in {} ms",
+                projectId, sources, attempt, delay, error);
+        executor.schedule(() -> addPending(projectId, sources), delay, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        flush();
+    }
+}
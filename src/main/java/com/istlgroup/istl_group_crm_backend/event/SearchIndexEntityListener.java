@@ -0,0 +1,86 @@
+package com.istlgroup.istl_group_crm_backend.event;
+
+import com.istlgroup.istl_group_crm_backend.service.BomAutocompleteIndex;
+import com.istlgroup.istl_group_crm_backend.service.SearchIndexService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps SearchIndexService and BomAutocompleteIndex in sync with committed
+ * inserts, updates and deletes of the indexed entities, whichever service
+ * made the change.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexEntityListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient EntityManagerFactory entityManagerFactory;
+    private final transient SearchIndexService searchIndexService;
+    private final transient BomAutocompleteIndex bomAutocompleteIndex;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> entityType = persister.getMappedClass();
+        return searchIndexService.isIndexed(entityType) || bomAutocompleteIndex.isIndexed(entityType);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        searchIndexService.onEntitySaved(event.getEntity(), event.getId());
+        bomAutocompleteIndex.onEntitySaved(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        searchIndexService.onEntitySaved(event.getEntity(), event.getId());
+        bomAutocompleteIndex.onEntitySaved(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        searchIndexService.onEntityDeleted(event.getEntity(), event.getId());
+        bomAutocompleteIndex.onEntityDeleted(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        log.debug("Insert of {} rolled back; search index unchanged", event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        log.debug("Update of {} rolled back; search index unchanged", event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        log.debug("Delete of {} rolled back; search index unchanged", event.getPersister().getEntityName());
+    }
+}
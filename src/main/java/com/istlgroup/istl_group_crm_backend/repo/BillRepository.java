@@ -1,26 +1,56 @@
 package com.istlgroup.istl_group_crm_backend.repo;
 
 import com.istlgroup.istl_group_crm_backend.entity.BillEntity;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.BillAttachmentDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.criteria.Predicate;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BillRepository extends JpaRepository<BillEntity, Long> {
+public interface BillRepository extends JpaRepository<BillEntity, Long>, JpaSpecificationExecutor<BillEntity> {
+    
+    /**
+     * Keyset-paging equivalent of the *WithFilters queries below; null arguments are not applied
+     */
+    static Specification<BillEntity> activeMatching(String projectId, String groupId, String subGroupId,
+                                                    String status, Long vendorId, Long poId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNull(root.get("deletedAt")));
+            if (projectId != null) predicates.add(cb.equal(root.get("projectId"), projectId));
+            if (groupId != null) predicates.add(cb.equal(root.get("groupId"), groupId));
+            if (subGroupId != null) predicates.add(cb.equal(root.get("subGroupId"), subGroupId));
+            if (status != null && !"all".equals(status)) predicates.add(cb.equal(root.get("status"), status));
+            if (vendorId != null) predicates.add(cb.equal(root.get("vendorId"), vendorId));
+            if (poId != null) predicates.add(cb.equal(root.get("poId"), poId));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
     
     Optional<BillEntity> findByBillNo(String billNo);
     
     @Query("SELECT b FROM BillEntity b WHERE b.id = :id AND b.deletedAt IS NULL")
     Optional<BillEntity> findByIdAndNotDeleted(@Param("id") Long id);
     
+    @Query("SELECT new com.istlgroup.istl_group_crm_backend.wrapperClasses.BillAttachmentDTO(" +
+           "b.billFilePath, b.billFileName, b.billFileType, b.billFileSize, b.billFileHash) " +
+           "FROM BillEntity b WHERE b.id = :id AND b.deletedAt IS NULL")
+    Optional<BillAttachmentDTO> findAttachmentById(@Param("id") Long id);
+    
     // =========================================
     // ROLE-BASED QUERIES
     // =========================================
@@ -169,6 +199,18 @@ public interface BillRepository extends JpaRepository<BillEntity, Long> {
     @Query("SELECT COALESCE(SUM(b.balanceAmount), 0) FROM BillEntity b WHERE b.projectId = :projectId AND b.deletedAt IS NULL")
     Optional<BigDecimal> sumBalanceAmountByProjectId(@Param("projectId") String projectId);
 
+    /**
+     * Bill figures for project stats in one pass, one row per project:
+     * [projectId, totalCount, totalAmount, paidCount, paidAmount, balanceAmount]
+     */
+    @Query("SELECT b.projectId, COUNT(b), COALESCE(SUM(b.totalAmount), 0), " +
+           "SUM(CASE WHEN b.status = 'Paid' THEN 1 ELSE 0 END), " +
+           "COALESCE(SUM(b.paidAmount), 0), COALESCE(SUM(b.balanceAmount), 0) " +
+           "FROM BillEntity b " +
+           "WHERE b.projectId IN :projectIds AND b.deletedAt IS NULL " +
+           "GROUP BY b.projectId")
+    List<Object[]> aggregateStatsByProjectIds(@Param("projectIds") Collection<String> projectIds);
+
     // Overdue bills
     @Query("SELECT COUNT(b) FROM BillEntity b WHERE b.projectId = :projectId AND b.dueDate < CURRENT_DATE AND b.status != 'Paid' AND b.deletedAt IS NULL")
     Long countOverdueBillsByProjectId(@Param("projectId") String projectId);
@@ -1,6 +1,7 @@
 package com.istlgroup.istl_group_crm_backend.repo;
 
 import com.istlgroup.istl_group_crm_backend.entity.BomItemsMasterEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,14 +18,7 @@ public interface BomItemsMasterRepo extends JpaRepository<BomItemsMasterEntity,
     // Find by category
     List<BomItemsMasterEntity> findByCategoryAndIsActiveTrue(String category);
 
-    // Search items by name or description (for autocomplete)
-    @Query("SELECT b FROM BomItemsMasterEntity b WHERE b.isActive = true AND " +
-           "(LOWER(b.itemName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(b.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(b.specification) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-    List<BomItemsMasterEntity> searchBomItems(@Param("searchTerm") String searchTerm);
-
-    // Search items by category and search term
+    // Search items by optional category and search term (autocomplete fallback when the index is not loaded)
     @Query("SELECT b FROM BomItemsMasterEntity b WHERE b.isActive = true AND " +
            "(:category IS NULL OR b.category = :category) AND " +
            "(LOWER(b.itemName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -32,7 +26,8 @@ public interface BomItemsMasterRepo extends JpaRepository<BomItemsMasterEntity,
            "LOWER(b.specification) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     List<BomItemsMasterEntity> searchBomItemsByCategory(
         @Param("category") String category,
-        @Param("searchTerm") String searchTerm
+        @Param("searchTerm") String searchTerm,
+        Pageable pageable
     );
 
     // Get distinct categories
@@ -3,17 +3,41 @@ package com.istlgroup.istl_group_crm_backend.repo;
 import com.istlgroup.istl_group_crm_backend.entity.CustomersEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.criteria.Predicate;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomersRepo extends JpaRepository<CustomersEntity, Long> {
+public interface CustomersRepo extends JpaRepository<CustomersEntity, Long>, JpaSpecificationExecutor<CustomersEntity> {
+    
+    /**
+     * Keyset-paging equivalent of the paginated listing queries; null arguments are not applied
+     */
+    static Specification<CustomersEntity> activeMatching(String groupName, String subGroupName, Long accessUserId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNull(root.get("deletedAt")));
+            if (groupName != null) predicates.add(cb.equal(root.get("groupName"), groupName));
+            if (subGroupName != null) predicates.add(cb.equal(root.get("subGroupName"), subGroupName));
+            if (accessUserId != null) {
+                predicates.add(cb.or(
+                        cb.equal(root.get("createdBy"), accessUserId),
+                        cb.equal(root.get("assignedTo"), accessUserId)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
     
     /**
      * Count customers by code prefix (for code generation)
@@ -319,6 +343,60 @@ public interface CustomersRepo extends JpaRepository<CustomersEntity, Long> {
      @Param("toDate") LocalDateTime toDate,
      Pageable pageable
  );
+ 
+ /**
+  * searchCustomersPaginated with the search term already resolved to ids by SearchIndexService
+  */
+ @Query("SELECT c FROM CustomersEntity c WHERE " +
+        "c.deletedAt IS NULL AND " +
+        "c.id IN :ids AND " +
+        "(:groupName IS NULL OR c.groupName = :groupName) AND " +
+        "(:subGroupName IS NULL OR c.subGroupName = :subGroupName) AND " +
+        "(:status IS NULL OR c.status = :status) AND " +
+        "(:city IS NULL OR LOWER(c.city) LIKE LOWER(CONCAT('%', :city, '%'))) AND " +
+        "(:state IS NULL OR LOWER(c.state) LIKE LOWER(CONCAT('%', :state, '%'))) AND " +
+        "(:assignedTo IS NULL OR c.assignedTo = :assignedTo) AND " +
+        "(:fromDate IS NULL OR c.createdAt >= :fromDate) AND " +
+        "(:toDate IS NULL OR c.createdAt <= :toDate)")
+ Page<CustomersEntity> searchCustomersByIdsPaginated(
+     @Param("ids") Collection<Long> ids,
+     @Param("groupName") String groupName,
+     @Param("subGroupName") String subGroupName,
+     @Param("status") String status,
+     @Param("city") String city,
+     @Param("state") String state,
+     @Param("assignedTo") Long assignedTo,
+     @Param("fromDate") LocalDateTime fromDate,
+     @Param("toDate") LocalDateTime toDate,
+     Pageable pageable
+ );
+
+ /**
+  * searchCustomersForUserPaginated with the search term already resolved to ids
+  */
+ @Query("SELECT c FROM CustomersEntity c WHERE " +
+        "c.deletedAt IS NULL AND " +
+        "(c.createdBy = :userId OR c.assignedTo = :userId) AND " +
+        "c.id IN :ids AND " +
+        "(:groupName IS NULL OR c.groupName = :groupName) AND " +
+        "(:subGroupName IS NULL OR c.subGroupName = :subGroupName) AND " +
+        "(:status IS NULL OR c.status = :status) AND " +
+        "(:city IS NULL OR LOWER(c.city) LIKE LOWER(CONCAT('%', :city, '%'))) AND " +
+        "(:state IS NULL OR LOWER(c.state) LIKE LOWER(CONCAT('%', :state, '%'))) AND " +
+        "(:fromDate IS NULL OR c.createdAt >= :fromDate) AND " +
+        "(:toDate IS NULL OR c.createdAt <= :toDate)")
+ Page<CustomersEntity> searchCustomersForUserByIdsPaginated(
+     @Param("userId") Long userId,
+     @Param("ids") Collection<Long> ids,
+     @Param("groupName") String groupName,
+     @Param("subGroupName") String subGroupName,
+     @Param("status") String status,
+     @Param("city") String city,
+     @Param("state") String state,
+     @Param("fromDate") LocalDateTime fromDate,
+     @Param("toDate") LocalDateTime toDate,
+     Pageable pageable
+ );
  /**
   * Find customer by project ID
   * FIXED: Changed from CustomerEntity to CustomersEntity (plural)
@@ -0,0 +1,19 @@
+package com.istlgroup.istl_group_crm_backend.repo;
+
+import com.istlgroup.istl_group_crm_backend.entity.DocumentSequenceEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DocumentSequenceRepository extends JpaRepository<DocumentSequenceEntity, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DocumentSequenceEntity s WHERE s.name = :name")
+    Optional<DocumentSequenceEntity> findForUpdate(@Param("name") String name);
+}
@@ -1,6 +1,7 @@
 package com.istlgroup.istl_group_crm_backend.repo;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -32,13 +33,17 @@ public interface FollowupsRepo extends JpaRepository<FollowupsEntity, Long> {
     @Query("SELECT COUNT(f) FROM FollowupsEntity f WHERE f.leadId = :leadId AND f.status = 'Pending'")
     int countPendingByLeadId(@Param("leadId") Long leadId);
     
+    // Pending followup counts per lead, as [leadId, count]; leads without pending followups are absent
+    @Query("SELECT f.leadId, COUNT(f) FROM FollowupsEntity f WHERE f.leadId IN :leadIds AND f.status = 'Pending' GROUP BY f.leadId")
+    List<Object[]> countPendingByLeadIdIn(@Param("leadIds") Collection<Long> leadIds);
+    
     // Find overdue followups
     @Query("SELECT f FROM FollowupsEntity f WHERE f.status = 'Pending' AND f.scheduledAt < :now ORDER BY f.scheduledAt ASC")
     List<FollowupsEntity> findOverdueFollowups(@Param("now") LocalDateTime now);
     
-    // Find today's followups
-    @Query("SELECT f FROM FollowupsEntity f WHERE f.status = 'Pending' AND DATE(f.scheduledAt) = DATE(:today) ORDER BY f.scheduledAt ASC")
-    List<FollowupsEntity> findTodaysFollowups(@Param("today") LocalDateTime today);
+    // Find pending followups scheduled in [from, to); a plain range so the scheduled_at index is usable
+    @Query("SELECT f FROM FollowupsEntity f WHERE f.status = 'Pending' AND f.scheduledAt >= :from AND f.scheduledAt < :to ORDER BY f.scheduledAt ASC")
+    List<FollowupsEntity> findPendingScheduledBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
     
     // Search followups
     @Query("SELECT f FROM FollowupsEntity f WHERE " +
@@ -4,17 +4,43 @@ package com.istlgroup.istl_group_crm_backend.repo;
 import com.istlgroup.istl_group_crm_backend.entity.InvoiceEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.criteria.Predicate;
+
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InvoiceRepository extends JpaRepository<InvoiceEntity, Long> {
+public interface InvoiceRepository extends JpaRepository<InvoiceEntity, Long>, JpaSpecificationExecutor<InvoiceEntity> {
+    
+    /**
+     * Keyset-paging equivalent of the listing and search queries below; null arguments are not applied
+     */
+    static Specification<InvoiceEntity> activeMatching(String groupId, String subGroupId, String projectId,
+                                                       Long createdBy, String searchTerm) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNull(root.get("deletedAt")));
+            if (groupId != null) predicates.add(cb.equal(root.get("groupId"), groupId));
+            if (subGroupId != null) predicates.add(cb.equal(root.get("subGroupId"), subGroupId));
+            if (projectId != null) predicates.add(cb.equal(root.get("projectId"), projectId));
+            if (createdBy != null) predicates.add(cb.equal(root.get("createdBy"), createdBy));
+            if (searchTerm != null) {
+                predicates.add(cb.like(cb.lower(root.get("invoiceNo")), "%" + searchTerm.toLowerCase() + "%"));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
     
     // Basic queries
     Optional<InvoiceEntity> findByInvoiceNo(String invoiceNo);
@@ -81,6 +107,39 @@ public interface InvoiceRepository extends JpaRepository<InvoiceEntity, Long> {
         Pageable pageable
     );
     
+    @Query("SELECT i FROM InvoiceEntity i WHERE i.id IN :ids AND i.deletedAt IS NULL")
+    Page<InvoiceEntity> findActiveByIdIn(@Param("ids") Collection<Long> ids, Pageable pageable);
+    
+    @Query("SELECT i FROM InvoiceEntity i WHERE i.id IN :ids AND i.createdBy = :userId AND i.deletedAt IS NULL")
+    Page<InvoiceEntity> findActiveByIdInWithUserAccess(
+        @Param("ids") Collection<Long> ids,
+        @Param("userId") Long userId,
+        Pageable pageable
+    );
+    
+    /**
+     * Ids of active invoices for bulk PDF export, in invoice date order; null arguments are not applied
+     */
+    @Query("SELECT i.id FROM InvoiceEntity i WHERE i.deletedAt IS NULL " +
+           "AND (:groupId IS NULL OR i.groupId = :groupId) " +
+           "AND (:subGroupId IS NULL OR i.subGroupId = :subGroupId) " +
+           "AND (:projectId IS NULL OR i.projectId = :projectId) " +
+           "AND (:createdBy IS NULL OR i.createdBy = :createdBy) " +
+           "AND (:fromDate IS NULL OR i.invoiceDate >= :fromDate) " +
+           "AND (:toDate IS NULL OR i.invoiceDate <= :toDate) " +
+           "ORDER BY i.invoiceDate, i.id")
+    List<Long> findExportIds(
+        @Param("groupId") String groupId,
+        @Param("subGroupId") String subGroupId,
+        @Param("projectId") String projectId,
+        @Param("createdBy") Long createdBy,
+        @Param("fromDate") LocalDate fromDate,
+        @Param("toDate") LocalDate toDate
+    );
+    
+    @Query("SELECT DISTINCT i FROM InvoiceEntity i LEFT JOIN FETCH i.items WHERE i.id IN :ids")
+    List<InvoiceEntity> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+    
     // Statistics queries - CHANGED: Now using String status instead of enum
     @Query("SELECT COUNT(i) FROM InvoiceEntity i WHERE i.deletedAt IS NULL")
     long countAll();
@@ -103,5 +162,17 @@ public interface InvoiceRepository extends JpaRepository<InvoiceEntity, Long> {
            "ORDER BY inv.invoiceDate DESC")
     List<InvoiceEntity> findByProjectIdAndDeletedAtIsNull(@Param("projectId") String projectId);
     
+    /**
+     * Invoice figures for project stats in one pass, one row per project:
+     * [projectId, totalCount, totalAmount, paidCount, paidAmount, balanceAmount]
+     */
+    @Query("SELECT i.projectId, COUNT(i), COALESCE(SUM(i.totalAmount), 0), " +
+           "SUM(CASE WHEN i.status = 'Paid' THEN 1 ELSE 0 END), " +
+           "COALESCE(SUM(i.paidAmount), 0), COALESCE(SUM(i.balanceAmount), 0) " +
+           "FROM InvoiceEntity i " +
+           "WHERE i.projectId IN :projectIds AND i.deletedAt IS NULL " +
+           "GROUP BY i.projectId")
+    List<Object[]> aggregateStatsByProjectIds(@Param("projectIds") Collection<String> projectIds);
+    
     
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.istlgroup.istl_group_crm_backend.repo;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -95,6 +96,54 @@ public interface LeadsRepo extends JpaRepository<LeadsEntity, Long> {
         @Param("toDate") LocalDateTime toDate
     );
 
+    // Same filters as searchLeads, with the search term already resolved to ids by SearchIndexService
+    @Query("SELECT l FROM LeadsEntity l WHERE l.deletedAt IS NULL " +
+           "AND l.id IN :ids " +
+           "AND (:status IS NULL OR l.status = :status) " +
+           "AND (:priority IS NULL OR l.priority = :priority) " +
+           "AND (:source IS NULL OR l.source = :source) " +
+           "AND (:groupName IS NULL OR l.groupName = :groupName) " +
+           "AND (:subGroupName IS NULL OR l.subGroupName = :subGroupName) " +
+           "AND (:assignedTo IS NULL OR l.assignedTo = :assignedTo) " +
+           "AND (:fromDate IS NULL OR l.createdAt >= :fromDate) " +
+           "AND (:toDate IS NULL OR l.createdAt <= :toDate)")
+    List<LeadsEntity> searchLeadsByIds(
+        @Param("ids") Collection<Long> ids,
+        @Param("status") String status,
+        @Param("priority") String priority,
+        @Param("source") String source,
+        @Param("groupName") String groupName,
+        @Param("subGroupName") String subGroupName,
+        @Param("assignedTo") Long assignedTo,
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate
+    );
+
+    // Same filters as searchLeadsForUser, with the search term already resolved to ids
+    @Query("SELECT l FROM LeadsEntity l WHERE l.deletedAt IS NULL " +
+           "AND (l.createdBy = :userId OR l.assignedTo = :userId) " +
+           "AND l.id IN :ids " +
+           "AND (:status IS NULL OR l.status = :status) " +
+           "AND (:priority IS NULL OR l.priority = :priority) " +
+           "AND (:source IS NULL OR l.source = :source) " +
+           "AND (:groupName IS NULL OR l.groupName = :groupName) " +
+           "AND (:subGroupName IS NULL OR l.subGroupName = :subGroupName) " +
+           "AND (:assignedTo IS NULL OR l.assignedTo = :assignedTo) " +
+           "AND (:fromDate IS NULL OR l.createdAt >= :fromDate) " +
+           "AND (:toDate IS NULL OR l.createdAt <= :toDate)")
+    List<LeadsEntity> searchLeadsForUserByIds(
+        @Param("userId") Long userId,
+        @Param("ids") Collection<Long> ids,
+        @Param("status") String status,
+        @Param("priority") String priority,
+        @Param("source") String source,
+        @Param("groupName") String groupName,
+        @Param("subGroupName") String subGroupName,
+        @Param("assignedTo") Long assignedTo,
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate
+    );
+
     // Count leads by status
     @Query("SELECT COUNT(l) FROM LeadsEntity l WHERE l.deletedAt IS NULL AND l.status = :status")
     Long countByStatus(@Param("status") String status);
@@ -1,9 +1,11 @@
 package com.istlgroup.istl_group_crm_backend.repo;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -11,14 +13,20 @@ import com.istlgroup.istl_group_crm_backend.entity.LoginEntity;
 
 public interface LoginRepo extends JpaRepository<LoginEntity,Long> {
 
-	@Query("SELECT c FROM LoginEntity c WHERE (c.user_id = :username OR c.email = :username OR c.phone = :username) AND c.password = :password")
-	public LoginEntity AuthenticateUser(@Param("username") String username, @Param("password") String password);
+	/**
+	 * Login in one round-trip: [LoginEntity user, String creatorName, String creatorPhone,
+	 * MenuPermissionsEntity or null, PagePermissionsEntity or null]
+	 */
+	@Query("SELECT c, creator.name, creator.phone, m, p FROM LoginEntity c " +
+	       "LEFT JOIN LoginEntity creator ON creator.id = c.created_by " +
+	       "LEFT JOIN MenuPermissionsEntity m ON m.usersId = c.id " +
+	       "LEFT JOIN PagePermissionsEntity p ON p.user_id = c.id " +
+	       "WHERE (c.user_id = :username OR c.email = :username OR c.phone = :username) AND c.password = :password")
+	public List<Object[]> authenticateWithProfile(@Param("username") String username, @Param("password") String password);
 	
-	@Query("SELECT u.name FROM LoginEntity u WHERE u.id = :id")
-    public Optional<String> findRoleByUserId(@Param("id") Long id);
-	
-	@Query("SELECT u.phone FROM LoginEntity u WHERE u.id = :id")
-    public String findPhone(@Param("id") Long id);
+	@Modifying
+	@Query("UPDATE LoginEntity u SET u.last_login_at = :loginAt WHERE u.id IN :ids")
+	public int updateLastLoginAt(@Param("ids") Collection<Long> ids, @Param("loginAt") LocalDateTime loginAt);
 
 	@Query("SELECT u FROM LoginEntity u WHERE u.created_by = :userId")
 	public List<LoginEntity> getAllUsers(@Param("userId") Long userId);
@@ -26,14 +34,15 @@ public interface LoginRepo extends JpaRepository<LoginEntity,Long> {
 	@Query(value = "SELECT * FROM users ORDER BY id LIMIT :size OFFSET :offset",nativeQuery = true)
 	public List<LoginEntity> findUsersWithPagination(@Param("size") int size,@Param("offset") int offset);
 
-	@Query(value = "SELECT * FROM users ORDER BY id LIMIT :size OFFSET :offset", nativeQuery = true)
-	public List<LoginEntity> findAllUsersWithPagination( @Param("size") int size,@Param("offset") int offset);
+	// afterId is 0 for offset paging; keyset paging passes the last id with offset 0
+	@Query(value = "SELECT * FROM users WHERE id > :afterId ORDER BY id LIMIT :size OFFSET :offset", nativeQuery = true)
+	public List<LoginEntity> findAllUsersWithPagination(@Param("afterId") long afterId, @Param("size") int size,@Param("offset") int offset);
 	
 	@Query(value = "SELECT COUNT(*) FROM users WHERE created_by = :userId", nativeQuery = true)
 	public long countUsersByCreatedBy(@Param("userId") Long userId);
 	
-	@Query(value = "SELECT * FROM users  WHERE created_by = :userId  ORDER BY id  LIMIT :size OFFSET :offset", nativeQuery = true)
-	public List<LoginEntity> findUsersByCreatedByWithPagination( @Param("userId") Long userId, @Param("size") int size, @Param("offset") int offset);
+	@Query(value = "SELECT * FROM users  WHERE created_by = :userId AND id > :afterId  ORDER BY id  LIMIT :size OFFSET :offset", nativeQuery = true)
+	public List<LoginEntity> findUsersByCreatedByWithPagination( @Param("userId") Long userId, @Param("afterId") long afterId, @Param("size") int size, @Param("offset") int offset);
 
 	
 	@Query(value="SELECT COUNT(*) FROM users WHERE is_active=1 AND created_by=:userId", nativeQuery = true)
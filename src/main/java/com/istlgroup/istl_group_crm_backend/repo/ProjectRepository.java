@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 import com.istlgroup.istl_group_crm_backend.entity.ProjectEntity;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +27,14 @@ public interface ProjectRepository extends JpaRepository<ProjectEntity, Long> {
     List<ProjectEntity> findBySubGroupId(Long subGroupId);
     
     List<ProjectEntity> findByIsActive(Boolean isActive);
+    
+    List<ProjectEntity> findByProjectUniqueIdIn(Collection<String> projectUniqueIds);
+    
+    /**
+     * Unique IDs of active projects, used to split batch stats recalculation into chunks
+     */
+    @Query("SELECT p.projectUniqueId FROM ProjectEntity p WHERE p.isActive = true ORDER BY p.id")
+    List<String> findActiveProjectUniqueIds();
 
     // Dashboard Statistics Queries
     
@@ -3,18 +3,50 @@ package com.istlgroup.istl_group_crm_backend.repo;
 import com.istlgroup.istl_group_crm_backend.entity.PurchaseOrderEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.criteria.Predicate;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrderEntity, Long> {
+public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrderEntity, Long>, JpaSpecificationExecutor<PurchaseOrderEntity> {
+    
+    /**
+     * Keyset-paging equivalent of the listing queries below; null arguments are not applied
+     */
+    static Specification<PurchaseOrderEntity> activeMatching(String groupName, String subGroupName, String projectId,
+                                                             Long accessUserId, String searchTerm) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNull(root.get("deletedAt")));
+            if (groupName != null) predicates.add(cb.equal(root.get("groupName"), groupName));
+            if (subGroupName != null) predicates.add(cb.equal(root.get("subGroupName"), subGroupName));
+            if (projectId != null) predicates.add(cb.equal(root.get("projectId"), projectId));
+            if (accessUserId != null) {
+                predicates.add(cb.or(
+                        cb.equal(root.get("createdBy"), accessUserId),
+                        cb.equal(root.get("approvedBy"), accessUserId)));
+            }
+            if (searchTerm != null) {
+                String pattern = "%" + searchTerm.toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("poNo")), pattern),
+                        cb.like(cb.lower(root.get("rfqId")), pattern)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
     
     // ========== Basic Queries ==========
     
@@ -89,17 +121,40 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrderEnti
            "po.deletedAt IS NULL")
     Page<PurchaseOrderEntity> search(@Param("searchTerm") String searchTerm, Pageable pageable);
     
+    @Query("SELECT po FROM PurchaseOrderEntity po WHERE po.id IN :ids AND po.deletedAt IS NULL")
+    Page<PurchaseOrderEntity> findActiveByIdIn(@Param("ids") Collection<Long> ids, Pageable pageable);
+    
     // ========== Statistics ==========
     
     @Query("SELECT COUNT(po) FROM PurchaseOrderEntity po WHERE po.deletedAt IS NULL")
     long countActivePOs();
     
+    long countByPoNoStartingWith(String prefix);
+    
     @Query("SELECT COUNT(po) FROM PurchaseOrderEntity po WHERE po.status = :status AND po.deletedAt IS NULL")
     long countByStatus(@Param("status") String status);
     
     @Query("SELECT SUM(po.totalValue) FROM PurchaseOrderEntity po WHERE po.deletedAt IS NULL")
     Double getTotalPOValue();
     
+    /**
+     * Count POs and sum their value by status for the statistics cards.
+     * Null filters are ignored; userId restricts to POs created or approved by that user.
+     */
+    @Query("SELECT po.status, COUNT(po), COALESCE(SUM(po.totalValue), 0) FROM PurchaseOrderEntity po " +
+           "WHERE po.deletedAt IS NULL " +
+           "AND (:groupName IS NULL OR po.groupName = :groupName) " +
+           "AND (:subGroupName IS NULL OR po.subGroupName = :subGroupName) " +
+           "AND (:projectId IS NULL OR po.projectId = :projectId) " +
+           "AND (:userId IS NULL OR po.createdBy = :userId OR po.approvedBy = :userId) " +
+           "GROUP BY po.status")
+    List<Object[]> countAndSumGroupByStatus(
+        @Param("groupName") String groupName,
+        @Param("subGroupName") String subGroupName,
+        @Param("projectId") String projectId,
+        @Param("userId") Long userId
+    );
+    
     
     
     
@@ -209,6 +264,38 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrderEnti
          @Param("endDate") LocalDateTime endDate
      );
      
+     /**
+      * Spending per calendar month in [from, to)
+      * Returns [year, month, totalValue, orderCount]
+      */
+     @Query("SELECT YEAR(po.orderDate), MONTH(po.orderDate), COALESCE(SUM(po.totalValue), 0), COUNT(po) " +
+            "FROM PurchaseOrderEntity po " +
+            "WHERE po.projectId = :projectId " +
+            "AND po.orderDate >= :from AND po.orderDate < :to " +
+            "AND po.deletedAt IS NULL " +
+            "GROUP BY YEAR(po.orderDate), MONTH(po.orderDate)")
+     List<Object[]> sumSpendingByProjectIdGroupByMonth(
+         @Param("projectId") String projectId,
+         @Param("from") LocalDateTime from,
+         @Param("to") LocalDateTime to
+     );
+     
+     /**
+      * Spending per ISO week in [from, to)
+      * Returns [yearWeek (YYYYWW), totalValue, orderCount]
+      */
+     @Query(value = "SELECT YEARWEEK(po.order_date, 3) AS year_week, COALESCE(SUM(po.total_value), 0), COUNT(*) " +
+            "FROM purchase_orders po " +
+            "WHERE po.project_id = :projectId " +
+            "AND po.order_date >= :from AND po.order_date < :to " +
+            "AND po.deleted_at IS NULL " +
+            "GROUP BY year_week", nativeQuery = true)
+     List<Object[]> sumSpendingByProjectIdGroupByWeek(
+         @Param("projectId") String projectId,
+         @Param("from") LocalDateTime from,
+         @Param("to") LocalDateTime to
+     );
+     
      /**
       * Count POs by vendor
       */
@@ -223,4 +310,19 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrderEnti
     	List<PurchaseOrderEntity> findByProjectIdAndStatus(
     	    @Param("projectId") String projectId, 
     	    @Param("status") String status
-    	);}
\ No newline at end of file
+    	);
+
+     /**
+      * PO figures for project stats in one pass, one row per project:
+      * [projectId, totalCount, totalValue, deliveredCount, deliveredValue, pendingValue, cancelledValue]
+      */
+     @Query("SELECT po.projectId, COUNT(po), COALESCE(SUM(po.totalValue), 0), " +
+            "SUM(CASE WHEN po.status = 'Delivered' THEN 1 ELSE 0 END), " +
+            "COALESCE(SUM(CASE WHEN po.status = 'Delivered' THEN po.totalValue ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN po.status IN ('Approved', 'Ordered', 'In-Transit') THEN po.totalValue ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN po.status = 'Cancelled' THEN po.totalValue ELSE 0 END), 0) " +
+            "FROM PurchaseOrderEntity po " +
+            "WHERE po.projectId IN :projectIds AND po.deletedAt IS NULL " +
+            "GROUP BY po.projectId")
+     List<Object[]> aggregateStatsByProjectIds(@Param("projectIds") Collection<String> projectIds);
+}
@@ -0,0 +1,13 @@
+package com.istlgroup.istl_group_crm_backend.repo;
+
+import com.istlgroup.istl_group_crm_backend.entity.QuotationAttachmentEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface QuotationAttachmentRepository extends JpaRepository<QuotationAttachmentEntity, Long> {
+
+    Optional<QuotationAttachmentEntity> findByQuotationId(Long quotationId);
+}
@@ -3,18 +3,48 @@ package com.istlgroup.istl_group_crm_backend.repo;
 import com.istlgroup.istl_group_crm_backend.entity.QuotationEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.criteria.Predicate;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface QuotationRepository extends JpaRepository<QuotationEntity, Long> {
+public interface QuotationRepository extends JpaRepository<QuotationEntity, Long>, JpaSpecificationExecutor<QuotationEntity> {
+    
+    /**
+     * Keyset-paging equivalent of the procurement listing queries below; null arguments are not applied
+     */
+    static Specification<QuotationEntity> activeProcurementMatching(String groupName, String subGroupName, String projectId,
+                                                                    Long preparedBy, String searchTerm) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("type"), "Procurement"));
+            predicates.add(cb.isNull(root.get("deletedAt")));
+            if (groupName != null) predicates.add(cb.equal(root.get("groupName"), groupName));
+            if (subGroupName != null) predicates.add(cb.equal(root.get("subGroupName"), subGroupName));
+            if (projectId != null) predicates.add(cb.equal(root.get("projectId"), projectId));
+            if (preparedBy != null) predicates.add(cb.equal(root.get("preparedBy"), preparedBy));
+            if (searchTerm != null) {
+                String pattern = "%" + searchTerm.toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("quoteNo")), pattern),
+                        cb.like(cb.lower(root.get("rfqId")), pattern)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
     
     // ========== Basic Queries ==========
     
@@ -95,11 +125,16 @@ public interface QuotationRepository extends JpaRepository<QuotationEntity, Long
            "q.deletedAt IS NULL")
     Page<QuotationEntity> searchProcurement(@Param("searchTerm") String searchTerm, Pageable pageable);
     
+    @Query("SELECT q FROM QuotationEntity q WHERE q.type = 'Procurement' AND q.id IN :ids AND q.deletedAt IS NULL")
+    Page<QuotationEntity> findProcurementByIdIn(@Param("ids") Collection<Long> ids, Pageable pageable);
+    
     // ========== Statistics ==========
     
     @Query("SELECT COUNT(q) FROM QuotationEntity q WHERE q.type = 'Procurement' AND q.deletedAt IS NULL")
     long countProcurementQuotations();
     
+    long countByQuoteNoStartingWith(String prefix);
+    
     @Query("SELECT COUNT(q) FROM QuotationEntity q WHERE q.type = 'Procurement' AND q.status = :status AND q.deletedAt IS NULL")
     long countByStatus(@Param("status") String status);
     
@@ -127,6 +162,24 @@ public interface QuotationRepository extends JpaRepository<QuotationEntity, Long
            "GROUP BY q.status")
     List<Object[]> countByProjectIdAndGroupByStatus(@Param("projectId") String projectId);
     
+    /**
+     * Count procurement quotations by status for the statistics cards.
+     * Null filters are ignored; userId restricts to quotations prepared by that user.
+     */
+    @Query("SELECT q.status, COUNT(q) FROM QuotationEntity q " +
+           "WHERE q.type = 'Procurement' AND q.deletedAt IS NULL " +
+           "AND (:groupName IS NULL OR q.groupName = :groupName) " +
+           "AND (:subGroupName IS NULL OR q.subGroupName = :subGroupName) " +
+           "AND (:projectId IS NULL OR q.projectId = :projectId) " +
+           "AND (:userId IS NULL OR q.preparedBy = :userId) " +
+           "GROUP BY q.status")
+    List<Object[]> countProcurementGroupByStatus(
+        @Param("groupName") String groupName,
+        @Param("subGroupName") String subGroupName,
+        @Param("projectId") String projectId,
+        @Param("userId") Long userId
+    );
+    
     /**
      * Find top 5 recent quotations for a project
      */
@@ -135,8 +188,28 @@ public interface QuotationRepository extends JpaRepository<QuotationEntity, Long
            "ORDER BY q.uploadedAt DESC")
     List<QuotationEntity> findTop5ByProjectIdOrderByUploadedAtDesc(@Param("projectId") String projectId);
     
-}
-
+    /**
+     * Quotation figures for project stats in one pass, one row per project:
+     * [projectId, totalCount, totalValue, approvedCount, approvedValue]
+     */
+    @Query("SELECT q.projectId, COUNT(q), COALESCE(SUM(q.totalValue), 0), " +
+           "SUM(CASE WHEN q.status = 'Approved' THEN 1 ELSE 0 END), " +
+           "COALESCE(SUM(CASE WHEN q.status = 'Approved' THEN q.totalValue ELSE 0 END), 0) " +
+           "FROM QuotationEntity q " +
+           "WHERE q.projectId IN :projectIds AND q.deletedAt IS NULL " +
+           "GROUP BY q.projectId")
+    List<Object[]> aggregateStatsByProjectIds(@Param("projectIds") Collection<String> projectIds);
     
-
-
+    // ========== Legacy File Migration ==========
+    
+    @Query(value = "SELECT id FROM quotations WHERE quotation_file IS NOT NULL ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsWithLegacyFile(@Param("limit") int limit);
+    
+    @Query(value = "SELECT quotation_file FROM quotations WHERE id = :id", nativeQuery = true)
+    byte[] findLegacyFile(@Param("id") Long id);
+    
+    @Modifying
+    @Query(value = "UPDATE quotations SET quotation_file = NULL WHERE id = :id", nativeQuery = true)
+    int clearLegacyFile(@Param("id") Long id);
+    
+}
@@ -1,5 +1,6 @@
 package com.istlgroup.istl_group_crm_backend.repo;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,10 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 	@Query("SELECT c FROM UsersEntity c WHERE c.user_id = :userid")
 	UsersEntity isUserIdExist(@Param("userid") String userid);
 
+	// Batch name lookup for list mappers: returns [id, name] rows
+	@Query("SELECT u.id, u.name FROM UsersEntity u WHERE u.id IN :ids")
+	List<Object[]> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
 	// Get distinct roles
 	@Query("SELECT DISTINCT u.role FROM UsersEntity u ORDER BY u.role")
 	List<String> findDistinctRoles();
@@ -30,14 +35,18 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 	// ============================================
 	// SUPERADMIN QUERIES (All Users)
 	// ============================================
+	// List queries seek past :afterId (0 for offset paging) so keyset
+	// paging can pass the last id with offset 0
 	
 	// Get all users with pagination (no filters)
 	@Query(value = """
 		SELECT * FROM users
+		WHERE id > :afterId
 		ORDER BY id
 		LIMIT :size OFFSET :offset
 	""", nativeQuery = true)
 	List<UsersEntity> findAllWithPagination(
+		@Param("afterId") long afterId,
 		@Param("size") int size,
 		@Param("offset") int offset
 	);
@@ -48,11 +57,13 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 	    WHERE (LOWER(name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))
 	       OR LOWER(email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))
 	       OR LOWER(phone) LIKE LOWER(CONCAT('%', :searchTerm, '%')))
+	      AND id > :afterId
 	    ORDER BY id
 	    LIMIT :size OFFSET :offset
 	""", nativeQuery = true)
 	List<UsersEntity> searchByNameOrEmailOrUserId(
 	    @Param("searchTerm") String searchTerm,
+	    @Param("afterId") long afterId,
 	    @Param("size") int size,
 	    @Param("offset") int offset
 	);
@@ -70,11 +81,13 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 	@Query(value = """
 		SELECT * FROM users
 		WHERE role = :role
+		  AND id > :afterId
 		ORDER BY id
 		LIMIT :size OFFSET :offset
 	""", nativeQuery = true)
 	List<UsersEntity> findByRole(
 		@Param("role") String role,
+		@Param("afterId") long afterId,
 		@Param("size") int size,
 		@Param("offset") int offset
 	);
@@ -90,12 +103,14 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 		   OR LOWER(email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))
 		   OR LOWER(user_id) LIKE LOWER(CONCAT('%', :searchTerm, '%')))
 		  AND role = :role
+		  AND id > :afterId
 		ORDER BY id
 		LIMIT :size OFFSET :offset
 	""", nativeQuery = true)
 	List<UsersEntity> searchByNameOrEmailOrUserIdAndRole(
 		@Param("searchTerm") String searchTerm,
 		@Param("role") String role,
+		@Param("afterId") long afterId,
 		@Param("size") int size,
 		@Param("offset") int offset
 	);
@@ -121,11 +136,13 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 	@Query(value = """
 		SELECT * FROM users
 		WHERE created_by = :userId
+		  AND id > :afterId
 		ORDER BY id
 		LIMIT :size OFFSET :offset
 	""", nativeQuery = true)
 	List<UsersEntity> findByCreatedBy(
 		@Param("userId") Long userId,
+		@Param("afterId") long afterId,
 		@Param("size") int size,
 		@Param("offset") int offset
 	);
@@ -139,12 +156,14 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 		SELECT * FROM users
 		WHERE created_by = :userId
 		  AND role = :role
+		  AND id > :afterId
 		ORDER BY id
 		LIMIT :size OFFSET :offset
 	""", nativeQuery = true)
 	List<UsersEntity> findByCreatedByAndRole(
 		@Param("userId") Long userId,
 		@Param("role") String role,
+		@Param("afterId") long afterId,
 		@Param("size") int size,
 		@Param("offset") int offset
 	);
@@ -167,12 +186,14 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 		  AND (LOWER(name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))
 		   OR LOWER(email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))
 		   OR LOWER(user_id) LIKE LOWER(CONCAT('%', :searchTerm, '%')))
+		  AND id > :afterId
 		ORDER BY id
 		LIMIT :size OFFSET :offset
 	""", nativeQuery = true)
 	List<UsersEntity> searchByCreatedBy(
 		@Param("userId") Long userId,
 		@Param("searchTerm") String searchTerm,
+		@Param("afterId") long afterId,
 		@Param("size") int size,
 		@Param("offset") int offset
 	);
@@ -198,6 +219,7 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 		  AND (LOWER(name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))
 		   OR LOWER(email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))
 		   OR LOWER(user_id) LIKE LOWER(CONCAT('%', :searchTerm, '%')))
+		  AND id > :afterId
 		ORDER BY id
 		LIMIT :size OFFSET :offset
 	""", nativeQuery = true)
@@ -205,6 +227,7 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 		@Param("userId") Long userId,
 		@Param("searchTerm") String searchTerm,
 		@Param("role") String role,
+		@Param("afterId") long afterId,
 		@Param("size") int size,
 		@Param("offset") int offset
 	);
@@ -224,6 +247,37 @@ public interface UsersRepo extends JpaRepository<UsersEntity, Long> {
 		@Param("role") String role
 	);
 
+	// Search with the term already resolved to ids by SearchIndexService; null role/createdBy means no filter
+	@Query(value = """
+		SELECT * FROM users
+		WHERE id IN (:ids)
+		  AND (:createdBy IS NULL OR created_by = :createdBy)
+		  AND (:role IS NULL OR role = :role)
+		  AND id > :afterId
+		ORDER BY id
+		LIMIT :size OFFSET :offset
+	""", nativeQuery = true)
+	List<UsersEntity> searchByIds(
+		@Param("ids") Collection<Long> ids,
+		@Param("createdBy") Long createdBy,
+		@Param("role") String role,
+		@Param("afterId") long afterId,
+		@Param("size") int size,
+		@Param("offset") int offset
+	);
+
+	@Query(value = """
+		SELECT COUNT(*) FROM users
+		WHERE id IN (:ids)
+		  AND (:createdBy IS NULL OR created_by = :createdBy)
+		  AND (:role IS NULL OR role = :role)
+	""", nativeQuery = true)
+	long countSearchByIds(
+		@Param("ids") Collection<Long> ids,
+		@Param("createdBy") Long createdBy,
+		@Param("role") String role
+	);
+
 	 Optional<UsersEntity> findByEmail(String email);
 	    Optional<UsersEntity> findByName(String name);
 	    Optional<UsersEntity> findByPhone(String phone);
@@ -3,18 +3,55 @@ package com.istlgroup.istl_group_crm_backend.repo;
 import com.istlgroup.istl_group_crm_backend.entity.VendorEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.criteria.Predicate;
+
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 @Repository
-public interface VendorRepository extends JpaRepository<VendorEntity, Long> {
+public interface VendorRepository extends JpaRepository<VendorEntity, Long>, JpaSpecificationExecutor<VendorEntity> {
+    
+    /**
+     * Keyset-paging equivalent of the listing and search queries below; null arguments are not applied
+     */
+    static Specification<VendorEntity> activeMatching(String groupName, String subGroupName, String projectId,
+                                                      String category, String status, Long accessUserId,
+                                                      String searchTerm) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNull(root.get("deletedAt")));
+            if (groupName != null) predicates.add(cb.equal(root.get("groupName"), groupName));
+            if (subGroupName != null) predicates.add(cb.equal(root.get("subGroupName"), subGroupName));
+            if (projectId != null) predicates.add(cb.equal(root.get("projectId"), projectId));
+            if (category != null) predicates.add(cb.equal(root.get("category"), category));
+            if (status != null) predicates.add(cb.equal(root.get("status"), status));
+            if (accessUserId != null) {
+                predicates.add(cb.or(
+                        cb.equal(root.get("createdBy"), accessUserId),
+                        cb.equal(root.get("assignedTo"), accessUserId)));
+            }
+            if (searchTerm != null) {
+                String pattern = "%" + searchTerm.toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("name")), pattern),
+                        cb.like(cb.lower(root.get("email")), pattern),
+                        cb.like(cb.lower(root.get("phone")), pattern),
+                        cb.like(cb.lower(root.get("vendorCode")), pattern)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
     
     // ========== Basic Queries ==========
     
@@ -144,6 +181,18 @@ public interface VendorRepository extends JpaRepository<VendorEntity, Long> {
         Pageable pageable
     );
     
+    @Query("SELECT v FROM VendorEntity v WHERE v.id IN :ids AND v.deletedAt IS NULL")
+    Page<VendorEntity> findActiveByIdIn(@Param("ids") Collection<Long> ids, Pageable pageable);
+    
+    @Query("SELECT v FROM VendorEntity v WHERE v.id IN :ids AND " +
+           "(v.createdBy = :userId OR v.assignedTo = :userId) AND " +
+           "v.deletedAt IS NULL")
+    Page<VendorEntity> findActiveByIdInWithUserAccess(
+        @Param("ids") Collection<Long> ids,
+        @Param("userId") Long userId,
+        Pageable pageable
+    );
+    
     // ========== Filter by Category/Type ==========
     
     @Query("SELECT v FROM VendorEntity v WHERE v.category = :category AND v.deletedAt IS NULL")
@@ -157,6 +206,8 @@ public interface VendorRepository extends JpaRepository<VendorEntity, Long> {
     @Query("SELECT COUNT(v) FROM VendorEntity v WHERE v.deletedAt IS NULL")
     long countActiveVendors();
     
+    long countByVendorCodeStartingWith(String prefix);
+    
     @Query("SELECT COUNT(v) FROM VendorEntity v WHERE " +
            "(:groupName IS NULL OR v.groupName = :groupName) AND " +
            "(:subGroupName IS NULL OR v.subGroupName = :subGroupName) AND " +
@@ -258,6 +309,17 @@ public interface VendorRepository extends JpaRepository<VendorEntity, Long> {
     @Query("SELECT COALESCE(SUM(v.totalPurchaseValue), 0) FROM VendorEntity v WHERE v.projectId = :projectId AND v.deletedAt IS NULL")
     Optional<BigDecimal> sumTotalPurchaseValueByProjectId(@Param("projectId") String projectId);
 
+    /**
+     * Vendor figures for project stats in one pass, one row per project:
+     * [projectId, activeCount, totalPurchaseValue]
+     */
+    @Query("SELECT v.projectId, SUM(CASE WHEN v.status = 'Active' THEN 1 ELSE 0 END), " +
+           "COALESCE(SUM(v.totalPurchaseValue), 0) " +
+           "FROM VendorEntity v " +
+           "WHERE v.projectId IN :projectIds AND v.deletedAt IS NULL " +
+           "GROUP BY v.projectId")
+    List<Object[]> aggregateStatsByProjectIds(@Param("projectIds") Collection<String> projectIds);
+
     @Query("SELECT AVG(v.rating) FROM VendorEntity v WHERE v.projectId = :projectId AND v.rating IS NOT NULL AND v.rating > 0 AND v.deletedAt IS NULL")
     Optional<Double> avgRatingByProjectId(@Param("projectId") String projectId);
 
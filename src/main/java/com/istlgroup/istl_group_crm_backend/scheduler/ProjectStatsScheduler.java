@@ -1,12 +1,17 @@
 package com.istlgroup.istl_group_crm_backend.scheduler;
 
+import com.istlgroup.istl_group_crm_backend.service.ProjectStatsBatchRecalculator;
 import com.istlgroup.istl_group_crm_backend.service.ProjectStatsService;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.StatsRecalculationResultDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component                       // ✅ Registers as Spring bean
 @RequiredArgsConstructor          // ✅ Creates constructor for final fields
 @Slf4j                            // ✅ Creates `log` object
@@ -18,24 +23,35 @@ import org.springframework.stereotype.Component;
 public class ProjectStatsScheduler {
 
     private final ProjectStatsService projectStatsService;
+    private final ProjectStatsBatchRecalculator projectStatsBatchRecalculator;
+
+    // @ConditionalOnProperty only applies to beans, so per-job switches are checked when the job fires
+    @Value("${scheduler.project-stats.full-recalc.enabled:true}")
+    private boolean fullRecalcEnabled;
+
+    @Value("${scheduler.project-stats.fix-inconsistent.enabled:true}")
+    private boolean fixInconsistentEnabled;
+
+    @Value("${scheduler.project-stats.health-check.enabled:false}")
+    private boolean healthCheckEnabled;
 
     /**
      * Recalculate all project statistics every 6 hours
      */
     @Scheduled(cron = "${scheduler.project-stats.full-recalc.cron:0 0 */6 * * *}")
-    @ConditionalOnProperty(
-            value = "scheduler.project-stats.full-recalc.enabled",
-            havingValue = "true",
-            matchIfMissing = true
-    )
     public void recalculateAllProjectStats() {
+        if (!fullRecalcEnabled) {
+            return;
+        }
         log.info("Starting scheduled full project statistics recalculation");
         long startTime = System.currentTimeMillis();
 
         try {
-            projectStatsService.recalculateAllProjectStats();
+            List<StatsRecalculationResultDTO> results = projectStatsBatchRecalculator.recalculateAllProjectStats();
+            long failedChunks = results.stream().filter(r -> !Boolean.TRUE.equals(r.getSuccess())).count();
             long duration = System.currentTimeMillis() - startTime;
-            log.info("Scheduled full project statistics recalculation completed in {} ms", duration);
+            log.info("Scheduled full project statistics recalculation completed in {} ms ({} chunks, {} failed)",
+                    duration, results.size(), failedChunks);
         } catch (Exception e) {
             log.error("Error during scheduled full project statistics recalculation", e);
         }
@@ -45,12 +61,10 @@ public class ProjectStatsScheduler {
      * Fix inconsistent project statistics every day at 3 AM
      */
     @Scheduled(cron = "${scheduler.project-stats.fix-inconsistent.cron:0 0 3 * * *}")
-    @ConditionalOnProperty(
-            value = "scheduler.project-stats.fix-inconsistent.enabled",
-            havingValue = "true",
-            matchIfMissing = true
-    )
     public void fixInconsistentStats() {
+        if (!fixInconsistentEnabled) {
+            return;
+        }
         log.info("Starting scheduled inconsistent stats fix");
 
         try {
@@ -65,12 +79,10 @@ public class ProjectStatsScheduler {
      * Health check
      */
     @Scheduled(cron = "0 0 * * * *")
-    @ConditionalOnProperty(
-            value = "scheduler.project-stats.health-check.enabled",
-            havingValue = "true",
-            matchIfMissing = false
-    )
     public void healthCheck() {
+        if (!healthCheckEnabled) {
+            return;
+        }
         log.info("ProjectStatsScheduler is active and healthy");
     }
 }
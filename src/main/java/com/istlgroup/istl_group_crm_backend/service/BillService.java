@@ -3,39 +3,47 @@ package com.istlgroup.istl_group_crm_backend.service;
 import com.istlgroup.istl_group_crm_backend.entity.BillEntity;
 import com.istlgroup.istl_group_crm_backend.entity.BillItemEntity;
 import com.istlgroup.istl_group_crm_backend.entity.BillPaymentEntity;
+import com.istlgroup.istl_group_crm_backend.event.ProjectDataChangedEvent;
 import com.istlgroup.istl_group_crm_backend.repo.BillItemRepository;
 import com.istlgroup.istl_group_crm_backend.repo.BillPaymentRepository;
 import com.istlgroup.istl_group_crm_backend.repo.BillRepository;
 import com.istlgroup.istl_group_crm_backend.repo.PurchaseOrderRepository;
-import com.istlgroup.istl_group_crm_backend.repo.UsersRepo;
 import com.istlgroup.istl_group_crm_backend.repo.VendorRepository;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.BillAttachmentDTO;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.BillDTO;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.BillItemDTO;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.BillStatsDTO;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.PaymentDTO;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.PaymentHistoryDTO;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -48,9 +56,12 @@ public class BillService {
     private final BillPaymentRepository billPaymentRepository;
     private final VendorRepository vendorRepository;
     private final PurchaseOrderRepository purchaseOrderRepository;
-    private final UsersRepo usersRepo;
+    private final UserDirectoryService userDirectoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DocumentSequenceService documentSequenceService;
+    private final FileContentStore fileContentStore;
     
-    private static final String UPLOAD_DIR = "uploads/bills/";
+    static final String FILE_AREA = "bills";
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
     
     /**
@@ -98,7 +109,54 @@ public class BillService {
             bills = billRepository.findByProjectIdWithFilters(projectId, status, vendorId, poId, pageable);
         }
         
-        return bills.map(this::enrichBillEntity);
+        return enrichBillPage(bills);
+    }
+    
+    /**
+     * Keyset-paged variant of getBills: same filters, no COUNT query
+     * @param cursor nextCursor of the previous slice, or blank for the first slice
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<BillDTO> getBillsSlice(
+            String projectId,
+            String groupId,
+            String subGroupId,
+            String status,
+            Long vendorId,
+            Long poId,
+            String cursor,
+            int size,
+            String sortBy,
+            String sortDirection,
+            boolean isAdmin
+    ) {
+        Specification<BillEntity> spec;
+        
+        if (isAdmin) {
+            if (projectId != null && !projectId.isEmpty()) {
+                spec = BillRepository.activeMatching(projectId, null, null, status, vendorId, poId);
+            } else if (subGroupId != null && !subGroupId.isEmpty()) {
+                spec = BillRepository.activeMatching(null, groupId, subGroupId, status, vendorId, poId);
+            } else if (groupId != null && !groupId.isEmpty()) {
+                spec = BillRepository.activeMatching(null, groupId, null, status, vendorId, poId);
+            } else {
+                spec = BillRepository.activeMatching(null, null, null, status, vendorId, poId);
+            }
+        } else {
+            if (projectId == null || projectId.isEmpty()) {
+                throw new RuntimeException("Project ID is required for non-admin users");
+            }
+            spec = BillRepository.activeMatching(projectId, null, null, status, vendorId, poId);
+        }
+        
+        KeysetSlice<BillEntity> bills = KeysetPager.scroll(billRepository, BillEntity.class, spec,
+                Sort.by(Sort.Direction.fromString(sortDirection), sortBy), size, cursor);
+        
+        Map<Long, String> userNames = userDirectoryService.resolveNames(collectUserIds(bills.getContent()));
+        List<BillDTO> dtos = bills.getContent().stream()
+                .map(bill -> enrichBillEntity(bill, userNames))
+                .collect(Collectors.toList());
+        return new KeysetSlice<>(dtos, size, bills.hasNext(), bills.getNextCursor());
     }
     
     @Transactional(readOnly = true)
@@ -178,6 +236,7 @@ public class BillService {
         bill = billRepository.save(bill);
         
         log.info("Created bill: {} with total: {}", bill.getBillNo(), bill.getTotalAmount());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(bill.getProjectId(), ProjectDataChangedEvent.Source.BILL));
         
         return enrichBillEntity(bill);
     }
@@ -216,6 +275,7 @@ public class BillService {
         bill = billRepository.save(bill);
         
         log.info("Updated bill: {} by user: {}", bill.getBillNo(), userId);
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(bill.getProjectId(), ProjectDataChangedEvent.Source.BILL));
         return enrichBillEntity(bill);
     }
     
@@ -234,6 +294,7 @@ public class BillService {
         billRepository.save(bill);
         
         log.info("Deleted bill: {} by user: {}", bill.getBillNo(), userId);
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(bill.getProjectId(), ProjectDataChangedEvent.Source.BILL));
     }
     
     @Transactional
@@ -254,21 +315,20 @@ public class BillService {
         BillEntity bill = billRepository.findByIdAndNotDeleted(billId)
                 .orElseThrow(() -> new RuntimeException("Bill not found: " + billId));
         
-        Path uploadPath = Paths.get(UPLOAD_DIR);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-        
         String originalFilename = file.getOriginalFilename();
-        String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String uniqueFilename = UUID.randomUUID().toString() + extension;
         
-        Path filePath = uploadPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Identical scans are stored once, named by their SHA-256
+        FileContentStore.StoredFile stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = fileContentStore.store(FILE_AREA, in);
+        }
+        Path filePath = fileContentStore.locate(FILE_AREA, stored.getHash());
         
         bill.setBillFilePath(filePath.toString());
         bill.setBillFileName(originalFilename);
-        bill.setBillFileSize(file.getSize());
+        bill.setBillFileSize(stored.getSize());
+        bill.setBillFileType(contentType);
+        bill.setBillFileHash(stored.getHash());
         bill.setUpdatedBy(userId);
         bill.setUpdatedAt(LocalDateTime.now());
         billRepository.save(bill);
@@ -277,6 +337,29 @@ public class BillService {
         return filePath.toString();
     }
     
+    /**
+     * File metadata for downloads, without loading the bill's items, payments or names
+     */
+    @Transactional(readOnly = true)
+    public BillAttachmentDTO getAttachment(Long billId) {
+        return billRepository.findAttachmentById(billId)
+                .filter(attachment -> attachment.getFilePath() != null)
+                .orElseThrow(() -> new RuntimeException("No file attached to bill: " + billId));
+    }
+    
+    /**
+     * Open a bill file for streaming: from the content store, or from its
+     * original path for files uploaded before the store was used
+     * @return null if the file is missing on disk
+     */
+    public Resource openAttachment(BillAttachmentDTO attachment) {
+        if (attachment.getFileHash() != null && fileContentStore.exists(FILE_AREA, attachment.getFileHash())) {
+            return fileContentStore.load(FILE_AREA, attachment.getFileHash());
+        }
+        Path legacyPath = Paths.get(attachment.getFilePath());
+        return Files.isReadable(legacyPath) ? new FileSystemResource(legacyPath) : null;
+    }
+    
     @Transactional
     public BillDTO addPayment(Long billId, PaymentDTO paymentDTO, Long userId) {
         BillEntity bill = billRepository.findByIdAndNotDeleted(billId)
@@ -311,6 +394,7 @@ public class BillService {
         bill = billRepository.save(bill);
         
         log.info("Added payment of {} to bill: {} by user: {}", paymentAmount, bill.getBillNo(), userId);
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(bill.getProjectId(), ProjectDataChangedEvent.Source.BILL));
         return enrichBillEntity(bill);
     }
     
@@ -347,6 +431,7 @@ public class BillService {
         bill = billRepository.save(bill);
         
         log.info("Marked bill as paid: {} by user: {}", bill.getBillNo(), userId);
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(bill.getProjectId(), ProjectDataChangedEvent.Source.BILL));
         return enrichBillEntity(bill);
     }
     
@@ -409,7 +494,29 @@ public class BillService {
     
     // ========== HELPER METHODS ==========
     
+    /**
+     * Enrich a page of bills, resolving uploader and payer names in one lookup
+     */
+    private Page<BillDTO> enrichBillPage(Page<BillEntity> bills) {
+        Map<Long, String> userNames = userDirectoryService.resolveNames(collectUserIds(bills.getContent()));
+        return bills.map(bill -> enrichBillEntity(bill, userNames));
+    }
+    
     private BillDTO enrichBillEntity(BillEntity bill) {
+        Map<Long, String> userNames = userDirectoryService.resolveNames(collectUserIds(List.of(bill)));
+        return enrichBillEntity(bill, userNames);
+    }
+    
+    private Set<Long> collectUserIds(List<BillEntity> bills) {
+        Set<Long> userIds = new HashSet<>();
+        for (BillEntity bill : bills) {
+            userIds.add(bill.getUploadedBy());
+            bill.getPayments().forEach(payment -> userIds.add(payment.getPaidBy()));
+        }
+        return userIds;
+    }
+    
+    private BillDTO enrichBillEntity(BillEntity bill, Map<Long, String> userNames) {
         BillDTO dto = new BillDTO();
         dto.setId(bill.getId());
         dto.setBillNo(bill.getBillNo());
@@ -447,9 +554,7 @@ public class BillService {
         
         // Get uploader name
         if (bill.getUploadedBy() != null) {
-            usersRepo.findById(bill.getUploadedBy()).ifPresent(user -> {
-                dto.setUploadedByName(user.getName());
-            });
+            dto.setUploadedByName(userNames.get(bill.getUploadedBy()));
         }
         
         // Get items
@@ -479,9 +584,7 @@ public class BillService {
                     paymentDTO.setAmount(payment.getAmount());
                     
                     if (payment.getPaidBy() != null) {
-                        usersRepo.findById(payment.getPaidBy()).ifPresent(user -> {
-                            paymentDTO.setPaidByName(user.getName());
-                        });
+                        paymentDTO.setPaidByName(userNames.get(payment.getPaidBy()));
                     }
                     
                     return paymentDTO;
@@ -507,13 +610,10 @@ public class BillService {
     private String generateBillNumber() {
         String year = String.valueOf(LocalDateTime.now().getYear());
         String prefix = "BILL-" + year + "-";
-        String maxBillNo = billRepository.findMaxBillNoWithPrefix(prefix + "%");
-        
-        int nextNumber = 1;
-        if (maxBillNo != null) {
-            String numberPart = maxBillNo.substring(maxBillNo.lastIndexOf("-") + 1);
-            nextNumber = Integer.parseInt(numberPart) + 1;
-        }
+        long nextNumber = documentSequenceService.next("BILL-" + year, () -> {
+            String maxBillNo = billRepository.findMaxBillNoWithPrefix(prefix + "%");
+            return maxBillNo == null ? 0 : Long.parseLong(maxBillNo.substring(maxBillNo.lastIndexOf("-") + 1));
+        });
         
         return prefix + String.format("%03d", nextNumber);
     }
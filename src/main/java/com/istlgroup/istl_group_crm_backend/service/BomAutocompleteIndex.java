@@ -0,0 +1,335 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.entity.BomItemsMasterEntity;
+import com.istlgroup.istl_group_crm_backend.repo.BomItemsMasterRepo;
+import com.istlgroup.istl_group_crm_backend.service.ReferenceDataCache.Kind;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory autocomplete over the active BOM master items.
+ *
+ * Item name, make/brand, HSN code, specification and description are split
+ * into lower-case word tokens held in a sorted map, so each typed word is a
+ * prefix range lookup. Every typed word must prefix some token of an item;
+ * hits are ranked by the field they matched (name first), exact words and a
+ * name starting with the typed text, and only the top results are kept.
+ *
+ * The index is loaded after startup and refreshed every
+ * bom-autocomplete.refresh-ms on its own thread, re-indexing only rows that
+ * changed; in-app writes arrive through
+ * SearchIndexEntityListener after each commit. Callers fall back to the
+ * database whenever search returns null (disabled or not loaded yet).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BomAutocompleteIndex {
+
+    private static final int NAME_WEIGHT = 100;
+    private static final int BRAND_WEIGHT = 40;
+    private static final int HSN_WEIGHT = 40;
+    private static final int SPECIFICATION_WEIGHT = 10;
+    private static final int DESCRIPTION_WEIGHT = 5;
+    private static final int EXACT_WORD_BONUS = 20;
+    private static final int NAME_PREFIX_BONUS = 200;
+
+    // Best score first, then shorter and alphabetically earlier names
+    private static final Comparator<Hit> RANK = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparingInt((Hit hit) -> hit.doc().name().length())
+            .thenComparing(hit -> hit.doc().name())
+            .thenComparing(hit -> hit.doc().id());
+
+    private final BomItemsMasterRepo bomItemsMasterRepo;
+    private final ReferenceDataCache referenceDataCache;
+
+    @Value("${bom-autocomplete.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bom-autocomplete.refresh-ms:600000}")
+    private long refreshMs;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bom-autocomplete-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            log.info("BOM autocomplete index is disabled; searches use LIKE queries");
+            return;
+        }
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Failed to build BOM autocomplete index; falling back to LIKE queries", e);
+        }
+        // Pick up master rows changed outside the application
+        executor.scheduleWithFixedDelay(this::scheduledRefresh, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Failed to refresh BOM autocomplete index", e);
+        }
+    }
+
+    /**
+     * Reload the active items and re-index only rows that were added, changed
+     * or removed. Holding the lock makes a commit notified meanwhile apply
+     * after this load, never before it.
+     */
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        List<BomItemsMasterEntity> items = bomItemsMasterRepo.findByIsActiveTrue();
+
+        Set<Long> active = new HashSet<>();
+        int changed = 0;
+        for (BomItemsMasterEntity item : items) {
+            active.add(item.getId());
+            Doc doc = Doc.of(item);
+            Doc previous = docs.get(item.getId());
+            if (previous == null || !previous.row().equals(doc.row())) {
+                putInternal(doc);
+                changed++;
+            }
+        }
+        for (Long id : new ArrayList<>(docs.keySet())) {
+            if (!active.contains(id)) {
+                removeInternal(id);
+                changed++;
+            }
+        }
+
+        ready = true;
+        if (changed > 0) {
+            referenceDataCache.invalidate(Kind.BOM_ITEMS, Kind.BOM_CATEGORIES);
+        }
+        log.info("Refreshed BOM autocomplete index: {} items, {} changed in {} ms",
+                docs.size(), changed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Best matching active items as API maps, best first. A blank term lists
+     * items alphabetically. Category may be null for all categories.
+     * @return null when the caller should query the database instead
+     */
+    public List<Map<String, Object>> search(String term, String category, int limit) {
+        if (!enabled || !ready) {
+            return null;
+        }
+        List<String> words = tokenize(term);
+
+        Iterable<Long> candidates;
+        if (words.isEmpty()) {
+            candidates = docs.keySet();
+        } else {
+            // Scan the rarest word's matches; scoring checks the other words
+            Set<Long> rarest = null;
+            for (String word : words) {
+                Set<Long> ids = prefixMatches(word);
+                if (rarest == null || ids.size() < rarest.size()) {
+                    rarest = ids;
+                }
+            }
+            candidates = rarest;
+        }
+
+        String phrase = String.join(" ", words);
+        PriorityQueue<Hit> top = new PriorityQueue<>(RANK.reversed());
+        for (Long id : candidates) {
+            Doc doc = docs.get(id);
+            if (doc == null || (category != null && !category.equals(doc.category()))) {
+                continue;
+            }
+            int score = doc.score(words, phrase);
+            if (score < 0) {
+                continue;
+            }
+            top.offer(new Hit(doc, score));
+            if (top.size() > limit) {
+                // Drop the worst so only the best limit hits are kept
+                top.poll();
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(RANK);
+        List<Map<String, Object>> result = new ArrayList<>(ranked.size());
+        for (Hit hit : ranked) {
+            result.add(hit.doc().row());
+        }
+        return result;
+    }
+
+    /**
+     * @return true if changes to this entity type are indexed
+     */
+    public boolean isIndexed(Class<?> entityType) {
+        return BomItemsMasterEntity.class.isAssignableFrom(entityType);
+    }
+
+    /**
+     * Apply a committed insert or update; inactive items leave the index
+     */
+    public synchronized void onEntitySaved(Object entity) {
+        if (entity instanceof BomItemsMasterEntity item && item.getId() != null) {
+            if (Boolean.TRUE.equals(item.getIsActive())) {
+                putInternal(Doc.of(item));
+            } else {
+                removeInternal(item.getId());
+            }
+            referenceDataCache.invalidate(Kind.BOM_ITEMS, Kind.BOM_CATEGORIES);
+        }
+    }
+
+    /**
+     * Apply a committed delete
+     */
+    public synchronized void onEntityDeleted(Object entity) {
+        if (entity instanceof BomItemsMasterEntity item && item.getId() != null) {
+            removeInternal(item.getId());
+            referenceDataCache.invalidate(Kind.BOM_ITEMS, Kind.BOM_CATEGORIES);
+        }
+    }
+
+    private Set<Long> prefixMatches(String word) {
+        Set<Long> ids = new HashSet<>();
+        for (Set<Long> tokenIds : postings.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+            ids.addAll(tokenIds);
+        }
+        return ids;
+    }
+
+    private void putInternal(Doc doc) {
+        removeInternal(doc.id());
+        for (String token : doc.tokens()) {
+            postings.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(doc.id());
+        }
+        docs.put(doc.id(), doc);
+    }
+
+    private void removeInternal(Long id) {
+        Doc previous = docs.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous.tokens()) {
+            Set<Long> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    private static List<String> tokenize(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private record Hit(Doc doc, int score) {
+    }
+
+    /**
+     * Tokens of one item by field, plus its API map
+     */
+    private record Doc(Long id, String category, String name, List<String> nameTokens,
+                       List<String> brandTokens, List<String> hsnTokens, List<String> specificationTokens,
+                       List<String> descriptionTokens, Map<String, Object> row) {
+
+        static Doc of(BomItemsMasterEntity item) {
+            List<String> nameTokens = tokenize(item.getItemName());
+            return new Doc(item.getId(), item.getCategory(), String.join(" ", nameTokens), nameTokens,
+                    tokenize(item.getMakeBrand()), tokenize(item.getHsnCode()),
+                    tokenize(item.getSpecification()), tokenize(item.getDescription()),
+                    Collections.unmodifiableMap(BomItemsMasterService.toMap(item)));
+        }
+
+        Set<String> tokens() {
+            Set<String> tokens = new HashSet<>(nameTokens);
+            tokens.addAll(brandTokens);
+            tokens.addAll(hsnTokens);
+            tokens.addAll(specificationTokens);
+            tokens.addAll(descriptionTokens);
+            return tokens;
+        }
+
+        /**
+         * Sum of each word's best field match, or -1 if any word matches no field
+         */
+        int score(List<String> words, String phrase) {
+            int total = 0;
+            for (String word : words) {
+                int best = Math.max(match(nameTokens, word, NAME_WEIGHT),
+                        Math.max(match(brandTokens, word, BRAND_WEIGHT), match(hsnTokens, word, HSN_WEIGHT)));
+                if (best == 0) {
+                    best = Math.max(match(specificationTokens, word, SPECIFICATION_WEIGHT),
+                            match(descriptionTokens, word, DESCRIPTION_WEIGHT));
+                }
+                if (best == 0) {
+                    return -1;
+                }
+                total += best;
+            }
+            if (!phrase.isEmpty() && name.startsWith(phrase)) {
+                total += NAME_PREFIX_BONUS;
+            }
+            return total;
+        }
+
+        private static int match(List<String> tokens, String word, int weight) {
+            int best = 0;
+            for (String token : tokens) {
+                if (token.equals(word)) {
+                    return weight + EXACT_WORD_BONUS;
+                }
+                if (token.startsWith(word)) {
+                    best = weight;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -4,6 +4,9 @@ import com.istlgroup.istl_group_crm_backend.entity.BomItemsMasterEntity;
 import com.istlgroup.istl_group_crm_backend.repo.BomItemsMasterRepo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +19,10 @@ import java.util.stream.Collectors;
 public class BomItemsMasterService {
 
     private final BomItemsMasterRepo bomItemsMasterRepo;
+    private final BomAutocompleteIndex bomAutocompleteIndex;
+
+    @Value("${bom-autocomplete.max-results:20}")
+    private int maxResults;
 
     /**
      * Get all active BOM items
@@ -23,7 +30,7 @@ public class BomItemsMasterService {
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getAllActiveBomItems() {
         return bomItemsMasterRepo.findByIsActiveTrue().stream()
-                .map(this::convertToMap)
+                .map(BomItemsMasterService::toMap)
                 .collect(Collectors.toList());
     }
 
@@ -33,33 +40,27 @@ public class BomItemsMasterService {
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getBomItemsByCategory(String category) {
         return bomItemsMasterRepo.findByCategoryAndIsActiveTrue(category).stream()
-                .map(this::convertToMap)
+                .map(BomItemsMasterService::toMap)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Search BOM items (autocomplete)
+     * Search BOM items (autocomplete); a blank term lists items alphabetically
      */
     @Transactional(readOnly = true)
     public List<Map<String, Object>> searchBomItems(String searchTerm, String category) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            // Return all items if no search term
-            if (category != null && !category.isEmpty()) {
-                return getBomItemsByCategory(category);
-            }
-            return getAllActiveBomItems();
-        }
+        String categoryFilter = category != null && !category.isEmpty() ? category : null;
 
-        List<BomItemsMasterEntity> items;
-        if (category != null && !category.isEmpty()) {
-            items = bomItemsMasterRepo.searchBomItemsByCategory(category, searchTerm.trim());
-        } else {
-            items = bomItemsMasterRepo.searchBomItems(searchTerm.trim());
+        List<Map<String, Object>> hits = bomAutocompleteIndex.search(searchTerm, categoryFilter, maxResults);
+        if (hits != null) {
+            return hits;
         }
 
-        return items.stream()
-                .limit(20) // Limit to 20 results for autocomplete
-                .map(this::convertToMap)
+        // Index not loaded yet: LIMIT in the database instead of materializing every match
+        String term = searchTerm != null ? searchTerm.trim() : "";
+        return bomItemsMasterRepo.searchBomItemsByCategory(categoryFilter, term,
+                        PageRequest.of(0, maxResults, Sort.by("itemName"))).stream()
+                .map(BomItemsMasterService::toMap)
                 .collect(Collectors.toList());
     }
 
@@ -77,13 +78,13 @@ public class BomItemsMasterService {
     @Transactional(readOnly = true)
     public Optional<Map<String, Object>> getBomItemById(Long id) {
         return bomItemsMasterRepo.findById(id)
-                .map(this::convertToMap);
+                .map(BomItemsMasterService::toMap);
     }
 
     /**
      * Convert entity to map for API response
      */
-    private Map<String, Object> convertToMap(BomItemsMasterEntity entity) {
+    static Map<String, Object> toMap(BomItemsMasterEntity entity) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", entity.getId());
         map.put("category", entity.getCategory());
@@ -5,7 +5,6 @@ import com.istlgroup.istl_group_crm_backend.entity.CustomersEntity;
 import com.istlgroup.istl_group_crm_backend.entity.DropdownProjectEntity;
 import com.istlgroup.istl_group_crm_backend.entity.LeadsEntity;
 import com.istlgroup.istl_group_crm_backend.repo.CustomersRepo;
-import com.istlgroup.istl_group_crm_backend.repo.UsersRepo;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -14,14 +13,17 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Sort;
 @Service
 public class CustomersService {
     
@@ -29,9 +31,13 @@ public class CustomersService {
     private CustomersRepo customersRepo;
     
     @Autowired
-    private UsersRepo usersRepo;
+    private UserDirectoryService userDirectoryService;
     @Autowired
     private DropdownProjectService projectService;
+    @Autowired
+    private SearchIndexService searchIndexService;
+    @Autowired
+    private DocumentSequenceService documentSequenceService;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     /**
@@ -364,8 +370,8 @@ public class CustomersService {
      */
     private String generateCustomerCode() {
         String year = String.valueOf(LocalDateTime.now().getYear());
-        long countInYear = customersRepo.countByCustomerCodeStartingWith("CUST-" + year);
-        long nextSequence = countInYear + 1;
+        long nextSequence = documentSequenceService.next("CUST-" + year,
+                () -> customersRepo.countByCustomerCodeStartingWith("CUST-" + year));
         return String.format("CUST-%s-%04d", year, nextSequence);
     }
     
@@ -388,10 +394,26 @@ public class CustomersService {
         }
     }
     
+    /**
+     * Convert a page of entities, resolving all assigned user names in one lookup
+     */
+    private Page<CustomerWrapper> convertPageToWrappers(Page<CustomersEntity> customerPage) {
+        Map<Long, String> userNames = userDirectoryService.resolveNames(
+            customerPage.getContent().stream()
+                .map(CustomersEntity::getAssignedTo)
+                .collect(Collectors.toSet()));
+        return customerPage.map(customer -> convertToWrapper(customer, userNames));
+    }
+    
     /**
      * Convert Entity to Wrapper
      */
     private CustomerWrapper convertToWrapper(CustomersEntity entity) {
+        return convertToWrapper(entity,
+            userDirectoryService.resolveNames(Arrays.asList(entity.getAssignedTo())));
+    }
+    
+    private CustomerWrapper convertToWrapper(CustomersEntity entity, Map<Long, String> userNames) {
         CustomerWrapper wrapper = new CustomerWrapper();
         wrapper.setId(entity.getId());
         wrapper.setCustomerCode(entity.getCustomerCode());
@@ -414,11 +436,9 @@ public class CustomersService {
         wrapper.setStatus(entity.getStatus());
         wrapper.setAssignedTo(entity.getAssignedTo());
         
-        // Get assigned user name
+        // Assigned user name (pre-resolved by the caller)
         if (entity.getAssignedTo() != null) {
-            usersRepo.findById(entity.getAssignedTo()).ifPresent(user -> 
-                wrapper.setAssignedToName(user.getName())
-            );
+            wrapper.setAssignedToName(userNames.get(entity.getAssignedTo()));
         }
         
         if (entity.getCreatedAt() != null) {
@@ -485,7 +505,33 @@ public Page<CustomerWrapper> getAllCustomersPaginated(Long userId, String userRo
         }
     }
     
-    return customerPage.map(this::convertToWrapper);
+    return convertPageToWrappers(customerPage);
+}
+
+/**
+* Keyset-paged variant of getAllCustomersPaginated, newest first, without the COUNT query
+* @param cursor nextCursor of the previous slice, or blank for the first slice
+*/
+public KeysetSlice<CustomerWrapper> getAllCustomersSlice(Long userId, String userRole,
+                                                         String groupName, String subGroupName,
+                                                         String cursor, int size) {
+    boolean isAdmin = "SUPERADMIN".equalsIgnoreCase(userRole) || "ADMIN".equalsIgnoreCase(userRole);
+    Long accessUserId = isAdmin ? null : userId;
+    String group = groupName != null && !groupName.isEmpty() ? groupName : null;
+    String subGroup = group != null && subGroupName != null && !subGroupName.isEmpty() ? subGroupName : null;
+    
+    KeysetSlice<CustomersEntity> customers = KeysetPager.scroll(customersRepo, CustomersEntity.class,
+            CustomersRepo.activeMatching(group, subGroup, accessUserId),
+            Sort.by(Sort.Direction.DESC, "id"), size, cursor);
+    
+    Map<Long, String> userNames = userDirectoryService.resolveNames(
+        customers.getContent().stream()
+            .map(CustomersEntity::getAssignedTo)
+            .collect(Collectors.toSet()));
+    List<CustomerWrapper> wrappers = customers.getContent().stream()
+        .map(customer -> convertToWrapper(customer, userNames))
+        .collect(Collectors.toList());
+    return new KeysetSlice<>(wrappers, size, customers.hasNext(), customers.getNextCursor());
 }
 
 /**
@@ -504,7 +550,28 @@ public Page<CustomerWrapper> getFilteredCustomersPaginated(Long userId, String u
     LocalDateTime toDate = parseDate(filterRequest.getToDate());
     String subGroupName = filterRequest.getSubGroupName(); // Get sub-group from filter
     
-    if ("SUPERADMIN".equalsIgnoreCase(userRole) || "ADMIN".equalsIgnoreCase(userRole)) {
+    // Resolve the search term through the in-memory index when it is available
+    String searchTerm = filterRequest.getSearchTerm();
+    Set<Long> ids = searchTerm == null || searchTerm.isEmpty()
+            ? null
+            : searchIndexService.matchingIds(SearchIndexService.Domain.CUSTOMERS, searchTerm);
+    boolean admin = "SUPERADMIN".equalsIgnoreCase(userRole) || "ADMIN".equalsIgnoreCase(userRole);
+    
+    if (ids != null && ids.isEmpty()) {
+        customerPage = Page.empty(pageable);
+    } else if (ids != null && admin) {
+        customerPage = customersRepo.searchCustomersByIdsPaginated(
+            ids, groupName, subGroupName, status,
+            filterRequest.getCity(), filterRequest.getState(), filterRequest.getAssignedTo(),
+            fromDate, toDate, pageable
+        );
+    } else if (ids != null) {
+        customerPage = customersRepo.searchCustomersForUserByIdsPaginated(
+            userId, ids, groupName, subGroupName, status,
+            filterRequest.getCity(), filterRequest.getState(),
+            fromDate, toDate, pageable
+        );
+    } else if (admin) {
         // Admin searches all customers
         customerPage = customersRepo.searchCustomersPaginated(
             filterRequest.getSearchTerm(),
@@ -534,7 +601,7 @@ public Page<CustomerWrapper> getFilteredCustomersPaginated(Long userId, String u
         );
     }
     
-    return customerPage.map(this::convertToWrapper);
+    return convertPageToWrappers(customerPage);
 }
 
 //Add this method to CustomerService.java
@@ -0,0 +1,89 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.event.ProjectDataChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory snapshots of project dashboard sections, keyed by projectUniqueId
+ * and section name.
+ *
+ * Snapshots are dropped after commit of any procurement or billing change to the
+ * project, and again once ProjectStatsEventListener has refreshed the stored
+ * stats. The TTL covers changes that publish no event (e.g. payment history).
+ */
+@Service
+@Slf4j
+public class DashboardSnapshotCache {
+
+    @Value("${dashboard.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<String, Map<String, Snapshot>> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Return the cached section, computing and caching it when missing or expired
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String projectId, String section, Supplier<T> loader) {
+        Map<String, Snapshot> sections = snapshots.get(projectId);
+        Snapshot snapshot = sections != null ? sections.get(section) : null;
+        if (snapshot != null && !snapshot.isExpired()) {
+            hits.incrementAndGet();
+            return (T) snapshot.value();
+        }
+        misses.incrementAndGet();
+
+        T value = loader.get();
+        put(projectId, section, value);
+        return value;
+    }
+
+    public void put(String projectId, String section, Object value) {
+        if (value == null) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        snapshots.computeIfAbsent(projectId, id -> new ConcurrentHashMap<>())
+                .put(section, new Snapshot(value, expiresAt));
+    }
+
+    public void evict(String projectId) {
+        if (projectId != null && snapshots.remove(projectId) != null) {
+            log.debug("Evicted dashboard snapshots for project {}", projectId);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public void evictAll() {
+        snapshots.clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectDataChanged(ProjectDataChangedEvent event) {
+        evict(event.getProjectId());
+    }
+
+    private record Snapshot(Object value, long expiresAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
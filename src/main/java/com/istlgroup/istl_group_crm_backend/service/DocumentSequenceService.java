@@ -0,0 +1,94 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.entity.DocumentSequenceEntity;
+import com.istlgroup.istl_group_crm_backend.repo.DocumentSequenceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out document numbers (lead codes, PO numbers, bill numbers, ...)
+ * from the document_sequences table using hi/lo block allocation.
+ *
+ * Each instance reserves document-sequence.block-size numbers per round-trip
+ * under a row lock and serves them from memory, so concurrent creates never
+ * get the same number. Numbers reserved but not used before a restart are
+ * skipped; set the block size to 1 where gaps are not acceptable.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentSequenceService {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DocumentSequenceRepository documentSequenceRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${document-sequence.block-size:20}")
+    private int blockSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * Next number of the named series, e.g. "LEAD-2025"
+     * @param seed highest number already issued in the series, read only when the series row is created
+     */
+    public long next(String name, LongSupplier seed) {
+        Block block = blocks.computeIfAbsent(name, n -> new Block());
+        synchronized (block) {
+            if (block.next >= block.end) {
+                int size = Math.max(1, blockSize);
+                block.next = reserve(name, size, seed);
+                block.end = block.next + size;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Reserve the next block in its own transaction so the row lock is released immediately
+     * @return first number of the block
+     */
+    private long reserve(String name, int size, LongSupplier seed) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long start = transaction.execute(status -> {
+                    DocumentSequenceEntity sequence = documentSequenceRepository.findForUpdate(name)
+                            .orElseGet(() -> {
+                                long issued = seed.getAsLong();
+                                log.info("Creating document sequence {} after {}", name, issued);
+                                return DocumentSequenceEntity.builder().name(name).nextValue(issued + 1).build();
+                            });
+                    long first = sequence.getNextValue();
+                    sequence.setNextValue(first + size);
+                    documentSequenceRepository.saveAndFlush(sequence);
+                    return first;
+                });
+                return start;
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created the series row first; lock it and reserve from there
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new RuntimeException("Could not reserve numbers for sequence " + name, e);
+                }
+            }
+        }
+    }
+
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
@@ -7,6 +7,7 @@ import com.istlgroup.istl_group_crm_backend.entity.DropdownSubGroupEntity;
 import com.istlgroup.istl_group_crm_backend.repo.DropdownGroupRepository;
 import com.istlgroup.istl_group_crm_backend.repo.DropdownProjectRepository;
 import com.istlgroup.istl_group_crm_backend.repo.DropdownSubGroupRepository;
+import com.istlgroup.istl_group_crm_backend.service.ReferenceDataCache.Kind;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +21,7 @@ public class DropdownAdminService {
     private final DropdownGroupRepository groupRepository;
     private final DropdownSubGroupRepository subGroupRepository;
     private final DropdownProjectRepository projectRepository;
+    private final ReferenceDataCache referenceDataCache;
     
     // ============ GROUP OPERATIONS ============
     
@@ -34,6 +36,7 @@ public class DropdownAdminService {
     
     @Transactional
     public DropdownGroupEntity createGroup(DropdownGroupEntity group) {
+        referenceDataCache.invalidate(Kind.GROUPS, Kind.SUB_GROUPS, Kind.PROJECTS);
         return groupRepository.save(group);
     }
     
@@ -46,6 +49,7 @@ public class DropdownAdminService {
         existingGroup.setDescription(updatedGroup.getDescription());
         existingGroup.setIsActive(updatedGroup.getIsActive());
         
+        referenceDataCache.invalidate(Kind.GROUPS, Kind.SUB_GROUPS, Kind.PROJECTS);
         return groupRepository.save(existingGroup);
     }
     
@@ -53,6 +57,7 @@ public class DropdownAdminService {
     public void deleteGroup(Long id) {
         DropdownGroupEntity group = getGroupById(id);
         group.setIsActive(false);
+        referenceDataCache.invalidate(Kind.GROUPS, Kind.SUB_GROUPS, Kind.PROJECTS);
         groupRepository.save(group);
     }
     
@@ -71,6 +76,7 @@ public class DropdownAdminService {
     public DropdownSubGroupEntity createSubGroup(DropdownSubGroupEntity subGroup, Long groupId) {
         DropdownGroupEntity group = getGroupById(groupId);
         subGroup.setGroup(group);
+        referenceDataCache.invalidate(Kind.SUB_GROUPS, Kind.PROJECTS);
         return subGroupRepository.save(subGroup);
     }
     
@@ -83,6 +89,7 @@ public class DropdownAdminService {
         existingSubGroup.setDescription(updatedSubGroup.getDescription());
         existingSubGroup.setIsActive(updatedSubGroup.getIsActive());
         
+        referenceDataCache.invalidate(Kind.SUB_GROUPS, Kind.PROJECTS);
         return subGroupRepository.save(existingSubGroup);
     }
     
@@ -90,6 +97,7 @@ public class DropdownAdminService {
     public void deleteSubGroup(Long id) {
         DropdownSubGroupEntity subGroup = getSubGroupById(id);
         subGroup.setIsActive(false);
+        referenceDataCache.invalidate(Kind.SUB_GROUPS, Kind.PROJECTS);
         subGroupRepository.save(subGroup);
     }
     
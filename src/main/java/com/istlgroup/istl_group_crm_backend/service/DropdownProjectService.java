@@ -8,6 +8,7 @@ import com.istlgroup.istl_group_crm_backend.entity.LeadsEntity;
 import com.istlgroup.istl_group_crm_backend.repo.CustomersRepo;
 import com.istlgroup.istl_group_crm_backend.repo.DropdownProjectRepository;
 import com.istlgroup.istl_group_crm_backend.repo.DropdownSubGroupRepository;
+import com.istlgroup.istl_group_crm_backend.service.ReferenceDataCache.Kind;
 import lombok.RequiredArgsConstructor;
 
 import java.time.LocalDateTime;
@@ -23,8 +24,11 @@ public class DropdownProjectService {
     
     private final DropdownProjectRepository projectRepository;
     private final DropdownSubGroupRepository subGroupRepository;
+    private final ReferenceDataCache referenceDataCache;
     @Autowired
     private CustomersRepo customersRepo;
+    @Autowired
+    private DocumentSequenceService documentSequenceService;
     
     
     @Transactional
@@ -48,6 +52,7 @@ public class DropdownProjectService {
             System.err.println("Generated project code: " + generatedCode);
         }
         
+        referenceDataCache.invalidate(Kind.PROJECTS);
         DropdownProjectEntity projectEntity = projectRepository.save(project);
         CustomersEntity customerEntity =
         		createCustomerFromProject(projectEntity);
@@ -68,6 +73,7 @@ public class DropdownProjectService {
         existingProject.setBudget(updatedProject.getBudget());
         existingProject.setIsActive(updatedProject.getIsActive());
         
+        referenceDataCache.invalidate(Kind.PROJECTS);
         return projectRepository.save(existingProject);
     }
     
@@ -78,6 +84,7 @@ public class DropdownProjectService {
         
         // Soft delete
         project.setIsActive(false);
+        referenceDataCache.invalidate(Kind.PROJECTS);
         projectRepository.save(project);
     }
     
@@ -115,9 +122,8 @@ public class DropdownProjectService {
     private String generateProjectCode() {
         String year = String.valueOf(LocalDateTime.now().getYear());
         
-        // Get count of leads with codes starting with "LEAD-2025"
-        long countInYear = projectRepository.countByProjectUniqueIdStartingWith("PROJ-" + year);
-        long nextSequence = countInYear + 1;
+        long nextSequence = documentSequenceService.next("PROJ-" + year,
+                () -> projectRepository.countByProjectUniqueIdStartingWith("PROJ-" + year));
         
         // Use 4 digits minimum, expands automatically beyond 9999
         return String.format("PROJ-%s-%04d", year, nextSequence);
@@ -143,6 +149,7 @@ public class DropdownProjectService {
         if (projectEntity.getProjectUniqueId() == null || projectEntity.getProjectUniqueId().isEmpty()) {
             projectEntity.setProjectUniqueId(generateProjectCode());
         }
+        referenceDataCache.invalidate(Kind.PROJECTS);
         DropdownProjectEntity ent = projectRepository.save(projectEntity);
         return  ent;
     }
@@ -165,13 +172,14 @@ public class DropdownProjectService {
         if (projectEntity.getProjectUniqueId() == null || projectEntity.getProjectUniqueId().isEmpty()) {
             projectEntity.setProjectUniqueId(generateProjectCode());
         }
+        referenceDataCache.invalidate(Kind.PROJECTS);
         DropdownProjectEntity ent = projectRepository.save(projectEntity);
         return  ent;
     }
     private String generateCustomerCode() {
         String year = String.valueOf(LocalDateTime.now().getYear());
-        long countInYear = customersRepo.countByCustomerCodeStartingWith("CUST-" + year);
-        long nextSequence = countInYear + 1;
+        long nextSequence = documentSequenceService.next("CUST-" + year,
+                () -> customersRepo.countByCustomerCodeStartingWith("CUST-" + year));
         return String.format("CUST-%s-%04d", year, nextSequence);
     }
     
@@ -0,0 +1,120 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.customException.FileStorageException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Filesystem-backed, content-addressed file store.
+ *
+ * Files are named by the SHA-256 of their content and sharded by the first two
+ * hex characters: {root}/{area}/ab/abcdef.... Identical uploads share one file,
+ * so stored files are never deleted when a referencing row goes away.
+ */
+@Service
+@Slf4j
+public class FileContentStore {
+
+    private final Path rootDir;
+
+    public FileContentStore(@Value("${file.store-root:uploads/store/}") String rootDir) {
+        this.rootDir = Paths.get(rootDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Stream the content into the store, hashing it on the way.
+     * Returns the content hash and size; content already present is not rewritten.
+     */
+    public StoredFile store(String area, InputStream content) {
+        Path areaDir = rootDir.resolve(area);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(areaDir);
+            tempFile = Files.createTempFile(areaDir, "upload-", ".tmp");
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(tempFile)) {
+                size = in.transferTo(out);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(area, hash);
+
+            if (Files.exists(target)) {
+                log.debug("Content {} already stored in {}", hash, area);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+                tempFile = null;
+            }
+
+            return new StoredFile(hash, size);
+
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new FileStorageException("Failed to store file in " + area, e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    log.warn("Could not delete temp file {}", tempFile, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Open stored content as a Resource suitable for streaming responses
+     */
+    public Resource load(String area, String hash) {
+        Path file = resolve(area, hash);
+        if (!Files.isRegularFile(file)) {
+            throw new FileStorageException("Stored file not found: " + hash);
+        }
+        return new FileSystemResource(file);
+    }
+
+    public boolean exists(String area, String hash) {
+        return Files.isRegularFile(resolve(area, hash));
+    }
+
+    /**
+     * Location of the stored content on disk
+     */
+    public Path locate(String area, String hash) {
+        return resolve(area, hash);
+    }
+
+    private Path resolve(String area, String hash) {
+        if (hash == null || !hash.matches("[0-9a-f]{64}")) {
+            throw new FileStorageException("Invalid content hash: " + hash);
+        }
+        return rootDir.resolve(area).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class StoredFile {
+        private final String hash;
+        private final long size;
+    }
+}
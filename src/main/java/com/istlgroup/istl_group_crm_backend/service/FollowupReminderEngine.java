@@ -0,0 +1,331 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.entity.FollowupsEntity;
+import com.istlgroup.istl_group_crm_backend.repo.FollowupsRepo;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.FollowupReminderWrapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes follow-up reminders to the assigned user over UserEventStream when
+ * a pending follow-up becomes due (its scheduled time) and again when it
+ * becomes overdue (followup.reminder.overdue-after-minutes later).
+ *
+ * Pending follow-ups scheduled within the next
+ * followup.reminder.horizon-minutes are held in a hashed timer wheel: one
+ * slot per tick, each timer carrying the number of wheel rotations left, so
+ * scheduling, cancelling and each tick cost O(1) regardless of how many
+ * follow-ups are waiting. The wheel is reloaded from the database every
+ * followup.reminder.reload-minutes with a range query on scheduled_at;
+ * FollowupsService reports its own changes after commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FollowupReminderEngine {
+
+    public static final String EVENT_NAME = "followup-reminder";
+
+    private static final String PENDING = "Pending";
+
+    private enum Transition {
+        DUE, OVERDUE
+    }
+
+    private final FollowupsRepo followupsRepo;
+    private final UserEventStream userEventStream;
+
+    @Value("${followup.reminder.enabled:true}")
+    private boolean enabled;
+
+    @Value("${followup.reminder.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${followup.reminder.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${followup.reminder.overdue-after-minutes:30}")
+    private long overdueAfterMinutes;
+
+    @Value("${followup.reminder.horizon-minutes:180}")
+    private long horizonMinutes;
+
+    @Value("${followup.reminder.reload-minutes:60}")
+    private long reloadMinutes;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "followup-reminders");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Wheel state, guarded by this
+    private List<List<Timer>> slots;
+    private final Map<Long, List<Timer>> timersByFollowup = new HashMap<>();
+    private long startMillis;
+    private long nextTick;
+    private long horizonMillis;
+    // Follow-ups reported by FollowupsService while a reload query runs; the reload must not overwrite them
+    private Set<Long> changedDuringReload;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Follow-up reminders are disabled");
+            return;
+        }
+        synchronized (this) {
+            slots = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                slots.add(new ArrayList<>());
+            }
+            startMillis = System.currentTimeMillis();
+            nextTick = 1;
+        }
+        executor.scheduleAtFixedRate(this::advance, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::reload, 0, reloadMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reschedule a created or updated follow-up once the change is committed
+     */
+    public void followupSaved(FollowupsEntity followup) {
+        if (enabled && followup.getId() != null) {
+            Snapshot snapshot = Snapshot.of(followup);
+            afterCommit(() -> apply(snapshot.id(), snapshot));
+        }
+    }
+
+    /**
+     * Drop the timers of a deleted follow-up once the delete is committed
+     */
+    public void followupDeleted(Long followupId) {
+        if (enabled && followupId != null) {
+            afterCommit(() -> apply(followupId, null));
+        }
+    }
+
+    private synchronized void apply(Long followupId, Snapshot snapshot) {
+        if (slots == null) {
+            return;
+        }
+        if (changedDuringReload != null) {
+            changedDuringReload.add(followupId);
+        }
+        if (snapshot != null) {
+            scheduleInternal(snapshot);
+        } else {
+            cancelInternal(followupId);
+        }
+    }
+
+    private void reload() {
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            synchronized (this) {
+                changedDuringReload = new HashSet<>();
+            }
+
+            // Still-pending follow-ups whose due or overdue reminder lies ahead
+            List<FollowupsEntity> rows = followupsRepo.findPendingScheduledBetween(
+                    now.minusMinutes(overdueAfterMinutes), now.plusMinutes(horizonMinutes));
+
+            int timers;
+            synchronized (this) {
+                horizonMillis = toMillis(now.plusMinutes(horizonMinutes));
+                Set<Long> loaded = new HashSet<>();
+                for (FollowupsEntity row : rows) {
+                    loaded.add(row.getId());
+                    if (!changedDuringReload.contains(row.getId())) {
+                        scheduleInternal(Snapshot.of(row));
+                    }
+                }
+                // Completed, rescheduled or deleted outside FollowupsService
+                for (Long followupId : new ArrayList<>(timersByFollowup.keySet())) {
+                    if (!loaded.contains(followupId) && !changedDuringReload.contains(followupId)) {
+                        cancelInternal(followupId);
+                    }
+                }
+                changedDuringReload = null;
+                timers = timersByFollowup.values().stream().mapToInt(List::size).sum();
+            }
+            log.debug("Reloaded follow-up reminders: {} follow-ups, {} timers in {} ms",
+                    rows.size(), timers, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            synchronized (this) {
+                changedDuringReload = null;
+            }
+            log.error("Failed to reload follow-up reminders", e);
+        }
+    }
+
+    /**
+     * Expire every tick whose time has passed; reminders are sent outside the lock
+     */
+    private void advance() {
+        List<Timer> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            while (startMillis + nextTick * tickMs <= now) {
+                List<Timer> slot = slots.get(slotFor(nextTick, wheelSize));
+                for (Iterator<Timer> it = slot.iterator(); it.hasNext(); ) {
+                    Timer timer = it.next();
+                    if (timer.rounds > 0) {
+                        timer.rounds--;
+                    } else {
+                        it.remove();
+                        unindex(timer);
+                        expired.add(timer);
+                    }
+                }
+                nextTick++;
+            }
+        }
+        for (Timer timer : expired) {
+            try {
+                userEventStream.send(timer.snapshot.userId(), EVENT_NAME, timer.snapshot.toReminder(timer.transition));
+            } catch (Exception e) {
+                log.warn("Failed to push {} reminder for follow-up {}", timer.transition, timer.snapshot.id(), e);
+            }
+        }
+    }
+
+    private void scheduleInternal(Snapshot snapshot) {
+        cancelInternal(snapshot.id());
+        if (!PENDING.equals(snapshot.status()) || snapshot.scheduledAt() == null || snapshot.userId() == null) {
+            return;
+        }
+        long due = toMillis(snapshot.scheduledAt());
+        addTimer(snapshot, Transition.DUE, due);
+        addTimer(snapshot, Transition.OVERDUE, due + TimeUnit.MINUTES.toMillis(overdueAfterMinutes));
+    }
+
+    private void addTimer(Snapshot snapshot, Transition transition, long deadline) {
+        // Ticks up to nextTick - 1 have fired; later deadlines are picked up by the next reload
+        long tick = tickFor(deadline, startMillis, tickMs);
+        if (tick < nextTick || deadline > horizonMillis) {
+            return;
+        }
+        Timer timer = new Timer(snapshot, transition, slotFor(tick, wheelSize), roundsFor(tick, nextTick, wheelSize));
+        slots.get(timer.slot).add(timer);
+        timersByFollowup.computeIfAbsent(snapshot.id(), id -> new ArrayList<>(2)).add(timer);
+    }
+
+    /**
+     * First tick at or after the deadline; tick n ends at startMillis + n * tickMs
+     */
+    static long tickFor(long deadline, long startMillis, long tickMs) {
+        return Math.ceilDiv(deadline - startMillis, tickMs);
+    }
+
+    /**
+     * Wheel slot visited at the tick
+     */
+    static int slotFor(long tick, int wheelSize) {
+        return (int) (tick % wheelSize);
+    }
+
+    /**
+     * Visits of its slot a timer for the tick must skip when scheduled with
+     * nextTick still to fire; the slot is first visited within wheelSize ticks
+     */
+    static long roundsFor(long tick, long nextTick, int wheelSize) {
+        return (tick - nextTick) / wheelSize;
+    }
+
+    private void cancelInternal(Long followupId) {
+        List<Timer> timers = timersByFollowup.remove(followupId);
+        if (timers != null) {
+            for (Timer timer : timers) {
+                slots.get(timer.slot).remove(timer);
+            }
+        }
+    }
+
+    private void unindex(Timer timer) {
+        List<Timer> timers = timersByFollowup.get(timer.snapshot.id());
+        if (timers != null) {
+            timers.remove(timer);
+            if (timers.isEmpty()) {
+                timersByFollowup.remove(timer.snapshot.id());
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class Timer {
+        private final Snapshot snapshot;
+        private final Transition transition;
+        private final int slot;
+        private long rounds;
+
+        private Timer(Snapshot snapshot, Transition transition, int slot, long rounds) {
+            this.snapshot = snapshot;
+            this.transition = transition;
+            this.slot = slot;
+            this.rounds = rounds;
+        }
+    }
+
+    /**
+     * Fields of a follow-up needed to schedule and describe its reminders,
+     * copied so later changes to the entity do not leak into queued timers
+     */
+    private record Snapshot(Long id, String status, LocalDateTime scheduledAt, Long userId, String followupType,
+                            String priority, String relatedType, Long relatedId, Long leadId, String notes) {
+
+        static Snapshot of(FollowupsEntity followup) {
+            Long userId = followup.getAssignedTo() != null ? followup.getAssignedTo() : followup.getCreatedBy();
+            return new Snapshot(followup.getId(), followup.getStatus(), followup.getScheduledAt(), userId,
+                    followup.getFollowupType(), followup.getPriority(), followup.getRelatedType(),
+                    followup.getRelatedId(), followup.getLeadId(), followup.getNotes());
+        }
+
+        FollowupReminderWrapper toReminder(Transition transition) {
+            return new FollowupReminderWrapper(id, transition.name(), followupType, priority, relatedType,
+                    relatedId, leadId, scheduledAt.toString(), notes);
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package com.istlgroup.istl_group_crm_backend.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,13 +21,14 @@ import com.istlgroup.istl_group_crm_backend.entity.FollowupsEntity;
 import com.istlgroup.istl_group_crm_backend.entity.LeadsEntity;
 import com.istlgroup.istl_group_crm_backend.repo.FollowupsRepo;
 import com.istlgroup.istl_group_crm_backend.repo.LeadsRepo;
-import com.istlgroup.istl_group_crm_backend.repo.UsersRepo;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.FollowupWrapper;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.FollowupRequestWrapper;
 
 @Service
 public class FollowupsService {
     
+    private static final int PENDING_COUNT_BATCH_SIZE = 1000;
+    
     @Autowired
     private FollowupsRepo followupsRepo;
     
@@ -27,11 +36,14 @@ public class FollowupsService {
     private LeadsRepo leadsRepo;
     
     @Autowired
-    private UsersRepo usersRepo;
+    private UserDirectoryService userDirectoryService;
     
     @Autowired
     private LeadHistoryService leadHistoryService;
     
+    @Autowired
+    private FollowupReminderEngine followupReminderEngine;
+    
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     /**
@@ -58,6 +70,7 @@ public class FollowupsService {
         followup.setNotes(request.getNotes());
         
         FollowupsEntity saved = followupsRepo.save(followup);
+        followupReminderEngine.followupSaved(saved);
         
         // Add to lead history if it's a lead follow-up
         if (request.getLeadId() != null) {
@@ -112,6 +125,7 @@ public class FollowupsService {
         }
         
         FollowupsEntity updated = followupsRepo.save(followup);
+        followupReminderEngine.followupSaved(updated);
         
         // Add to lead history if status changed to completed
         if (followup.getLeadId() != null && "Completed".equals(request.getStatus())) {
@@ -134,9 +148,7 @@ public class FollowupsService {
      */
     public List<FollowupWrapper> getFollowupsForLead(Long leadId) {
         List<FollowupsEntity> followups = followupsRepo.findByLeadIdOrderByScheduledAtDesc(leadId);
-        return followups.stream()
-            .map(this::convertToWrapper)
-            .collect(Collectors.toList());
+        return convertToWrappers(followups);
     }
     
     /**
@@ -144,9 +156,7 @@ public class FollowupsService {
      */
     public List<FollowupWrapper> getFollowupsForUser(Long userId) {
         List<FollowupsEntity> followups = followupsRepo.findByAssignedToOrderByScheduledAtDesc(userId);
-        return followups.stream()
-            .map(this::convertToWrapper)
-            .collect(Collectors.toList());
+        return convertToWrappers(followups);
     }
     
     /**
@@ -154,9 +164,7 @@ public class FollowupsService {
      */
     public List<FollowupWrapper> getPendingFollowupsForLead(Long leadId) {
         List<FollowupsEntity> followups = followupsRepo.findPendingByLeadId(leadId);
-        return followups.stream()
-            .map(this::convertToWrapper)
-            .collect(Collectors.toList());
+        return convertToWrappers(followups);
     }
     
     /**
@@ -173,24 +181,38 @@ public class FollowupsService {
         return followupsRepo.countPendingByLeadId(leadId);
     }
     
+    /**
+     * Pending followup counts for many leads in one grouped query per
+     * PENDING_COUNT_BATCH_SIZE ids; leads without pending followups are absent
+     */
+    public Map<Long, Integer> getPendingFollowupsCountsForLeads(Collection<Long> leadIds) {
+        List<Long> ids = leadIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += PENDING_COUNT_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + PENDING_COUNT_BATCH_SIZE, ids.size()));
+            for (Object[] row : followupsRepo.countPendingByLeadIdIn(batch)) {
+                counts.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+            }
+        }
+        return counts;
+    }
+    
     /**
      * Get overdue follow-ups
      */
     public List<FollowupWrapper> getOverdueFollowups() {
         List<FollowupsEntity> followups = followupsRepo.findOverdueFollowups(LocalDateTime.now());
-        return followups.stream()
-            .map(this::convertToWrapper)
-            .collect(Collectors.toList());
+        return convertToWrappers(followups);
     }
     
     /**
      * Get today's follow-ups
      */
     public List<FollowupWrapper> getTodaysFollowups() {
-        List<FollowupsEntity> followups = followupsRepo.findTodaysFollowups(LocalDateTime.now());
-        return followups.stream()
-            .map(this::convertToWrapper)
-            .collect(Collectors.toList());
+        LocalDate today = LocalDate.now();
+        List<FollowupsEntity> followups = followupsRepo.findPendingScheduledBetween(
+            today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+        return convertToWrappers(followups);
     }
     
     /**
@@ -201,6 +223,7 @@ public class FollowupsService {
             .orElseThrow(() -> new CustomException("Follow-up not found"));
         
         followupsRepo.delete(followup);
+        followupReminderEngine.followupDeleted(followupId);
         
         // Add to lead history
         if (followup.getLeadId() != null) {
@@ -213,10 +236,31 @@ public class FollowupsService {
         }
     }
     
+    /**
+     * Convert a list of entities, resolving all user names in one lookup
+     */
+    private List<FollowupWrapper> convertToWrappers(List<FollowupsEntity> followups) {
+        Set<Long> userIds = new HashSet<>();
+        for (FollowupsEntity followup : followups) {
+            userIds.add(followup.getCreatedBy());
+            userIds.add(followup.getAssignedTo());
+        }
+        Map<Long, String> userNames = userDirectoryService.resolveNames(userIds);
+        
+        return followups.stream()
+            .map(followup -> convertToWrapper(followup, userNames))
+            .collect(Collectors.toList());
+    }
+    
     /**
      * Convert Entity to Wrapper
      */
     private FollowupWrapper convertToWrapper(FollowupsEntity entity) {
+        return convertToWrapper(entity,
+            userDirectoryService.resolveNames(Arrays.asList(entity.getCreatedBy(), entity.getAssignedTo())));
+    }
+    
+    private FollowupWrapper convertToWrapper(FollowupsEntity entity, Map<Long, String> userNames) {
         FollowupWrapper wrapper = new FollowupWrapper();
         wrapper.setId(entity.getId());
         wrapper.setRelatedType(entity.getRelatedType());
@@ -238,16 +282,12 @@ public class FollowupsService {
         wrapper.setCreatedAt(entity.getCreatedAt() != null ? entity.getCreatedAt().toString() : null);
         wrapper.setUpdatedAt(entity.getUpdatedAt() != null ? entity.getUpdatedAt().toString() : null);
         
-        // Fetch user names
+        // User names (pre-resolved by the caller)
         if (entity.getCreatedBy() != null) {
-            usersRepo.findById(entity.getCreatedBy()).ifPresent(user -> 
-                wrapper.setCreatedByName(user.getName())
-            );
+            wrapper.setCreatedByName(userNames.get(entity.getCreatedBy()));
         }
         if (entity.getAssignedTo() != null) {
-            usersRepo.findById(entity.getAssignedTo()).ifPresent(user -> 
-                wrapper.setAssignedToName(user.getName())
-            );
+            wrapper.setAssignedToName(userNames.get(entity.getAssignedTo()));
         }
         
         // Fetch related codes
@@ -264,8 +304,7 @@ public class FollowupsService {
      */
     public List<FollowupWrapper> getAllFollowups() {
         List<FollowupsEntity> followups = followupsRepo.findAll();
-        return followups.stream()
-            .map(this::convertToWrapper)
+        return convertToWrappers(followups).stream()
             .sorted((a, b) -> b.getScheduledAt().compareTo(a.getScheduledAt()))
             .collect(Collectors.toList());
     }
@@ -4,10 +4,7 @@ import com.istlgroup.istl_group_crm_backend.entity.InvoiceEntity;
 import com.istlgroup.istl_group_crm_backend.entity.InvoiceItemEntity;
 import com.istlgroup.istl_group_crm_backend.entity.CustomersEntity;
 import com.istlgroup.istl_group_crm_backend.customException.CustomException;
-import com.itextpdf.kernel.colors.ColorConstants;
-import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
@@ -16,17 +13,18 @@ import com.itextpdf.layout.element.*;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import com.itextpdf.layout.properties.VerticalAlignment;
-import com.itextpdf.layout.borders.SolidBorder;
 import com.itextpdf.layout.borders.Border;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -34,6 +32,7 @@ import java.util.Locale;
 public class InvoicePdfService {
 
     private final CustomersService customersService;
+    private final PdfRenderService pdfRenderService;
 
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MMM-yyyy");
     
@@ -60,33 +59,41 @@ public class InvoicePdfService {
     private static final String STATE_CODE = "36";
     private static final String STATE_NAME = "Telangana";
 
-    public byte[] generateInvoicePdf(InvoiceEntity invoice) throws CustomException {
+    /**
+     * Cached PDF of the invoice, rendered on the PDF worker pool when the
+     * invoice or its customer changed since the last download
+     */
+    public CompletableFuture<Resource> renderInvoicePdf(InvoiceEntity invoice) throws CustomException {
+        if (invoice.getProjectId() == null || invoice.getProjectId().isEmpty()) {
+            throw new CustomException("Invoice must have a project ID");
+        }
+        
+        if (invoice.getItems() == null || invoice.getItems().isEmpty()) {
+            throw new CustomException("Invoice must have at least one item");
+        }
+
+        CustomersEntity customer = customersService.getCustomerByProjectId(invoice.getProjectId());
+        if (customer == null) {
+            throw new CustomException("Customer not found for project: " + invoice.getProjectId());
+        }
+
+        String version = invoice.getUpdatedAt() + "|" + customer.getId() + "|" + customer.getUpdatedAt();
+        return pdfRenderService.render("invoice", invoice.getId(), version,
+                out -> writeInvoicePdf(invoice, customer, out));
+    }
+
+    void writeInvoicePdf(InvoiceEntity invoice, CustomersEntity customer, OutputStream out) throws CustomException {
         try {
             log.info("Generating GST compliant PDF for invoice: {}", invoice.getInvoiceNo());
-            
-            if (invoice.getProjectId() == null || invoice.getProjectId().isEmpty()) {
-                throw new CustomException("Invoice must have a project ID");
-            }
-            
-            if (invoice.getItems() == null || invoice.getItems().isEmpty()) {
-                throw new CustomException("Invoice must have at least one item");
-            }
 
-            CustomersEntity customer = customersService.getCustomerByProjectId(invoice.getProjectId());
-            if (customer == null) {
-                throw new CustomException("Customer not found for project: " + invoice.getProjectId());
-            }
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
+            PdfWriter writer = new PdfWriter(out);
             PdfDocument pdf = new PdfDocument(writer);
             Document document = new Document(pdf, PageSize.A4);
             document.setMargins(20, 20, 20, 20);
 
-            PdfFont bold = PdfFontFactory.createFont(
-                    com.itextpdf.io.font.constants.StandardFonts.HELVETICA_BOLD);
-            PdfFont normal = PdfFontFactory.createFont(
-                    com.itextpdf.io.font.constants.StandardFonts.HELVETICA);
+            PdfStyles.Fonts fonts = PdfStyles.fonts();
+            PdfFont bold = fonts.bold();
+            PdfFont normal = fonts.normal();
 
             // Add title
             addTitle(document, bold);
@@ -106,11 +113,7 @@ public class InvoicePdfService {
             document.close();
             
             log.info("PDF generated successfully for invoice: {}", invoice.getInvoiceNo());
-            return baos.toByteArray();
 
-        } catch (CustomException e) {
-            log.error("Custom error generating invoice PDF: {}", e.getMessage());
-            throw e;
         } catch (Exception e) {
             log.error("Error generating invoice PDF", e);
             throw new CustomException("Error generating invoice PDF: " + e.getMessage());
@@ -142,12 +145,12 @@ public class InvoicePdfService {
 
         // Main header table
         Table mainTable = new Table(2).setWidth(UnitValue.createPercentValue(100));
-        mainTable.setBorder(new SolidBorder(ColorConstants.BLACK, 1));
+        mainTable.setBorder(PdfStyles.BLACK);
 
         // Left - Company Details
         Cell companyCell = new Cell()
                 .setBorder(Border.NO_BORDER)
-                .setBorderRight(new SolidBorder(ColorConstants.BLACK, 1))
+                .setBorderRight(PdfStyles.BLACK)
                 .setPadding(8);
 
         companyCell.add(new Paragraph(companyName)
@@ -220,13 +223,13 @@ public class InvoicePdfService {
 
         // Customer Details
         Table customerTable = new Table(2).setWidth(UnitValue.createPercentValue(100));
-        customerTable.setBorder(new SolidBorder(ColorConstants.BLACK, 1));
+        customerTable.setBorder(PdfStyles.BLACK);
         customerTable.setMarginTop(0);
 
         // Buyer (Bill to)
         Cell billToCell = new Cell()
                 .setBorder(Border.NO_BORDER)
-                .setBorderRight(new SolidBorder(ColorConstants.BLACK, 1))
+                .setBorderRight(PdfStyles.BLACK)
                 .setPadding(8);
 
         billToCell.add(new Paragraph("Buyer (Bill to)")
@@ -349,7 +352,7 @@ public class InvoicePdfService {
                 .setTextAlignment(TextAlignment.RIGHT)
                 .setVerticalAlignment(VerticalAlignment.MIDDLE)
                 .setPadding(5)
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f));
+                .setBorder(PdfStyles.THIN_BLACK);
         itemsTable.addCell(cgstDescCell);
         
         itemsTable.addCell(createDataCell("", normal, TextAlignment.CENTER));
@@ -365,7 +368,7 @@ public class InvoicePdfService {
                 .setTextAlignment(TextAlignment.RIGHT)
                 .setVerticalAlignment(VerticalAlignment.MIDDLE)
                 .setPadding(5)
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f));
+                .setBorder(PdfStyles.THIN_BLACK);
         itemsTable.addCell(sgstDescCell);
         
         itemsTable.addCell(createDataCell("", normal, TextAlignment.CENTER));
@@ -381,7 +384,7 @@ public class InvoicePdfService {
                 .setTextAlignment(TextAlignment.RIGHT)
                 .setVerticalAlignment(VerticalAlignment.MIDDLE)
                 .setPadding(5)
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 1));
+                .setBorder(PdfStyles.BLACK);
         itemsTable.addCell(totalLabelCell);
 
         String unitType = invoice.getItems().get(0).getUnitType() != null ? invoice.getItems().get(0).getUnitType() : "Nos";
@@ -404,14 +407,14 @@ public class InvoicePdfService {
                 .add(new Paragraph(convertToWords(grandTotal)).setFont(bold).setFontSize(9).setItalic())
                 .setTextAlignment(TextAlignment.LEFT)
                 .setPadding(5)
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 1));
+                .setBorder(PdfStyles.BLACK);
         amountWordsTable.addCell(amountWordsCell);
         
         Cell eoeCell = new Cell()
                 .add(new Paragraph("E & O.E").setFont(normal).setFontSize(8))
                 .setTextAlignment(TextAlignment.RIGHT)
                 .setPadding(3)
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 1));
+                .setBorder(PdfStyles.BLACK);
         amountWordsTable.addCell(eoeCell);
         
         document.add(amountWordsTable);
@@ -452,21 +455,13 @@ public class InvoicePdfService {
         // CGST header with Rate/Amount subheaders
         Cell cgstHeaderCell = new Cell(1, 2)
                 .add(new Paragraph("CGST").setFont(bold).setFontSize(7))
-                .setTextAlignment(TextAlignment.CENTER)
-                .setVerticalAlignment(VerticalAlignment.MIDDLE)
-                .setPadding(3)
-                .setBackgroundColor(new DeviceRgb(240, 240, 240))
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f));
+                .addStyle(PdfStyles.TAX_HEADER);
         taxTable.addCell(cgstHeaderCell);
         
         // SGST header
         Cell sgstHeaderCell = new Cell(1, 2)
                 .add(new Paragraph("SGST/UTGST").setFont(bold).setFontSize(7))
-                .setTextAlignment(TextAlignment.CENTER)
-                .setVerticalAlignment(VerticalAlignment.MIDDLE)
-                .setPadding(3)
-                .setBackgroundColor(new DeviceRgb(240, 240, 240))
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f));
+                .addStyle(PdfStyles.TAX_HEADER);
         taxTable.addCell(sgstHeaderCell);
         
         addTaxHeader(taxTable, "Total\nTax Amount", bold);
@@ -495,7 +490,7 @@ public class InvoicePdfService {
                 .setTextAlignment(TextAlignment.RIGHT)
                 .setVerticalAlignment(VerticalAlignment.MIDDLE)
                 .setPadding(3)
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f));
+                .setBorder(PdfStyles.THIN_BLACK);
         taxTable.addCell(totalLabelCell);
         
         taxTable.addCell(createTaxCell("", bold, TextAlignment.CENTER));
@@ -576,59 +571,42 @@ public class InvoicePdfService {
     private void addTableHeader(Table table, String text, PdfFont font, TextAlignment alignment) {
         Cell cell = new Cell()
                 .add(new Paragraph(text).setFont(font).setFontSize(7))
-                .setTextAlignment(alignment)
-                .setVerticalAlignment(VerticalAlignment.MIDDLE)
-                .setPadding(5)
-                .setBackgroundColor(new DeviceRgb(240, 240, 240))
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f));
+                .addStyle(PdfStyles.ITEM_HEADER)
+                .setTextAlignment(alignment);
         table.addHeaderCell(cell);
     }
 
     private void addTaxHeader(Table table, String text, PdfFont font) {
         Cell cell = new Cell()
                 .add(new Paragraph(text).setFont(font).setFontSize(7))
-                .setTextAlignment(TextAlignment.CENTER)
-                .setVerticalAlignment(VerticalAlignment.MIDDLE)
-                .setPadding(3)
-                .setBackgroundColor(new DeviceRgb(240, 240, 240))
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f));
+                .addStyle(PdfStyles.TAX_HEADER);
         table.addHeaderCell(cell);
     }
 
     private void addTaxSubHeader(Table table, String text, PdfFont font) {
         Cell cell = new Cell()
                 .add(new Paragraph(text).setFont(font).setFontSize(6))
-                .setTextAlignment(TextAlignment.CENTER)
-                .setVerticalAlignment(VerticalAlignment.MIDDLE)
-                .setPadding(2)
-                .setBackgroundColor(new DeviceRgb(250, 250, 250))
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f));
+                .addStyle(PdfStyles.TAX_SUBHEADER);
         table.addCell(cell);
     }
 
     private Cell createDataCell(String text, PdfFont font, TextAlignment alignment) {
         return new Cell()
                 .add(new Paragraph(text).setFont(font).setFontSize(8))
-                .setTextAlignment(alignment)
-                .setVerticalAlignment(VerticalAlignment.MIDDLE)
-                .setPadding(5)
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f));
+                .addStyle(PdfStyles.ITEM_CELL)
+                .setTextAlignment(alignment);
     }
 
     private Cell createTaxCell(String text, PdfFont font, TextAlignment alignment) {
         return new Cell()
                 .add(new Paragraph(text).setFont(font).setFontSize(7))
-                .setTextAlignment(alignment)
-                .setVerticalAlignment(VerticalAlignment.MIDDLE)
-                .setPadding(3)
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f));
+                .addStyle(PdfStyles.TAX_CELL)
+                .setTextAlignment(alignment);
     }
 
     private Cell createBlankCell() {
         return new Cell()
-                .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f))
-                .setBackgroundColor(new DeviceRgb(250, 250, 250))
-                .setPadding(2);
+                .addStyle(PdfStyles.BLANK_CELL);
     }
 
     private String formatAmount(BigDecimal amount) {
@@ -1,35 +1,55 @@
 // InvoiceService.java
 package com.istlgroup.istl_group_crm_backend.service;
 
+import com.istlgroup.istl_group_crm_backend.customException.CustomException;
 import com.istlgroup.istl_group_crm_backend.entity.InvoiceEntity;
 import com.istlgroup.istl_group_crm_backend.entity.InvoiceItemEntity;
 import com.istlgroup.istl_group_crm_backend.entity.PaymentHistoryEntity;
 import com.istlgroup.istl_group_crm_backend.entity.CustomersEntity;
+import com.istlgroup.istl_group_crm_backend.event.ProjectDataChangedEvent;
 import com.istlgroup.istl_group_crm_backend.repo.InvoiceRepository;
 import com.istlgroup.istl_group_crm_backend.repo.PaymentHistoryRepository;
 import com.istlgroup.istl_group_crm_backend.repo.InvoiceItemRepository;
 import com.istlgroup.istl_group_crm_backend.repo.CustomersRepo;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.istlgroup.istl_group_crm_backend.repo.OrderBookRepo;
 import com.istlgroup.istl_group_crm_backend.repo.OrderBookItemRepo;
 import com.istlgroup.istl_group_crm_backend.entity.OrderBookEntity;
 import com.istlgroup.istl_group_crm_backend.entity.OrderBookItemEntity;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Year;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 @RequiredArgsConstructor
@@ -43,6 +63,18 @@ public class InvoiceService {
     private final PaymentHistoryRepository paymentHistoryRepository;
     private final OrderBookRepo orderBookRepo;
     private final OrderBookItemRepo orderBookItemRepo;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchIndexService searchIndexService;
+    private final DocumentSequenceService documentSequenceService;
+    
+    private static final int EXPORT_LOAD_BATCH = 50;
+    
+    @Value("${invoice.export.parallelism:4}")
+    private int exportParallelism;
+    
+    @Value("${invoice.export.max-invoices:1000}")
+    private int exportMaxInvoices;
+    
     /**
      * Get invoices with role-based and project-based filtering
      */
@@ -70,10 +102,18 @@ public class InvoiceService {
         
         // Search takes priority
         if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+            Set<Long> ids = searchIndexService.matchingIds(SearchIndexService.Domain.INVOICES, searchTerm);
+            if (ids != null && ids.isEmpty()) {
+                return Page.empty(pageable);
+            }
             if (isAdmin) {
-                return invoiceRepository.searchInvoices(searchTerm, pageable);
+                return ids != null
+                        ? invoiceRepository.findActiveByIdIn(ids, pageable)
+                        : invoiceRepository.searchInvoices(searchTerm, pageable);
             } else {
-                return invoiceRepository.searchInvoicesWithUserAccess(searchTerm, userId, pageable);
+                return ids != null
+                        ? invoiceRepository.findActiveByIdInWithUserAccess(ids, userId, pageable)
+                        : invoiceRepository.searchInvoicesWithUserAccess(searchTerm, userId, pageable);
             }
         }
         
@@ -103,6 +143,43 @@ public class InvoiceService {
         }
     }
     
+    /**
+     * Keyset-paged variant of getInvoices: same filters, no COUNT query
+     * @param cursor nextCursor of the previous slice, or blank for the first slice
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<InvoiceEntity> getInvoicesSlice(
+            String groupId,
+            String subGroupId,
+            String projectId,
+            String searchTerm,
+            Long userId,
+            String userRole,
+            String cursor,
+            int size,
+            String sortBy,
+            String sortDirection
+    ) {
+        Specification<InvoiceEntity> spec;
+        Long createdBy = isAdmin(userRole) ? null : userId;
+        
+        // Same precedence as getInvoices: search, then project, subgroup, group
+        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+            spec = InvoiceRepository.activeMatching(null, null, null, createdBy, searchTerm);
+        } else if (projectId != null && !projectId.isEmpty()) {
+            spec = InvoiceRepository.activeMatching(null, null, projectId, createdBy, null);
+        } else if (subGroupId != null && !subGroupId.isEmpty()) {
+            spec = InvoiceRepository.activeMatching(groupId, subGroupId, null, createdBy, null);
+        } else if (groupId != null && !groupId.isEmpty()) {
+            spec = InvoiceRepository.activeMatching(groupId, null, null, createdBy, null);
+        } else {
+            spec = InvoiceRepository.activeMatching(null, null, null, createdBy, null);
+        }
+        
+        return KeysetPager.scroll(invoiceRepository, InvoiceEntity.class, spec,
+                Sort.by(Sort.Direction.fromString(sortDirection), sortBy), size, cursor);
+    }
+    
     /**
      * Get invoice by ID
      */
@@ -200,6 +277,7 @@ public class InvoiceService {
             }
             
             log.info("Invoice created successfully: {}", savedInvoice.getInvoiceNo());
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(savedInvoice.getProjectId(), ProjectDataChangedEvent.Source.INVOICE));
             return savedInvoice;
             
         } catch (Exception e) {
@@ -314,6 +392,7 @@ public class InvoiceService {
     @Transactional
     public InvoiceEntity updateInvoice(Long id, InvoiceEntity updatedInvoice) {
         InvoiceEntity existing = getInvoiceById(id);
+        String previousProjectId = existing.getProjectId();
         
         // Update fields
         existing.setCustomerId(updatedInvoice.getCustomerId());
@@ -343,6 +422,10 @@ public class InvoiceService {
         }
         
         existing.setUpdatedAt(LocalDateTime.now());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(existing.getProjectId(), ProjectDataChangedEvent.Source.INVOICE));
+        if (previousProjectId != null && !previousProjectId.equals(existing.getProjectId())) {
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(previousProjectId, ProjectDataChangedEvent.Source.INVOICE));
+        }
         return invoiceRepository.save(existing);
     }
     
@@ -356,6 +439,7 @@ public class InvoiceService {
         invoice.setUpdatedAt(LocalDateTime.now());
         
         log.info("Updated invoice {} status to: {}", invoice.getInvoiceNo(), newStatus);
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(invoice.getProjectId(), ProjectDataChangedEvent.Source.INVOICE));
         return invoiceRepository.save(invoice);
     }
     
@@ -382,6 +466,7 @@ public class InvoiceService {
         invoice.setUpdatedAt(LocalDateTime.now());
         
         log.info("Recorded payment of {} for invoice {}", paymentAmount, invoice.getInvoiceNo());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(invoice.getProjectId(), ProjectDataChangedEvent.Source.INVOICE));
         return invoiceRepository.save(invoice);
     }
     
@@ -395,6 +480,7 @@ public class InvoiceService {
         invoiceRepository.save(invoice);
         
         log.info("Soft deleted invoice: {}", invoice.getInvoiceNo());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(invoice.getProjectId(), ProjectDataChangedEvent.Source.INVOICE));
     }
     
     /**
@@ -423,14 +509,149 @@ public class InvoiceService {
     }
     
     /**
-     * Generate PDF for invoice
+     * PDF file for invoice, rendered in the background when not cached
      */
-    public byte[] generatePdf(InvoiceEntity invoice) throws Exception {
-        return pdfService.generateInvoicePdf(invoice);
+    public CompletableFuture<Resource> generatePdf(InvoiceEntity invoice) throws Exception {
+        return pdfService.renderInvoicePdf(invoice);
+    }
+    
+    /**
+     * Ids of the invoices a bulk PDF export covers, with the same access rule as the listing
+     * @throws IllegalArgumentException if no filter is given, the dates are reversed or too many invoices match
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getInvoiceIdsForExport(
+            String groupId,
+            String subGroupId,
+            String projectId,
+            LocalDate fromDate,
+            LocalDate toDate,
+            Long userId,
+            String userRole
+    ) {
+        groupId = blankToNull(groupId);
+        subGroupId = blankToNull(subGroupId);
+        projectId = blankToNull(projectId);
+        
+        if (groupId == null && subGroupId == null && projectId == null && fromDate == null && toDate == null) {
+            throw new IllegalArgumentException("Specify a project, group or date range to export");
+        }
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+        
+        List<Long> ids = invoiceRepository.findExportIds(groupId, subGroupId, projectId,
+                isAdmin(userRole) ? null : userId, fromDate, toDate);
+        if (ids.size() > exportMaxInvoices) {
+            throw new IllegalArgumentException("Filter matches " + ids.size()
+                    + " invoices; narrow it to at most " + exportMaxInvoices);
+        }
+        return ids;
+    }
+    
+    /**
+     * Stream the PDFs of the given invoices into a ZIP. Up to invoice.export.parallelism
+     * PDFs render ahead of the one being written, so only those are pending at once.
+     * Invoices that fail to render are listed in ERRORS.txt instead of aborting the export.
+     */
+    public void writePdfZip(List<Long> invoiceIds, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PDF streams are already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+        
+        Deque<Map.Entry<InvoiceEntity, CompletableFuture<Resource>>> window = new ArrayDeque<>();
+        Set<String> entryNames = new HashSet<>();
+        List<String> failures = new ArrayList<>();
+        
+        try {
+            for (int from = 0; from < invoiceIds.size(); from += EXPORT_LOAD_BATCH) {
+                List<Long> batchIds = invoiceIds.subList(from, Math.min(from + EXPORT_LOAD_BATCH, invoiceIds.size()));
+                Map<Long, InvoiceEntity> loaded = new HashMap<>();
+                invoiceRepository.findWithItemsByIdIn(batchIds).forEach(invoice -> loaded.put(invoice.getId(), invoice));
+            
+                for (Long id : batchIds) {
+                    InvoiceEntity invoice = loaded.get(id);
+                    if (invoice == null) {
+                        continue;
+                    }
+                    window.add(Map.entry(invoice, renderForExport(invoice)));
+                    if (window.size() > exportParallelism) {
+                        writeZipEntry(zip, window.poll(), entryNames, failures);
+                    }
+                }
+            }
+            while (!window.isEmpty()) {
+                writeZipEntry(zip, window.poll(), entryNames, failures);
+            }
+        } catch (IOException | RuntimeException e) {
+            closeRendered(window);
+            throw e;
+        }
+        
+        if (!failures.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("ERRORS.txt"));
+            zip.write(String.join(System.lineSeparator(), failures).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        log.info("Exported {} invoice PDFs ({} failed)", invoiceIds.size() - failures.size(), failures.size());
+    }
+    
+    private CompletableFuture<Resource> renderForExport(InvoiceEntity invoice) {
+        try {
+            return pdfService.renderInvoicePdf(invoice);
+        } catch (CustomException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private void writeZipEntry(ZipOutputStream zip, Map.Entry<InvoiceEntity, CompletableFuture<Resource>> pending,
+                               Set<String> entryNames, List<String> failures) throws IOException {
+        InvoiceEntity invoice = pending.getKey();
+        String name = "Invoice-" + invoice.getInvoiceNo() + ".pdf";
+        if (!entryNames.add(name)) {
+            name = "Invoice-" + invoice.getInvoiceNo() + "-" + invoice.getId() + ".pdf";
+            entryNames.add(name);
+        }
+        
+        Resource pdf;
+        try {
+            pdf = pending.getValue().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            failures.add(invoice.getInvoiceNo() + ": " + cause.getMessage());
+            return;
+        }
+        
+        // Already opened by the PDF cache, so eviction cannot remove it meanwhile
+        try (InputStream in = pdf.getInputStream()) {
+            zip.putNextEntry(new ZipEntry(name));
+            in.transferTo(zip);
+            zip.closeEntry();
+        }
+    }
+    
+    /**
+     * Close the PDFs an aborted export rendered but did not write
+     */
+    private static void closeRendered(Deque<Map.Entry<InvoiceEntity, CompletableFuture<Resource>>> window) {
+        for (Map.Entry<InvoiceEntity, CompletableFuture<Resource>> pending : window) {
+            pending.getValue().thenAccept(pdf -> {
+                try {
+                    pdf.getInputStream().close();
+                } catch (IOException e) {
+                    log.debug("Could not close rendered PDF of invoice {}", pending.getKey().getId(), e);
+                }
+            });
+        }
     }
     
     // Helper methods
     
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value;
+    }
+    
     private boolean isAdmin(String userRole) {
         return "ADMIN".equalsIgnoreCase(userRole) || "SUPERADMIN".equalsIgnoreCase(userRole);
     }
@@ -443,8 +664,9 @@ public class InvoiceService {
         int currentYear = Year.now().getValue();
         String prefix = "INV-" + currentYear + "-";
         
-        long count = invoiceRepository.countByInvoiceNoPrefix(prefix + "%");
-        String number = String.format("%04d", count + 1);
+        long sequence = documentSequenceService.next("INV-" + currentYear,
+                () -> invoiceRepository.countByInvoiceNoPrefix(prefix + "%"));
+        String number = String.format("%04d", sequence);
         
         return prefix + number;
     }
@@ -503,6 +725,7 @@ public class InvoiceService {
         paymentHistoryRepository.save(paymentHistory);
         
         log.info("Recorded payment of {} for invoice {}", paymentAmount, invoice.getInvoiceNo());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(invoice.getProjectId(), ProjectDataChangedEvent.Source.INVOICE));
         return invoiceRepository.save(invoice);
     }
 
@@ -0,0 +1,171 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.customException.InvalidCursorException;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Opt-in keyset (seek) paging for list endpoints.
+ *
+ * The cursor is an opaque, URL-safe encoding of the sort-key values and id of
+ * the last row returned. The next slice seeks past that row instead of using
+ * OFFSET, and no COUNT query is run. A cursor that cannot be decoded for the
+ * list's sort order raises InvalidCursorException (400).
+ */
+public final class KeysetPager {
+
+    private static final String ID = "id";
+
+    private KeysetPager() {
+    }
+
+    /**
+     * Fetch one slice of {@code size} rows after {@code cursor} (null or blank for the first slice)
+     */
+    public static <T> KeysetSlice<T> scroll(JpaSpecificationExecutor<T> repository, Class<T> entityType,
+                                            Specification<T> spec, Sort sort, int size, String cursor) {
+        Sort keysetSort = withIdTieBreaker(sort);
+        KeysetScrollPosition position = decode(cursor, entityType, keysetSort);
+        int limit = Math.max(1, size);
+
+        Window<T> window = repository.findBy(spec, query -> query.sortBy(keysetSort).limit(limit).scroll(position));
+
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? encode(((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys())
+                : null;
+        return new KeysetSlice<>(window.getContent(), limit, window.hasNext(), nextCursor);
+    }
+
+    /**
+     * Cursor for queries ordered by id only (native LIMIT queries)
+     */
+    public static String encodeId(Long id) {
+        return id == null ? null : encode(Map.of(ID, id));
+    }
+
+    /**
+     * @return the id encoded in the cursor, or 0 for the first page
+     */
+    public static long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        Map<String, String> keys = decodeRaw(cursor);
+        if (!Set.of(ID).equals(keys.keySet())) {
+            throw new InvalidCursorException();
+        }
+        try {
+            return Long.parseLong(keys.get(ID));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+
+    private static Sort withIdTieBreaker(Sort sort) {
+        if (sort.getOrderFor(ID) != null) {
+            return sort;
+        }
+        Sort.Direction direction = sort.stream().findFirst().map(Sort.Order::getDirection).orElse(Sort.Direction.DESC);
+        return sort.and(Sort.by(direction, ID));
+    }
+
+    private static String encode(Map<String, ?> keys) {
+        StringJoiner joiner = new StringJoiner("&");
+        keys.forEach((key, value) -> {
+            String encodedKey = URLEncoder.encode(key, StandardCharsets.UTF_8);
+            if (value == null) {
+                joiner.add(encodedKey);
+            } else {
+                String text = value instanceof Enum<?> e ? e.name() : value.toString();
+                joiner.add(encodedKey + "=" + URLEncoder.encode(text, StandardCharsets.UTF_8));
+            }
+        });
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KeysetScrollPosition decode(String cursor, Class<?> entityType, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, String> raw = decodeRaw(cursor);
+        Set<String> sortProperties = new HashSet<>();
+        sort.forEach(order -> sortProperties.add(order.getProperty()));
+        if (!sortProperties.equals(raw.keySet())) {
+            // Cursor was issued for a different sort order
+            throw new InvalidCursorException();
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : raw.entrySet()) {
+            Field field = ReflectionUtils.findField(entityType, entry.getKey());
+            if (field == null) {
+                throw new InvalidCursorException();
+            }
+            keys.put(entry.getKey(), convert(entry.getValue(), field.getType()));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Map<String, String> decodeRaw(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Map<String, String> keys = new LinkedHashMap<>();
+            for (String pair : List.of(decoded.split("&"))) {
+                int separator = pair.indexOf('=');
+                if (separator < 0) {
+                    keys.put(URLDecoder.decode(pair, StandardCharsets.UTF_8), null);
+                } else {
+                    keys.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+                }
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convert(String value, Class<?> type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            }
+            if (type == LocalDate.class) {
+                return LocalDate.parse(value);
+            }
+            if (type.isEnum()) {
+                return Enum.valueOf((Class<? extends Enum>) type, value);
+            }
+            return DefaultConversionService.getSharedInstance().convert(value, type);
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.repo.LoginRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind queue for users.last_login_at.
+ *
+ * Logins only record the time in memory; a background flush writes all
+ * pending times in one transaction, with one UPDATE ... WHERE id IN (...)
+ * per distinct second, so a login storm does not hold a connection per login.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LastLoginWriter {
+
+    private final LoginRepo loginRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${login.last-login.flush-ms:5000}")
+    private long flushDelayMs;
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "last-login-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Queue a login time; a later login of the same user before the flush replaces it
+     */
+    public void record(Long userId, LocalDateTime loginAt) {
+        pending.put(userId, loginAt.truncatedTo(ChronoUnit.SECONDS));
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Login time recorded but not yet written, or null
+     */
+    public LocalDateTime getPending(Long userId) {
+        return pending.get(userId);
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+
+        Map<LocalDateTime, List<Long>> byTime = new HashMap<>();
+        for (Long userId : new ArrayList<>(pending.keySet())) {
+            LocalDateTime loginAt = pending.remove(userId);
+            if (loginAt != null) {
+                byTime.computeIfAbsent(loginAt, t -> new ArrayList<>()).add(userId);
+            }
+        }
+        if (byTime.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    byTime.forEach((loginAt, userIds) -> loginRepo.updateLastLoginAt(userIds, loginAt)));
+            log.debug("Wrote last_login_at for {} login times", byTime.size());
+        } catch (Exception e) {
+            // Keep the times for the next flush unless a newer login replaced them
+            byTime.forEach((loginAt, userIds) -> userIds.forEach(id -> pending.putIfAbsent(id, loginAt)));
+            log.error("Failed to write last_login_at; will retry on next login", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        flush();
+    }
+}
@@ -1,6 +1,7 @@
 package com.istlgroup.istl_group_crm_backend.service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,7 +10,6 @@ import org.springframework.stereotype.Service;
 import com.istlgroup.istl_group_crm_backend.customException.CustomException;
 import com.istlgroup.istl_group_crm_backend.entity.LeadHistoryEntity;
 import com.istlgroup.istl_group_crm_backend.repo.LeadHistoryRepo;
-import com.istlgroup.istl_group_crm_backend.repo.UsersRepo;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.LeadHistoryWrapper;
 
 @Service
@@ -19,7 +19,7 @@ public class LeadHistoryService {
     private LeadHistoryRepo historyRepo;
     
     @Autowired
-    private UsersRepo usersRepo;
+    private UserDirectoryService userDirectoryService;
     
     /**
      * Add history entry
@@ -43,15 +43,17 @@ public class LeadHistoryService {
      */
     public List<LeadHistoryWrapper> getHistoryForLead(Long leadId) throws CustomException {
         List<LeadHistoryEntity> history = historyRepo.findByLeadIdOrderByCreatedAtDesc(leadId);
+        Map<Long, String> userNames = userDirectoryService.resolveNames(
+            history.stream().map(LeadHistoryEntity::getCreatedBy).collect(Collectors.toSet()));
         return history.stream()
-            .map(this::convertToWrapper)
+            .map(entity -> convertToWrapper(entity, userNames))
             .collect(Collectors.toList());
     }
     
     /**
      * Convert Entity to Wrapper
      */
-    private LeadHistoryWrapper convertToWrapper(LeadHistoryEntity entity) {
+    private LeadHistoryWrapper convertToWrapper(LeadHistoryEntity entity, Map<Long, String> userNames) {
         LeadHistoryWrapper wrapper = new LeadHistoryWrapper();
         wrapper.setId(entity.getId());
         wrapper.setLeadId(entity.getLeadId());
@@ -63,11 +65,9 @@ public class LeadHistoryService {
         wrapper.setCreatedBy(entity.getCreatedBy());
         wrapper.setCreatedAt(entity.getCreatedAt() != null ? entity.getCreatedAt().toString() : null);
         
-        // Fetch user name
+        // User name (pre-resolved by the caller)
         if (entity.getCreatedBy() != null) {
-            usersRepo.findById(entity.getCreatedBy()).ifPresent(user -> 
-                wrapper.setCreatedByName(user.getName())
-            );
+            wrapper.setCreatedByName(userNames.get(entity.getCreatedBy()));
         }
         
         return wrapper;
@@ -2,9 +2,14 @@ package com.istlgroup.istl_group_crm_backend.service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -16,22 +21,26 @@ import com.istlgroup.istl_group_crm_backend.wrapperClasses.LeadRequestWrapper;
 import com.istlgroup.istl_group_crm_backend.entity.DropdownProjectEntity;
 import com.istlgroup.istl_group_crm_backend.entity.LeadsEntity;
 import com.istlgroup.istl_group_crm_backend.repo.LeadsRepo;
-import com.istlgroup.istl_group_crm_backend.repo.UsersRepo;
 
 @Service
+@Slf4j
 public class LeadsService {
 
     @Autowired
     private LeadsRepo leadsRepo;
 
     @Autowired
-    private UsersRepo usersRepo;
+    private UserDirectoryService userDirectoryService;
     @Autowired
     private CustomersService customersService;
     @Autowired
     private FollowupsService followupsService;
     @Autowired
     private DropdownProjectService projectService;
+    @Autowired
+    private SearchIndexService searchIndexService;
+    @Autowired
+    private DocumentSequenceService documentSequenceService;
     
     @Autowired 
     private LeadHistoryService leadHistoryService;
@@ -72,9 +81,7 @@ public class LeadsService {
                     .collect(Collectors.toList());
         }
 
-        return leads.stream()
-                .map(this::convertToWrapper)
-                .collect(Collectors.toList());
+        return convertToWrappers(leads);
     }
 
     /**
@@ -94,7 +101,41 @@ public class LeadsService {
             toDate = LocalDateTime.parse(filterRequest.getToDate() + " 23:59:59", DATE_FORMATTER);
         }
 
-        if ("SUPERADMIN".equalsIgnoreCase(userRole) || "ADMIN".equalsIgnoreCase(userRole)) {
+        String searchTerm = filterRequest.getSearchTerm();
+        Set<Long> ids = searchTerm == null || searchTerm.isEmpty()
+                ? null
+                : searchIndexService.matchingIds(SearchIndexService.Domain.LEADS, searchTerm);
+        boolean admin = "SUPERADMIN".equalsIgnoreCase(userRole) || "ADMIN".equalsIgnoreCase(userRole);
+
+        if (ids != null && ids.isEmpty()) {
+            leads = List.of();
+        } else if (ids != null && admin) {
+            // Search term resolved by the index; the database only applies the remaining filters
+            leads = leadsRepo.searchLeadsByIds(
+                ids,
+                filterRequest.getStatus(),
+                filterRequest.getPriority(),
+                filterRequest.getSource(),
+                filterRequest.getGroupName(),
+                filterRequest.getSubGroupName(),
+                filterRequest.getAssignedTo(),
+                fromDate,
+                toDate
+            );
+        } else if (ids != null) {
+            leads = leadsRepo.searchLeadsForUserByIds(
+                userId,
+                ids,
+                filterRequest.getStatus(),
+                filterRequest.getPriority(),
+                filterRequest.getSource(),
+                filterRequest.getGroupName(),
+                filterRequest.getSubGroupName(),
+                filterRequest.getAssignedTo(),
+                fromDate,
+                toDate
+            );
+        } else if (admin) {
             // SuperAdmin and Admin can search all leads
             leads = leadsRepo.searchLeads(
                 filterRequest.getSearchTerm(),
@@ -123,9 +164,7 @@ public class LeadsService {
             );
         }
 
-        return leads.stream()
-                .map(this::convertToWrapper)
-                .collect(Collectors.toList());
+        return convertToWrappers(leads);
     }
 
     /**
@@ -193,9 +232,7 @@ public LeadWrapper createLead(LeadRequestWrapper requestWrapper, Long createdBy)
         
         // If assigned during creation, add assignment history
         if (requestWrapper.getAssignedTo() != null) {
-            String assignedToName = usersRepo.findById(requestWrapper.getAssignedTo())
-                .map(u -> u.getName())
-                .orElse("Unknown");
+            String assignedToName = userDirectoryService.getNameOrDefault(requestWrapper.getAssignedTo(), "Unknown");
             
             leadHistoryService.addHistory(
                 savedLead.getId(),
@@ -317,14 +354,10 @@ public LeadWrapper updateLead(Long leadId, LeadRequestWrapper requestWrapper, Lo
             String newAssignedName = "Unknown";
             
             if (oldAssignedTo != null) {
-                oldAssignedName = usersRepo.findById(oldAssignedTo)
-                    .map(u -> u.getName())
-                    .orElse("Unknown");
+                oldAssignedName = userDirectoryService.getNameOrDefault(oldAssignedTo, "Unknown");
             }
             
-            newAssignedName = usersRepo.findById(requestWrapper.getAssignedTo())
-                .map(u -> u.getName())
-                .orElse("Unknown");
+            newAssignedName = userDirectoryService.getNameOrDefault(requestWrapper.getAssignedTo(), "Unknown");
             
             leadHistoryService.addHistory(
                 leadId,
@@ -433,9 +466,7 @@ public LeadWrapper updateLead(Long leadId, LeadRequestWrapper requestWrapper, Lo
                     .collect(Collectors.toList());
         }
 
-        return leads.stream()
-                .map(this::convertToWrapper)
-                .collect(Collectors.toList());
+        return convertToWrappers(leads);
     }
 
     /**
@@ -452,9 +483,7 @@ public LeadWrapper updateLead(Long leadId, LeadRequestWrapper requestWrapper, Lo
                     .collect(Collectors.toList());
         }
 
-        return leads.stream()
-                .map(this::convertToWrapper)
-                .collect(Collectors.toList());
+        return convertToWrappers(leads);
     }
 
     /**
@@ -473,9 +502,7 @@ public LeadWrapper updateLead(Long leadId, LeadRequestWrapper requestWrapper, Lo
             leads = leadsRepo.findByAssignedToAndDeletedAtIsNull(assignedUserId);
         }
 
-        return leads.stream()
-                .map(this::convertToWrapper)
-                .collect(Collectors.toList());
+        return convertToWrappers(leads);
     }
 
     /**
@@ -494,9 +521,7 @@ public LeadWrapper updateLead(Long leadId, LeadRequestWrapper requestWrapper, Lo
             leads = leadsRepo.findByCreatedByAndDeletedAtIsNull(createdByUserId);
         }
 
-        return leads.stream()
-                .map(this::convertToWrapper)
-                .collect(Collectors.toList());
+        return convertToWrappers(leads);
     }
 
     /**
@@ -517,18 +542,55 @@ public LeadWrapper updateLead(Long leadId, LeadRequestWrapper requestWrapper, Lo
     private String generateLeadCode() {
         String year = String.valueOf(LocalDateTime.now().getYear());
         
-        // Get count of leads with codes starting with "LEAD-2025"
-        long countInYear = leadsRepo.countByLeadCodeStartingWith("LEAD-" + year);
-        long nextSequence = countInYear + 1;
+        // Existing "LEAD-2025" codes seed the series the first time it is used
+        long nextSequence = documentSequenceService.next("LEAD-" + year,
+                () -> leadsRepo.countByLeadCodeStartingWith("LEAD-" + year));
         
         // Use 4 digits minimum, expands automatically beyond 9999
         return String.format("LEAD-%s-%04d", year, nextSequence);
     }
 
+    /**
+     * Convert a list of entities, resolving all user names in one lookup
+     */
+    private List<LeadWrapper> convertToWrappers(List<LeadsEntity> leads) {
+        Set<Long> userIds = new HashSet<>();
+        for (LeadsEntity lead : leads) {
+            userIds.add(lead.getAssignedTo());
+            userIds.add(lead.getCreatedBy());
+        }
+        Map<Long, String> userNames = userDirectoryService.resolveNames(userIds);
+        Map<Long, Integer> pendingCounts = pendingFollowupCounts(leads);
+
+        return leads.stream()
+                .map(lead -> convertToWrapper(lead, userNames, pendingCounts))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Convert Entity to Wrapper
      */
     private LeadWrapper convertToWrapper(LeadsEntity entity) {
+        return convertToWrapper(entity,
+                userDirectoryService.resolveNames(Arrays.asList(entity.getAssignedTo(), entity.getCreatedBy())),
+                pendingFollowupCounts(List.of(entity)));
+    }
+
+    /**
+     * Pending followup counts of all given leads in one grouped query
+     */
+    private Map<Long, Integer> pendingFollowupCounts(List<LeadsEntity> leads) {
+        try {
+            return followupsService.getPendingFollowupsCountsForLeads(
+                    leads.stream().map(LeadsEntity::getId).collect(Collectors.toList()));
+        } catch (Exception e) {
+            log.warn("Failed to load pending followup counts for {} leads", leads.size(), e);
+            return Map.of();
+        }
+    }
+
+    private LeadWrapper convertToWrapper(LeadsEntity entity, Map<Long, String> userNames,
+                                         Map<Long, Integer> pendingCounts) {
         LeadWrapper wrapper = new LeadWrapper();
         wrapper.setId(entity.getId());
         wrapper.setLeadCode(entity.getLeadCode());
@@ -547,29 +609,19 @@ public LeadWrapper updateLead(Long leadId, LeadRequestWrapper requestWrapper, Lo
         wrapper.setCreatedAt(entity.getCreatedAt() != null ? entity.getCreatedAt().toString() : null);
         wrapper.setUpdatedAt(entity.getUpdatedAt() != null ? entity.getUpdatedAt().toString() : null);
         
-        // Fetch user names
+        // User names (pre-resolved by the caller)
         if (entity.getAssignedTo() != null) {
-            usersRepo.findById(entity.getAssignedTo()).ifPresent(user -> 
-                wrapper.setAssignedToName(user.getName())
-            );
+            wrapper.setAssignedToName(userNames.get(entity.getAssignedTo()));
         }
         
         if (entity.getCreatedBy() != null) {
-            usersRepo.findById(entity.getCreatedBy()).ifPresent(user -> 
-                wrapper.setCreatedByName(user.getName())
-            );
+            wrapper.setCreatedByName(userNames.get(entity.getCreatedBy()));
         }
         
-        // *** ADD THIS: Check for pending followups ***
-        try {
-            boolean hasPending = followupsService.hasLeadPendingFollowups(entity.getId());
-            int count = followupsService.getPendingFollowupsCountForLead(entity.getId());
-            wrapper.setHasPendingFollowups(hasPending);
-            wrapper.setPendingFollowupsCount(count);
-        } catch (Exception e) {
-            wrapper.setHasPendingFollowups(false);
-            wrapper.setPendingFollowupsCount(0);
-        }
+        // Pending followups (pre-counted by the caller)
+        int pendingCount = pendingCounts.getOrDefault(entity.getId(), 0);
+        wrapper.setHasPendingFollowups(pendingCount > 0);
+        wrapper.setPendingFollowupsCount(pendingCount);
         
         return wrapper;
     }
@@ -1,18 +1,13 @@
 package com.istlgroup.istl_group_crm_backend.service;
 
-import java.lang.reflect.Field;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,8 +23,6 @@ import com.istlgroup.istl_group_crm_backend.entity.LoginEntity;
 import com.istlgroup.istl_group_crm_backend.entity.MenuPermissionsEntity;
 import com.istlgroup.istl_group_crm_backend.entity.PagePermissionsEntity;
 import com.istlgroup.istl_group_crm_backend.repo.LoginRepo;
-import com.istlgroup.istl_group_crm_backend.repo.MenuPermissionsRepo;
-import com.istlgroup.istl_group_crm_backend.repo.PagePermissionsRepo;
 import com.istlgroup.istl_group_crm_backend.repo.RolesRepo;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.LoginCredentialsWrapper;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.LoginResponseWrapper;
@@ -46,9 +39,6 @@ public class LoginService {
 	@Autowired
 	private LoginRepo loginRepo;
 	
-	@Autowired
-	private MenuPermissionsRepo menu_permissions;
-	
 //	@Autowired
 //	private PermissionsRepo page_permissions;
 
@@ -56,7 +46,16 @@ public class LoginService {
 	private RolesRepo rolesRepo;
 	
 	@Autowired
-	private PagePermissionsRepo pagePermissions;
+	private UserDirectoryService userDirectoryService;
+	
+	@Autowired
+	private PermissionCacheService permissionCacheService;
+	
+	@Autowired
+	private LastLoginWriter lastLoginWriter;
+	
+	@Autowired
+	private ReferenceDataCache referenceDataCache;
 	
 	
 	@Value("${server.servlet.session.timeout}")
@@ -71,10 +70,14 @@ public class LoginService {
 		String username=credentials.get("username");
 		String password=credentials.get("password");
 		
-		LoginEntity response=loginRepo.AuthenticateUser(username,password);
-		if (response == null) {
+		// User, creator contact and permission rows in one round-trip
+		long permissionStamp = permissionCacheService.evictionStamp();
+		List<Object[]> rows=loginRepo.authenticateWithProfile(username,password);
+		if (rows.isEmpty()) {
 	        throw new CustomException("Invalid Credentials");
 	    }
+		Object[] row = rows.get(0);
+		LoginEntity response=(LoginEntity) row[0];
 		
 	    UsernamePasswordAuthenticationToken authentication =
 	            new UsernamePasswordAuthenticationToken(
@@ -94,13 +97,11 @@ public class LoginService {
 	    session.setAttribute("USER_ID", response.getId());
 //	    session.setMaxInactiveInterval(120); 
 
-		Long byId = response.getCreated_by();
-
-		String Name = loginRepo.findRoleByUserId(byId).orElseGet(() -> {if ("SUPERADMIN".equals(response.getRole().toUpperCase())) {return "SUPERADMIN";}
+		String Name = Optional.ofNullable((String) row[1]).orElseGet(() -> {if ("SUPERADMIN".equals(response.getRole().toUpperCase())) {return "SUPERADMIN";}
 		            throw new RuntimeException("User not found");
 		        });
 
-		String phone=loginRepo.findPhone(byId);
+		String phone=(String) row[2];
 	    String maskedPhone ="";
 		if (phone != null && phone.length() == 10) {
 		     maskedPhone = phone.substring(0, 3) + "XXXX" + phone.substring(7);
@@ -116,29 +117,24 @@ public class LoginService {
 		wrappedData.setPhone(response.getPhone());
 		wrappedData.setIs_active(response.getIs_active());
 		wrappedData.setCreated_at(response.getCreated_at());
-		wrappedData.setLast_login_at(response.getLast_login_at());
+		// A login still waiting in the write-behind queue is newer than the stored value
+		LocalDateTime pendingLogin = lastLoginWriter.getPending(response.getId());
+		wrappedData.setLast_login_at(pendingLogin != null ? pendingLogin : response.getLast_login_at());
 		
-		response.setLast_login_at(LocalDateTime.now(ZoneId.of("Asia/Kolkata")));
-		loginRepo.save(response);
+		lastLoginWriter.record(response.getId(), LocalDateTime.now(ZoneId.of("Asia/Kolkata")));
 		
-		MenuPermissionsEntity permissions=menu_permissions.findByUsersId(response.getId());
-		
-		List<String> permissionsMenu = new ArrayList<>();
+		PermissionCacheService.UserPermissions permissions = permissionCacheService.put(response.getId(),
+				permissionStamp, (MenuPermissionsEntity) row[3], (PagePermissionsEntity) row[4]);
 
-		if (permissions == null) {
-		    throw new CustomException("No menu permissions assigned. Please contact " + Name +" "+maskedPhone);
-		}
-		if (!hasAnyMenuPermission(permissions)) {
+		if (!permissions.hasMenuRow() || !permissions.hasAnyMenu()) {
 		    throw new CustomException("No menu permissions assigned. Please contact " + Name +" "+maskedPhone);
-		} else {
-		    permissionsMenu = extractPermissions(permissions);
 		}
+		List<String> permissionsMenu = permissions.menuNames();
 
 
 //		  List<PermissionsEntity> p_permissions = page_permissions.findPermissionsByRoleId(response.getId());
 //		  System.err.println(pagePermissions.findByUserId(response.getId()));
-		  Optional<PagePermissionsEntity> res=pagePermissions.findByUserId(response.getId());
-		  Map<String, List<String>> PagePermissions =extractPagePermissionsData(res);
+		  Map<String, List<String>> PagePermissions = permissions.pagePermissions();
 		  
 //		  System.err.println(result);
 //		  Map<String, List<String>> pagesPermissions= extractPagePermissions(p_permissions);
@@ -155,52 +151,6 @@ public class LoginService {
 		return ResponseEntity.status(HttpStatus.OK).body(loginResponseWrapper);
 	}
 
-	private boolean hasAnyMenuPermission(MenuPermissionsEntity permissions) {
-	    return Stream.of(
-	            permissions.getDashboard(),
-	            permissions.getAnalytics(),
-	            permissions.getDocuments(),
-	            permissions.getSettings(),
-	            permissions.getFollow_ups(),
-	            permissions.getReports(),
-	            permissions.getInvoices(),
-	            permissions.getSales_clients(),
-	            permissions.getSales_leads(),
-	            permissions.getSales_estimation(),
-	            permissions.getProcurement_venders(),
-	            permissions.getProcurement_quotations_recived(),
-	            permissions.getProcurement_purchase_orders(),
-	            permissions.getProcurement_bills_received(),
-	            permissions.getOffice_use()
-	    ).anyMatch(value -> value != null && value == 1);
-	}
-
-	
-	
-	private List<String> extractPermissions(MenuPermissionsEntity p) {
-
-	    List<String> permissions = new ArrayList<>();
-
-	    if (Integer.valueOf(1).equals(p.getDashboard())) permissions.add("DASHBOARD");
-	    if (Integer.valueOf(1).equals(p.getAnalytics())) permissions.add("ANALYTICS");
-	    if (Integer.valueOf(1).equals(p.getDocuments())) permissions.add("DOCUMENTS");
-	    if (Integer.valueOf(1).equals(p.getSettings())) permissions.add("SETTINGS");
-	    if (Integer.valueOf(1).equals(p.getFollow_ups())) permissions.add("FOLLOW_UPS");
-	    if (Integer.valueOf(1).equals(p.getReports())) permissions.add("REPORTS");
-	    if (Integer.valueOf(1).equals(p.getInvoices())) permissions.add("INVOICES");
-	    if (Integer.valueOf(1).equals(p.getSales_clients())) permissions.add("SALES_CLIENTS");
-	    if (Integer.valueOf(1).equals(p.getSales_leads())) permissions.add("SALES_LEADS");
-	    if (Integer.valueOf(1).equals(p.getSales_estimation())) permissions.add("SALES_ESTIMATION");
-	    if (Integer.valueOf(1).equals(p.getProcurement_venders())) permissions.add("PROCUREMENT_VENDERS");
-	    if (Integer.valueOf(1).equals(p.getProcurement_quotations_recived())) permissions.add("PROCUREMENT_QUOTATIONS");
-	    if (Integer.valueOf(1).equals(p.getProcurement_purchase_orders())) permissions.add("PROCUREMENT_PURCHASE_ORDERS");
-	    if (Integer.valueOf(1).equals(p.getProcurement_bills_received())) permissions.add("PROCUREMENT_BILLS");
-	    if (Integer.valueOf(1).equals(p.getOffice_use())) permissions.add("OFFICE_USE");
-
-	    return permissions;
-	}
-
-
 	public ResponseEntity<?> UpdateUser(LoginEntity newData, Long id) throws CustomException {
 		
 		LoginEntity isUserExist=loginRepo.findById(id).orElseThrow(()-> new CustomException("Invalid User"));
@@ -213,6 +163,8 @@ public class LoginService {
 		isUserExist.setUpdated_type("PROFILE_UPDATED");
 		
 		LoginEntity response=loginRepo.save(isUserExist);
+		userDirectoryService.evict(id);
+		referenceDataCache.invalidate(ReferenceDataCache.Kind.LEADS_USERS);
 		if (response == null) {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Update Failed");
 	    }
@@ -317,15 +269,27 @@ public class LoginService {
 
 	
 	public UsersResponseWrapper Users(Long userId, int page, int size) throws CustomException {
+	    return Users(userId, page, size, null);
+	}
+
+	/**
+	 * @param cursor null for offset paging; otherwise keyset paging after the cursor
+	 *               (blank for the first slice), without the total count query
+	 */
+	public UsersResponseWrapper Users(Long userId, int page, int size, String cursor) throws CustomException {
 
 	    // Validate logged-in user
 	    LoginEntity existedUser = loginRepo.findById(userId)
 	            .orElseThrow(() -> new CustomException("Invalid User"));
 
-	    int offset = (page - 1) * size;
+	    boolean keyset = cursor != null;
+	    long afterId = keyset ? KeysetPager.decodeId(cursor) : 0L;
+	    int offset = keyset ? 0 : (page - 1) * size;
+	    // Keyset mode reads one extra row to know whether another slice follows
+	    int limit = keyset ? size + 1 : size;
 
 	    List<LoginEntity> users;
-	    long totalUsers;
+	    long totalUsers = 0;
 	    
 	    long activeUsers = 0;
 	    long inactiveUsers =0;
@@ -333,21 +297,31 @@ public class LoginService {
 	    // SUPER ADMIN - FIX: Use .equalsIgnoreCase() instead of ==
 	    if ("SUPERADMIN".equalsIgnoreCase(existedUser.getRole())) {
 	       
-	        users = loginRepo.findAllUsersWithPagination(size, offset);
-	        totalUsers = loginRepo.count();
-	        activeUsers = loginRepo.totalActiveUsers(userId);
-		    inactiveUsers = totalUsers - activeUsers;
+	        users = loginRepo.findAllUsersWithPagination(afterId, limit, offset);
+	        if (!keyset) {
+	            totalUsers = loginRepo.count();
+	            activeUsers = loginRepo.totalActiveUsers(userId);
+	            inactiveUsers = totalUsers - activeUsers;
+	        }
 	    }
 	    // NORMAL USER
 	    else {
 	        
-	        users = loginRepo.findUsersByCreatedByWithPagination(userId, size, offset);
-	        totalUsers = loginRepo.countUsersByCreatedBy(userId);
-	        activeUsers = loginRepo.totalActiveUsersById(userId);
-		    inactiveUsers = totalUsers - activeUsers;
+	        users = loginRepo.findUsersByCreatedByWithPagination(userId, afterId, limit, offset);
+	        if (!keyset) {
+	            totalUsers = loginRepo.countUsersByCreatedBy(userId);
+	            activeUsers = loginRepo.totalActiveUsersById(userId);
+	            inactiveUsers = totalUsers - activeUsers;
+	        }
 	       
 	    }
 
+	    boolean hasNext = false;
+	    if (keyset && users.size() > size) {
+	        hasNext = true;
+	        users = users.subList(0, size);
+	    }
+
 	    List<UserWrapper> userWrappers = users.stream()
 	        .map(user -> {
 	            UserWrapper wrapper = new UserWrapper();
@@ -360,23 +334,10 @@ public class LoginService {
 	            wrapper.setCreated_at(user.getCreated_at());
 	            wrapper.setRole(user.getRole());
 
-	            // Page permissions count
-	            Optional<PagePermissionsEntity> p_permissions =
-	                    pagePermissions.findByUserId(user.getId());
-
-	            long totalPermissionCount = countEnabledPagePermissions(p_permissions);
-	            wrapper.setPagePermissionsCount(totalPermissionCount);
-
-	            // Menu permissions count
-	            MenuPermissionsEntity permissions =
-	                    menu_permissions.findByUsersId(user.getId());
-
-	            if (permissions == null) {
-	                wrapper.setMenuPermissionsCount(0L);
-	            } else {
-	                List<String> menu_list = extractPermissions(permissions);
-	                wrapper.setMenuPermissionsCount((long) menu_list.size());
-	            }
+	            // Permission counts from the compiled per-user bitsets
+	            PermissionCacheService.UserPermissions permissions = permissionCacheService.get(user.getId());
+	            wrapper.setPagePermissionsCount(permissions.pageCount());
+	            wrapper.setMenuPermissionsCount((long) permissions.menuCount());
 
 	            return wrapper;
 	        })
@@ -388,53 +349,28 @@ public class LoginService {
 
 	    UsersResponseWrapper response = new UsersResponseWrapper();
 	    response.setUserWrapper(userWrappers);
-	    response.setTotalUsers((int) totalUsers);
-	    response.setActiveUsers(activeUsers);
-	    response.setInactiveUsers(inactiveUsers);
 	    response.setRoles(roles);
+	    // Keyset slices run no count queries, so totals are left out
+	    if (!keyset) {
+	        response.setTotalUsers((int) totalUsers);
+	        response.setActiveUsers(activeUsers);
+	        response.setInactiveUsers(inactiveUsers);
+	        response.setTotalPages((int) Math.ceil((double) totalUsers / size));
+	    }
 
 	    // Pagination metadata (VERY IMPORTANT FOR UI)
 	    response.setCurrentPage(page);
 	    response.setPageSize(size);
-	    response.setTotalPages((int) Math.ceil((double) totalUsers / size));
+	    response.setHasNext(hasNext);
+	    if (hasNext) {
+	        response.setNextCursor(KeysetPager.encodeId(users.get(users.size() - 1).getId()));
+	    }
 
 	    return response;
 	}
 
 	public long countEnabledPagePermissions(Optional<PagePermissionsEntity> res) {
-
-	    if (res.isEmpty()) {
-	        return 0L;
-	    }
-
-	    PagePermissionsEntity entity = res.get();
-	    long count = 0;
-
-	    for (Field field : PagePermissionsEntity.class.getDeclaredFields()) {
-	        field.setAccessible(true);
-
-	        try {
-	            Object value = field.get(entity);
-
-	            // Skip non-permission fields
-	            if (field.getName().equals("id") ||
-	                field.getName().equals("user_id") ||
-	                field.getName().equals("created_at") ||
-	                field.getName().equals("updated_at")) {
-	                continue;
-	            }
-
-	            // Count only enabled permissions
-	            if (value instanceof Integer && ((Integer) value) == 1) {
-	                count++;
-	            }
-
-	        } catch (IllegalAccessException e) {
-	            throw new RuntimeException("Failed to count page permissions", e);
-	        }
-	    }
-
-	    return count;
+	    return res.map(PermissionCacheService::countPagePermissions).orElse(0L);
 	}
 
 	public List<String> GetMenuPermissions(Long id) throws CustomException {
@@ -443,15 +379,14 @@ public class LoginService {
 	    loginRepo.findById(id)
 	            .orElseThrow(() -> new CustomException("Invalid User"));
 
-	    MenuPermissionsEntity menuPermissions =
-	            menu_permissions.findByUsersId(id);
+	    PermissionCacheService.UserPermissions compiled = permissionCacheService.get(id);
 
 	    // If no menu permissions found
-	    if (menuPermissions == null) {
+	    if (!compiled.hasMenuRow()) {
 	        return List.of("No Menu Permissions");
 	    }
 
-	    List<String> permissions = extractPermissions(menuPermissions);
+	    List<String> permissions = compiled.menuNames();
 	    
 	    
 
@@ -489,16 +424,16 @@ public class LoginService {
 	    loginRepo.findById(id)
 	            .orElseThrow(() -> new CustomException("Invalid User"));
 
-	    // 2. Fetch page permissions (single row per user)
-	    Optional<PagePermissionsEntity> pPermissions =pagePermissions.findByUserId(id);
+	    // 2. Compiled page permissions (single row per user)
+	    PermissionCacheService.UserPermissions compiled = permissionCacheService.get(id);
 
 	    // 3. If no permissions row
-	    if (pPermissions.isEmpty()) {
+	    if (!compiled.hasPageRow()) {
 	        return "No Permissions";
 	    }
 
-	    // 4. Convert entity → UI format
-	    Map<String, List<String>> permissionsMap = extractPagePermissions(pPermissions.get());
+	    // 4. Convert bitset → UI format
+	    Map<String, List<String>> permissionsMap = compiled.pagePermissions();
 	    System.err.println(permissionsMap);
 	    // 5. If user has no enabled permissions
 	    if (permissionsMap.isEmpty()) {
@@ -508,57 +443,6 @@ public class LoginService {
 	    return permissionsMap;
 	}
 
-	private Map<String, List<String>> extractPagePermissions(PagePermissionsEntity entity) {
-
-	    Map<String, List<String>> result = new LinkedHashMap<>();
-
-	    for (Field field : PagePermissionsEntity.class.getDeclaredFields()) {
-	        field.setAccessible(true);
-
-	        try {
-	            Object value = field.get(entity);
-
-	            // Skip non-enabled permissions
-	            if (!(value instanceof Integer) || ((Integer) value) != 1) {
-	                continue;
-	            }
-
-	            String fieldName = field.getName();
-
-	            // Skip non-permission fields
-	            if (fieldName.equals("id") ||
-	                fieldName.equals("user_id") ||
-	                fieldName.equals("created_at") ||
-	                fieldName.equals("updated_at")) {
-	                continue;
-	            }
-
-	            // users_view → USERS : VIEW
-	            // quotations_sales_approve → QUOTATIONS.SALES : APPROVE
-	            String[] parts = fieldName.split("_");
-
-	            String action = parts[parts.length - 1].toUpperCase();
-	            String module;
-
-	            if (parts.length > 2) {
-	                module = String.join(".",
-	                        Arrays.stream(parts, 0, parts.length - 1)
-	                              .map(String::toUpperCase)
-	                              .toArray(String[]::new));
-	            } else {
-	                module = parts[0].toUpperCase();
-	            }
-
-	            result.computeIfAbsent(module, k -> new ArrayList<>()).add(action);
-
-	        } catch (IllegalAccessException e) {
-	            throw new RuntimeException("Failed to extract page permissions", e);
-	        }
-	    }
-
-	    return result;
-	}
-
 	
 //	private Map<String, List<String>> extractPagePermissions(List<PermissionsEntity> permissionsEntities) {
 //
@@ -607,59 +491,7 @@ public class LoginService {
 	
 	public Map<String, List<String>> extractPagePermissionsData(
 	        Optional<PagePermissionsEntity> res) {
-
-	    if (res.isEmpty()) {
-	        return Collections.emptyMap();
-	    }
-
-	    PagePermissionsEntity entity = res.get();
-	    Map<String, List<String>> result = new LinkedHashMap<>();
-
-	    for (Field field : PagePermissionsEntity.class.getDeclaredFields()) {
-	        field.setAccessible(true);
-
-	        try {
-	            Object value = field.get(entity);
-
-	            // Skip non-integer or non-enabled permissions
-	            if (!(value instanceof Integer) || ((Integer) value) != 1) {
-	                continue;
-	            }
-
-	            String fieldName = field.getName();
-
-	            // Skip non-permission fields
-	            if (fieldName.equals("id") ||
-	                fieldName.equals("user_id") ||
-	                fieldName.equals("created_at") ||
-	                fieldName.equals("updated_at")) {
-	                continue;
-	            }
-
-	            // Split column name
-	            String[] parts = fieldName.split("_");
-
-	            String action = parts[parts.length - 1].toUpperCase();
-	            String module;
-
-	            // Handle nested modules: quotations_sales_view → QUOTATIONS.SALES
-	            if (parts.length > 2) {
-	                module = String.join(".",
-	                        Arrays.stream(parts, 0, parts.length - 1)
-	                              .map(String::toUpperCase)
-	                              .toArray(String[]::new));
-	            } else {
-	                module = parts[0].toUpperCase();
-	            }
-
-	            result.computeIfAbsent(module, k -> new ArrayList<>()).add(action);
-
-	        } catch (IllegalAccessException e) {
-	            throw new RuntimeException("Failed to extract permissions", e);
-	        }
-	    }
-
-	    return result;
+	    return res.map(PermissionCacheService::pagePermissionMap).orElse(Collections.emptyMap());
 	}
 
 	public Map<String, Object> getUsers(int page, int size) {
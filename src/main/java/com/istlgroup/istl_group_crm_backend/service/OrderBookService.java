@@ -1,17 +1,22 @@
 package com.istlgroup.istl_group_crm_backend.service;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -33,7 +38,6 @@ import com.istlgroup.istl_group_crm_backend.repo.OrderBookItemRepo;
 import com.istlgroup.istl_group_crm_backend.repo.ProposalItemRepo;
 import com.istlgroup.istl_group_crm_backend.repo.CustomersRepo;
 import com.istlgroup.istl_group_crm_backend.repo.ProposalsRepo;
-import com.istlgroup.istl_group_crm_backend.repo.UsersRepo;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.OrderBookWrapper;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.OrderBookItemWrapper;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.OrderBookRequestWrapper;
@@ -59,7 +63,18 @@ public class OrderBookService {
     private ProposalsRepo proposalsRepo;
     
     @Autowired
-    private UsersRepo usersRepo;
+    private UserDirectoryService userDirectoryService;
+    
+    @Autowired
+    private DocumentSequenceService documentSequenceService;
+    
+    @Autowired
+    private FileContentStore fileContentStore;
+    
+    static final String PO_FILE_AREA = "order-book-po";
+    
+    // Length of order_book.po_file_type
+    private static final int PO_FILE_TYPE_MAX_LENGTH = 127;
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -81,7 +96,7 @@ public class OrderBookService {
             orderBooks = orderBookRepo.findByDeletedAtIsNull(pageable);
         }
         
-        return orderBooks.map(this::convertToWrapper);
+        return convertPageToWrappers(orderBooks);
     }
     
     /**
@@ -106,7 +121,7 @@ public class OrderBookService {
             searchTerm, status, groupName, subGroupName, from, to, pageable
         );
         
-        return results.map(this::convertToWrapper);
+        return convertPageToWrappers(results);
     }
     
     /**
@@ -361,17 +376,28 @@ public class OrderBookService {
             throw new CustomException("Cannot update deleted order book");
         }
         
+        if (file == null || file.isEmpty()) {
+            throw new CustomException("PO file is empty");
+        }
+        
+        // Checked before storing so a rejected upload leaves no blob behind
+        String contentType = file.getContentType();
+        if (contentType != null && contentType.length() > PO_FILE_TYPE_MAX_LENGTH) {
+            throw new CustomException("Unsupported PO file type: " + contentType);
+        }
+        
         try {
-            // Save file logic here - implement based on your file storage system
-            // For now, we'll just store the filename
-            String fileName = file.getOriginalFilename();
-            String filePath = "/uploads/po/" + orderBook.getOrderBookNo() + "_" + fileName;
-            
-            // TODO: Implement actual file saving logic
-            // Example: Files.copy(file.getInputStream(), Paths.get(uploadDir + filePath));
+            // Identical PO scans are stored once, named by their SHA-256
+            FileContentStore.StoredFile stored;
+            try (InputStream in = file.getInputStream()) {
+                stored = fileContentStore.store(PO_FILE_AREA, in);
+            }
             
-            orderBook.setPoFileName(fileName);
-            orderBook.setPoFilePath(filePath);
+            orderBook.setPoFileName(file.getOriginalFilename());
+            orderBook.setPoFilePath(fileContentStore.locate(PO_FILE_AREA, stored.getHash()).toString());
+            orderBook.setPoFileType(contentType);
+            orderBook.setPoFileSize(stored.getSize());
+            orderBook.setPoFileHash(stored.getHash());
             orderBook.setPoNumber(poNumber);
             
             if (poDate != null && !poDate.isEmpty()) {
@@ -386,6 +412,27 @@ public class OrderBookService {
         }
     }
     
+    /**
+     * Order book with an uploaded PO file, for streaming the file
+     */
+    @Transactional(readOnly = true)
+    public OrderBookEntity getPOFileOwner(Long id) throws CustomException {
+        OrderBookEntity orderBook = orderBookRepo.findById(id)
+            .filter(o -> o.getDeletedAt() == null)
+            .orElseThrow(() -> new CustomException("Order book not found with ID: " + id));
+        if (orderBook.getPoFileHash() == null || !fileContentStore.exists(PO_FILE_AREA, orderBook.getPoFileHash())) {
+            throw new CustomException("No PO file uploaded for order book: " + id);
+        }
+        return orderBook;
+    }
+    
+    /**
+     * Open the stored PO file content for streaming
+     */
+    public Resource loadPOFile(OrderBookEntity orderBook) {
+        return fileContentStore.load(PO_FILE_AREA, orderBook.getPoFileHash());
+    }
+    
     /**
      * Delete order book (soft delete)
      */
@@ -464,16 +511,35 @@ public class OrderBookService {
         String year = String.valueOf(LocalDateTime.now().getYear());
         String prefix = "ORD-" + year + "-";
         
-        long count = orderBookRepo.countByOrderBookNoStartingWith(prefix);
-        long nextSequence = count + 1;
+        long nextSequence = documentSequenceService.next("ORD-" + year,
+                () -> orderBookRepo.countByOrderBookNoStartingWith(prefix));
         
         return String.format("%s%04d", prefix, nextSequence);
     }
     
+    /**
+     * Convert a page of entities, resolving all user names in one lookup
+     */
+    private Page<OrderBookWrapper> convertPageToWrappers(Page<OrderBookEntity> orderBooks) {
+        Set<Long> userIds = new HashSet<>();
+        for (OrderBookEntity orderBook : orderBooks.getContent()) {
+            userIds.add(orderBook.getCreatedBy());
+            userIds.add(orderBook.getApprovedBy());
+        }
+        Map<Long, String> userNames = userDirectoryService.resolveNames(userIds);
+        
+        return orderBooks.map(orderBook -> convertToWrapper(orderBook, userNames));
+    }
+    
     /**
      * Convert Entity to Wrapper
      */
     private OrderBookWrapper convertToWrapper(OrderBookEntity entity) {
+        return convertToWrapper(entity,
+            userDirectoryService.resolveNames(Arrays.asList(entity.getCreatedBy(), entity.getApprovedBy())));
+    }
+    
+    private OrderBookWrapper convertToWrapper(OrderBookEntity entity, Map<Long, String> userNames) {
         OrderBookWrapper wrapper = new OrderBookWrapper();
         wrapper.setId(entity.getId());
         wrapper.setOrderBookNo(entity.getOrderBookNo());
@@ -518,15 +584,11 @@ public class OrderBookService {
         }
         
         if (entity.getCreatedBy() != null) {
-            usersRepo.findById(entity.getCreatedBy()).ifPresent(user -> 
-                wrapper.setCreatedByName(user.getName())
-            );
+            wrapper.setCreatedByName(userNames.get(entity.getCreatedBy()));
         }
         
         if (entity.getApprovedBy() != null) {
-            usersRepo.findById(entity.getApprovedBy()).ifPresent(user -> 
-                wrapper.setApprovedByName(user.getName())
-            );
+            wrapper.setApprovedByName(userNames.get(entity.getApprovedBy()));
         }
         
         return wrapper;
@@ -0,0 +1,321 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.customException.CustomException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Renders PDFs on a bounded worker pool into a disk cache.
+ *
+ * Documents are keyed by kind, id and a caller-supplied version (normally the
+ * updatedAt of everything printed), so an unchanged document is served from
+ * disk without rendering. The cache is trimmed to pdf.cache.max-bytes,
+ * evicting the least recently served files. Concurrent requests for the same
+ * document share one render.
+ *
+ * Callers get the cached file already opened: it is opened under the cache
+ * lock while its entry is present, and evicted files are only deleted after
+ * their entry is gone, so eviction never removes a file before a caller has
+ * opened it. An open file stays readable after it is deleted.
+ */
+@Service
+@Slf4j
+public class PdfRenderService {
+
+    /**
+     * Writes one PDF to the given stream
+     */
+    @FunctionalInterface
+    public interface PdfWriterTask {
+        void writeTo(OutputStream out) throws Exception;
+    }
+
+    @Value("${pdf.cache-dir:uploads/pdf-cache/}")
+    private String cacheDir;
+
+    @Value("${pdf.cache.max-bytes:524288000}")
+    private long maxCacheBytes;
+
+    @Value("${pdf.render.threads:2}")
+    private int renderThreads;
+
+    @Value("${pdf.render.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${pdf.render.timeout-seconds:60}")
+    private long timeoutSeconds;
+
+    private Path cacheRoot;
+    private ThreadPoolExecutor executor;
+
+    // file name → size, in least recently served order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        cacheRoot = Paths.get(cacheDir).toAbsolutePath().normalize();
+        Files.createDirectories(cacheRoot);
+        loadIndex();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(renderThreads, renderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Cached PDF of the document as an opened, single-use Resource, rendering
+     * it on the worker pool if this version is not cached yet. The caller must
+     * read or close its stream. The future fails with CustomException when the
+     * render fails, times out or the queue is full.
+     */
+    public CompletableFuture<Resource> render(String kind, Long id, String version, PdfWriterTask task) {
+        String fileName = kind + "-" + id + "-" + hash(version) + ".pdf";
+
+        Resource cached = open(fileName);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return renderToCache(kind, id, fileName, task).thenCompose(path -> {
+            Resource rendered = open(fileName);
+            if (rendered != null) {
+                return CompletableFuture.completedFuture(rendered);
+            }
+            // Evicted by a concurrent render before it could be opened; render it once more
+            return renderToCache(kind, id, fileName, task).thenApply(again -> {
+                Resource retried = open(fileName);
+                if (retried == null) {
+                    throw new CompletionException(new CustomException("PDF cache is too small, please try again"));
+                }
+                return retried;
+            });
+        });
+    }
+
+    private CompletableFuture<Path> renderToCache(String kind, Long id, String fileName, PdfWriterTask task) {
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(fileName, future);
+        if (existing != null) {
+            return withTimeout(existing);
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(write(kind, id, fileName, task));
+                } catch (Exception e) {
+                    log.error("Failed to render {} PDF {}", kind, id, e);
+                    future.completeExceptionally(e instanceof CustomException ? e
+                            : new CustomException("Error generating PDF: " + e.getMessage()));
+                } finally {
+                    inFlight.remove(fileName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(fileName);
+            log.warn("PDF render queue full; rejected {} {}", kind, id);
+            future.completeExceptionally(new CustomException("PDF generation is busy, please try again shortly"));
+            return future;
+        }
+
+        return withTimeout(future);
+    }
+
+    private CompletableFuture<Path> withTimeout(CompletableFuture<Path> render) {
+        // A timed-out render still completes and is cached for the next request
+        return render.copy()
+                .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .exceptionallyCompose(e -> CompletableFuture.failedFuture(unwrap(e)));
+    }
+
+    private Path write(String kind, Long id, String fileName, PdfWriterTask task) throws Exception {
+        long start = System.currentTimeMillis();
+        Path target = cacheRoot.resolve(fileName);
+        Path temp = Files.createTempFile(cacheRoot, fileName, ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                task.writeTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        long size = Files.size(target);
+        List<Path> evicted = new ArrayList<>();
+        synchronized (this) {
+            // Older versions of the same document can no longer be requested
+            String documentPrefix = kind + "-" + id + "-";
+            for (Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Long> entry = it.next();
+                if (entry.getKey().startsWith(documentPrefix) && !entry.getKey().equals(fileName)) {
+                    cachedBytes -= entry.getValue();
+                    evicted.add(cacheRoot.resolve(entry.getKey()));
+                    it.remove();
+                }
+            }
+
+            Long previous = entries.put(fileName, size);
+            cachedBytes += size - (previous != null ? previous : 0L);
+
+            for (Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+                 cachedBytes > maxCacheBytes && it.hasNext(); ) {
+                Map.Entry<String, Long> entry = it.next();
+                if (!entry.getKey().equals(fileName)) {
+                    cachedBytes -= entry.getValue();
+                    evicted.add(cacheRoot.resolve(entry.getKey()));
+                    it.remove();
+                }
+            }
+        }
+        for (Path path : evicted) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                // e.g. still open on a filesystem that refuses to delete open files
+                log.warn("Could not delete evicted PDF {}", path, e);
+            }
+        }
+
+        log.info("Rendered {} PDF {} ({} bytes) in {} ms", kind, id, size, System.currentTimeMillis() - start);
+        return target;
+    }
+
+    /**
+     * Open a cached file, or null if it is not cached. Runs under the cache
+     * lock, so an entry that is present has not been deleted yet.
+     */
+    private synchronized Resource open(String fileName) {
+        Long size = entries.get(fileName);
+        if (size == null) {
+            return null;
+        }
+        try {
+            return new CachedPdfResource(Files.newInputStream(cacheRoot.resolve(fileName)), size, fileName);
+        } catch (IOException e) {
+            // Removed outside the application
+            cachedBytes -= entries.remove(fileName);
+            return null;
+        }
+    }
+
+    private synchronized void loadIndex() throws IOException {
+        try (Stream<Path> files = Files.list(cacheRoot)) {
+            List<Path> pdfs = new ArrayList<>();
+            for (Path path : files.toList()) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // Left behind by a render interrupted by shutdown
+                    Files.deleteIfExists(path);
+                } else if (name.endsWith(".pdf")) {
+                    pdfs.add(path);
+                }
+            }
+            pdfs.sort(Comparator.comparingLong(PdfRenderService::lastModified));
+            for (Path pdf : pdfs) {
+                long size = Files.size(pdf);
+                entries.put(pdf.getFileName().toString(), size);
+                cachedBytes += size;
+            }
+        }
+        log.info("PDF cache at {}: {} files, {} bytes", cacheRoot, entries.size(), cachedBytes);
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof TimeoutException) {
+            return new CustomException("PDF generation timed out, please try again");
+        }
+        return cause;
+    }
+
+    /**
+     * Opened cache file; reports its length so responses carry Content-Length
+     */
+    private static final class CachedPdfResource extends InputStreamResource {
+
+        private final long length;
+        private final String fileName;
+
+        private CachedPdfResource(InputStream in, long length, String fileName) {
+            super(in, "cached PDF " + fileName);
+            this.length = length;
+            this.fileName = fileName;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public String getFilename() {
+            return fileName;
+        }
+    }
+
+    private static String hash(String version) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(String.valueOf(version).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(bytes, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
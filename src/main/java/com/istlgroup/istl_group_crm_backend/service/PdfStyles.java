@@ -0,0 +1,109 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.VerticalAlignment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Fonts, colours, borders and cell styles shared by the PDF services.
+ *
+ * Font programs are parsed once; a PdfFont is bound to one document, so each
+ * render still wraps them with fonts(). Colours, borders and styles are
+ * immutable after class initialization and safe to share across documents
+ * and render threads.
+ */
+public final class PdfStyles {
+
+    private static final FontProgram HELVETICA = loadFont(StandardFonts.HELVETICA);
+    private static final FontProgram HELVETICA_BOLD = loadFont(StandardFonts.HELVETICA_BOLD);
+
+    public static final Color HEADER_GRAY = new DeviceRgb(240, 240, 240);
+    public static final Color SUBHEADER_GRAY = new DeviceRgb(250, 250, 250);
+    public static final Color ACCENT_BLUE = new DeviceRgb(49, 130, 206);
+    public static final Color LIGHT_BACKGROUND = new DeviceRgb(247, 250, 252);
+    public static final Color TOTAL_GREEN = new DeviceRgb(34, 139, 34);
+
+    public static final Border THIN_BLACK = new SolidBorder(ColorConstants.BLACK, 0.5f);
+    public static final Border BLACK = new SolidBorder(ColorConstants.BLACK, 1);
+    public static final Border THIN_LIGHT_GRAY = new SolidBorder(ColorConstants.LIGHT_GRAY, 0.5f);
+    public static final Border LIGHT_GRAY = new SolidBorder(ColorConstants.LIGHT_GRAY, 1);
+
+    // Invoice tables
+    public static final Style ITEM_HEADER = new Style()
+            .setVerticalAlignment(VerticalAlignment.MIDDLE)
+            .setPadding(5)
+            .setBackgroundColor(HEADER_GRAY)
+            .setBorder(THIN_BLACK);
+    public static final Style ITEM_CELL = new Style()
+            .setVerticalAlignment(VerticalAlignment.MIDDLE)
+            .setPadding(5)
+            .setBorder(THIN_BLACK);
+    public static final Style TAX_HEADER = new Style()
+            .setTextAlignment(TextAlignment.CENTER)
+            .setVerticalAlignment(VerticalAlignment.MIDDLE)
+            .setPadding(3)
+            .setBackgroundColor(HEADER_GRAY)
+            .setBorder(THIN_BLACK);
+    public static final Style TAX_SUBHEADER = new Style()
+            .setTextAlignment(TextAlignment.CENTER)
+            .setVerticalAlignment(VerticalAlignment.MIDDLE)
+            .setPadding(2)
+            .setBackgroundColor(SUBHEADER_GRAY)
+            .setBorder(THIN_BLACK);
+    public static final Style TAX_CELL = new Style()
+            .setVerticalAlignment(VerticalAlignment.MIDDLE)
+            .setPadding(3)
+            .setBorder(THIN_BLACK);
+    public static final Style BLANK_CELL = new Style()
+            .setPadding(2)
+            .setBackgroundColor(SUBHEADER_GRAY)
+            .setBorder(THIN_BLACK);
+
+    // Proposal tables
+    public static final Style INFO_LABEL = new Style()
+            .setPadding(8)
+            .setBackgroundColor(LIGHT_BACKGROUND)
+            .setBorder(THIN_LIGHT_GRAY);
+    public static final Style INFO_VALUE = new Style()
+            .setPadding(8)
+            .setBorder(THIN_LIGHT_GRAY);
+    public static final Style ACCENT_HEADER = new Style()
+            .setBackgroundColor(ACCENT_BLUE)
+            .setFontColor(ColorConstants.WHITE);
+    public static final Style TOTAL_ROW = new Style()
+            .setBackgroundColor(LIGHT_BACKGROUND);
+
+    private PdfStyles() {
+    }
+
+    /**
+     * Regular and bold Helvetica bound to the document about to be rendered
+     */
+    public static Fonts fonts() {
+        return new Fonts(PdfFontFactory.createFont(HELVETICA_BOLD), PdfFontFactory.createFont(HELVETICA));
+    }
+
+    public record Fonts(PdfFont bold, PdfFont normal) {
+    }
+
+    private static FontProgram loadFont(String name) {
+        try {
+            return FontProgramFactory.createFont(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load PDF font " + name, e);
+        }
+    }
+}
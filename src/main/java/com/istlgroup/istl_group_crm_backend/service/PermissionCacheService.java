@@ -0,0 +1,363 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.entity.MenuPermissionsEntity;
+import com.istlgroup.istl_group_crm_backend.entity.PagePermissionsEntity;
+import com.istlgroup.istl_group_crm_backend.repo.MenuPermissionsRepo;
+import com.istlgroup.istl_group_crm_backend.repo.PagePermissionsRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-user menu and page permissions compiled into bitsets and cached in-process.
+ *
+ * Page permission columns are discovered once from PagePermissionsEntity and
+ * read through precomputed accessors; each enabled flag (value 1) sets the bit
+ * at the column's index. Entries are evicted by UsersService whenever a user's
+ * permissions are changed or the user is deleted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PermissionCacheService {
+
+    private static final Set<String> PAGE_NON_PERMISSION_FIELDS = Set.of("id", "user_id", "created_at", "updated_at");
+
+    private static final List<MenuFlag> MENU_FLAGS = List.of(
+            new MenuFlag("DASHBOARD", MenuPermissionsEntity::getDashboard),
+            new MenuFlag("ANALYTICS", MenuPermissionsEntity::getAnalytics),
+            new MenuFlag("DOCUMENTS", MenuPermissionsEntity::getDocuments),
+            new MenuFlag("SETTINGS", MenuPermissionsEntity::getSettings),
+            new MenuFlag("FOLLOW_UPS", MenuPermissionsEntity::getFollow_ups),
+            new MenuFlag("REPORTS", MenuPermissionsEntity::getReports),
+            new MenuFlag("INVOICES", MenuPermissionsEntity::getInvoices),
+            new MenuFlag("SALES_CLIENTS", MenuPermissionsEntity::getSales_clients),
+            new MenuFlag("SALES_LEADS", MenuPermissionsEntity::getSales_leads),
+            new MenuFlag("SALES_ESTIMATION", MenuPermissionsEntity::getSales_estimation),
+            new MenuFlag("PROCUREMENT_VENDERS", MenuPermissionsEntity::getProcurement_venders),
+            new MenuFlag("PROCUREMENT_QUOTATIONS", MenuPermissionsEntity::getProcurement_quotations_recived),
+            new MenuFlag("PROCUREMENT_PURCHASE_ORDERS", MenuPermissionsEntity::getProcurement_purchase_orders),
+            new MenuFlag("PROCUREMENT_BILLS", MenuPermissionsEntity::getProcurement_bills_received),
+            new MenuFlag("OFFICE_USE", MenuPermissionsEntity::getOffice_use)
+    );
+
+    private static final Map<String, Integer> MENU_INDEX = indexMenuFlags();
+
+    private static final List<PageFlag> PAGE_FLAGS = compilePageFlags();
+
+    // "USERS:VIEW" / "QUOTATIONS.SALES:APPROVE" → bit index
+    private static final Map<String, Integer> PAGE_INDEX = indexPageFlags();
+
+    private final MenuPermissionsRepo menuPermissionsRepo;
+    private final PagePermissionsRepo pagePermissionsRepo;
+
+    private final Map<Long, UserPermissions> cache = new ConcurrentHashMap<>();
+
+    // Bumped on every eviction of the user; a load only caches its result if no eviction happened meanwhile
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    // Evictions of any user, for callers that read permission rows before they know the user id (login)
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Compiled permissions of a user, loaded on first use
+     */
+    public UserPermissions get(Long userId) {
+        UserPermissions permissions = cache.get(userId);
+        if (permissions == null) {
+            long generation = generations.getOrDefault(userId, 0L);
+            // Loaded outside any lock; the generation check keeps rows read before an eviction out of the cache
+            UserPermissions loaded = load(userId);
+            generations.compute(userId, (id, current) -> {
+                if ((current != null ? current : 0L) == generation) {
+                    cache.putIfAbsent(id, loaded);
+                }
+                return current;
+            });
+            permissions = loaded;
+        }
+        return permissions;
+    }
+
+    /**
+     * Eviction count to read before fetching permission rows that are later passed to put
+     */
+    public long evictionStamp() {
+        return evictions.get();
+    }
+
+    /**
+     * Compile permission rows that were already fetched (e.g. by the login
+     * query) and cache them unless any user was evicted since the stamp was
+     * read, as the rows may then predate a committed change; either row may
+     * be null when the user has none
+     */
+    public UserPermissions put(Long userId, long stamp, MenuPermissionsEntity menu, PagePermissionsEntity page) {
+        UserPermissions permissions = compile(menu, page);
+        generations.compute(userId, (id, current) -> {
+            if (evictions.get() == stamp) {
+                cache.put(id, permissions);
+            }
+            return current;
+        });
+        return permissions;
+    }
+
+    /**
+     * O(1) check of a page permission, e.g. hasPagePermission(id, "QUOTATIONS.SALES", "APPROVE")
+     */
+    public boolean hasPagePermission(Long userId, String module, String action) {
+        return get(userId).hasPage(module, action);
+    }
+
+    /**
+     * O(1) check of a menu permission by name, e.g. hasMenuPermission(id, "SALES_LEADS")
+     */
+    public boolean hasMenuPermission(Long userId, String menu) {
+        return get(userId).hasMenu(menu);
+    }
+
+    /**
+     * Drop a user's entry now and, if a transaction is running, again after it
+     * commits so a concurrent reload cannot cache the pre-commit rows
+     */
+    public void evict(Long userId) {
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long userId) {
+        // Under the generation's lock, so a load cannot check the old generation and cache after this removal
+        generations.compute(userId, (id, current) -> {
+            cache.remove(id);
+            evictions.incrementAndGet();
+            return current != null ? current + 1 : 1L;
+        });
+    }
+
+    /**
+     * Number of enabled page permissions in the entity (without caching)
+     */
+    public static long countPagePermissions(PagePermissionsEntity entity) {
+        return compilePage(entity).cardinality();
+    }
+
+    /**
+     * Number of enabled menu permissions in the entity (without caching)
+     */
+    public static int countMenuPermissions(MenuPermissionsEntity entity) {
+        return Long.bitCount(compileMenu(entity));
+    }
+
+    /**
+     * Enabled menu permission names in the entity (without caching)
+     */
+    public static List<String> menuPermissionNames(MenuPermissionsEntity entity) {
+        return menuNames(compileMenu(entity));
+    }
+
+    /**
+     * Enabled page permissions grouped by module, e.g. {USERS=[VIEW, EDIT]} (without caching)
+     */
+    public static Map<String, List<String>> pagePermissionMap(PagePermissionsEntity entity) {
+        return pageMap(compilePage(entity));
+    }
+
+    private UserPermissions load(Long userId) {
+        MenuPermissionsEntity menu = menuPermissionsRepo.findByUsersId(userId);
+        Optional<PagePermissionsEntity> page = pagePermissionsRepo.findByUserId(userId);
+        log.debug("Compiled permissions for user {}", userId);
+        return compile(menu, page.orElse(null));
+    }
+
+    private static UserPermissions compile(MenuPermissionsEntity menu, PagePermissionsEntity page) {
+        return new UserPermissions(
+                menu != null,
+                menu != null ? compileMenu(menu) : 0L,
+                page != null,
+                page != null ? compilePage(page) : new BitSet());
+    }
+
+    private static long compileMenu(MenuPermissionsEntity entity) {
+        long bits = 0L;
+        for (int i = 0; i < MENU_FLAGS.size(); i++) {
+            Integer value = MENU_FLAGS.get(i).getter().apply(entity);
+            if (value != null && value == 1) {
+                bits |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    private static BitSet compilePage(PagePermissionsEntity entity) {
+        BitSet bits = new BitSet(PAGE_FLAGS.size());
+        for (int i = 0; i < PAGE_FLAGS.size(); i++) {
+            if (PAGE_FLAGS.get(i).isEnabled(entity)) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static List<String> menuNames(long bits) {
+        List<String> names = new ArrayList<>(Long.bitCount(bits));
+        for (int i = 0; i < MENU_FLAGS.size(); i++) {
+            if ((bits & (1L << i)) != 0) {
+                names.add(MENU_FLAGS.get(i).name());
+            }
+        }
+        return names;
+    }
+
+    private static Map<String, List<String>> pageMap(BitSet bits) {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            PageFlag flag = PAGE_FLAGS.get(i);
+            result.computeIfAbsent(flag.module(), k -> new ArrayList<>()).add(flag.action());
+        }
+        return result;
+    }
+
+    /**
+     * Permission columns of PagePermissionsEntity in declaration order, with
+     * module/action names derived as before: users_view → USERS : VIEW,
+     * quotations_sales_approve → QUOTATIONS.SALES : APPROVE
+     */
+    private static List<PageFlag> compilePageFlags() {
+        List<PageFlag> flags = new ArrayList<>();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(PagePermissionsEntity.class, MethodHandles.lookup());
+            for (Field field : PagePermissionsEntity.class.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())
+                        || field.getType() != Integer.class
+                        || PAGE_NON_PERMISSION_FIELDS.contains(field.getName())) {
+                    continue;
+                }
+                String[] parts = field.getName().split("_");
+                String action = parts[parts.length - 1].toUpperCase();
+                String module = parts.length > 2
+                        ? String.join(".", Arrays.stream(parts, 0, parts.length - 1)
+                                .map(String::toUpperCase)
+                                .toArray(String[]::new))
+                        : parts[0].toUpperCase();
+                flags.add(new PageFlag(module, action, lookup.unreflectGetter(field)));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access page permission fields", e);
+        }
+        return List.copyOf(flags);
+    }
+
+    private static Map<String, Integer> indexMenuFlags() {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < MENU_FLAGS.size(); i++) {
+            index.put(MENU_FLAGS.get(i).name(), i);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Map<String, Integer> indexPageFlags() {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < PAGE_FLAGS.size(); i++) {
+            index.put(PAGE_FLAGS.get(i).module() + ":" + PAGE_FLAGS.get(i).action(), i);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private record MenuFlag(String name, Function<MenuPermissionsEntity, Integer> getter) {
+    }
+
+    private record PageFlag(String module, String action, MethodHandle getter) {
+        boolean isEnabled(PagePermissionsEntity entity) {
+            try {
+                Integer value = (Integer) getter.invoke(entity);
+                return value != null && value == 1;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to read page permission " + module + ":" + action, e);
+            }
+        }
+    }
+
+    /**
+     * Immutable compiled permissions of one user
+     */
+    public static final class UserPermissions {
+
+        private final boolean hasMenuRow;
+        private final long menuBits;
+        private final boolean hasPageRow;
+        private final BitSet pageBits;
+
+        private UserPermissions(boolean hasMenuRow, long menuBits, boolean hasPageRow, BitSet pageBits) {
+            this.hasMenuRow = hasMenuRow;
+            this.menuBits = menuBits;
+            this.hasPageRow = hasPageRow;
+            this.pageBits = pageBits;
+        }
+
+        public boolean hasMenuRow() {
+            return hasMenuRow;
+        }
+
+        public boolean hasPageRow() {
+            return hasPageRow;
+        }
+
+        public boolean hasAnyMenu() {
+            return menuBits != 0L;
+        }
+
+        public int menuCount() {
+            return Long.bitCount(menuBits);
+        }
+
+        public long pageCount() {
+            return pageBits.cardinality();
+        }
+
+        public boolean hasMenu(String menu) {
+            Integer index = MENU_INDEX.get(menu);
+            return index != null && (menuBits & (1L << index)) != 0;
+        }
+
+        public boolean hasPage(String module, String action) {
+            Integer index = PAGE_INDEX.get(module + ":" + action);
+            return index != null && pageBits.get(index);
+        }
+
+        public List<String> menuNames() {
+            return PermissionCacheService.menuNames(menuBits);
+        }
+
+        public Map<String, List<String>> pagePermissions() {
+            return PermissionCacheService.pageMap(pageBits);
+        }
+    }
+}
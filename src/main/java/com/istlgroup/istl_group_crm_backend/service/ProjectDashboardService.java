@@ -15,10 +15,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.temporal.IsoFields;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -34,12 +36,106 @@ public class ProjectDashboardService {
     private final PaymentHistoryRepository paymentHistoryRepository; // FIXED TYPO
     private final InvoiceRepository invoiceRepository;
     
+    private final DashboardSnapshotCache snapshotCache;
+    
+    private final AtomicLong writeFreeFinancialReads = new AtomicLong();
+    
+    static final String SECTION_DASHBOARD = "dashboard";
+    static final String SECTION_FINANCIAL = "financial";
+    static final String SECTION_PROCUREMENT = "procurement";
+    static final String SECTION_ACTIVITIES = "activities";
+    static final String SECTION_TOP_VENDORS = "top-vendors";
+    static final String SECTION_SPENDING_TREND = "spending-trend";
+    static final String SECTION_TIMELINE = "timeline";
+    static final String SECTION_PAYMENT_METHODS = "payment-methods";
+    static final String SECTION_PAYMENT_TIMELINE = "payment-timeline";
+    
+    public static final String TREND_MONTH = "month";
+    public static final String TREND_WEEK = "week";
+    private static final int DEFAULT_TREND_PERIODS = 6;
+    private static final int MAX_TREND_PERIODS = 104;
+    
     @Transactional(readOnly = true)
     public ProjectDashboardDTO getDashboardData(String projectUniqueId) {
-        log.info("Fetching dashboard data for project: {}", projectUniqueId);
+        return snapshotCache.get(projectUniqueId, SECTION_DASHBOARD, () -> buildDashboardData(projectUniqueId));
+    }
+    
+    @Transactional(readOnly = true)
+    public FinancialData getFinancialData(String projectUniqueId) {
+        return snapshotCache.get(projectUniqueId, SECTION_FINANCIAL,
+            () -> buildFinancialData(findProject(projectUniqueId)));
+    }
+    
+    @Transactional(readOnly = true)
+    public ProcurementData getProcurementData(String projectUniqueId) {
+        return snapshotCache.get(projectUniqueId, SECTION_PROCUREMENT,
+            () -> buildProcurementData(findProject(projectUniqueId), projectUniqueId));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ActivityDTO> getRecentActivitiesSection(String projectUniqueId) {
+        return snapshotCache.get(projectUniqueId, SECTION_ACTIVITIES,
+            () -> getRecentActivities(requireProjectId(projectUniqueId)));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<VendorSummaryDTO> getTopVendorsSection(String projectUniqueId) {
+        return snapshotCache.get(projectUniqueId, SECTION_TOP_VENDORS,
+            () -> getTopVendors(requireProjectId(projectUniqueId)));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SpendingTrendDTO> getSpendingTrendSection(String projectUniqueId) {
+        return getSpendingTrendSection(projectUniqueId, DEFAULT_TREND_PERIODS, TREND_MONTH);
+    }
+    
+    /**
+     * @param periods number of months/weeks up to and including the current one
+     * @param granularity "month" or "week"
+     */
+    @Transactional(readOnly = true)
+    public List<SpendingTrendDTO> getSpendingTrendSection(String projectUniqueId, int periods, String granularity) {
+        String section = DEFAULT_TREND_PERIODS == periods && TREND_MONTH.equals(granularity)
+            ? SECTION_SPENDING_TREND
+            : SECTION_SPENDING_TREND + ":" + granularity + ":" + periods;
+        return snapshotCache.get(projectUniqueId, section,
+            () -> buildSpendingTrend(requireProjectId(projectUniqueId), periods, granularity));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TimelineMilestoneDTO> getTimelineSection(String projectUniqueId) {
+        return snapshotCache.get(projectUniqueId, SECTION_TIMELINE,
+            () -> buildProjectTimeline(findProject(projectUniqueId), projectUniqueId));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ChartDataDTO> getPaymentMethodsSection(String projectUniqueId) {
+        return snapshotCache.get(projectUniqueId, SECTION_PAYMENT_METHODS,
+            () -> getPaymentMethodDistribution(requireProjectId(projectUniqueId)));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<PaymentTrendDTO> getPaymentTimelineSection(String projectUniqueId) {
+        return snapshotCache.get(projectUniqueId, SECTION_PAYMENT_TIMELINE,
+            () -> getPaymentTimeline(requireProjectId(projectUniqueId)));
+    }
+    
+    /**
+     * Read-path counters: financial sections built without writing the project
+     * row, and snapshot cache hits/misses.
+     */
+    public Map<String, Long> getReadMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("writeFreeFinancialReads", writeFreeFinancialReads.get());
+        metrics.put("snapshotHits", snapshotCache.getHits());
+        metrics.put("snapshotMisses", snapshotCache.getMisses());
+        return metrics;
+    }
+    
+    private ProjectDashboardDTO buildDashboardData(String projectUniqueId) {
+        log.info("Building dashboard data for project: {}", projectUniqueId);
         
-        ProjectEntity project = projectRepository.findByProjectUniqueId(projectUniqueId)
-            .orElseThrow(() -> new RuntimeException("Project not found: " + projectUniqueId));
+        ProjectEntity project = findProject(projectUniqueId);
         
         ProjectDashboardDTO dashboard = ProjectDashboardDTO.builder()
             .projectId(project.getProjectUniqueId())
@@ -63,16 +159,40 @@ public class ProjectDashboardService {
             .statsCalculatedAt(project.getStatsCalculatedAt())
             .build();
         
+        // Section endpoints can reuse what the full build already computed
+        snapshotCache.put(projectUniqueId, SECTION_FINANCIAL, dashboard.getFinancialData());
+        snapshotCache.put(projectUniqueId, SECTION_PROCUREMENT, dashboard.getProcurementData());
+        snapshotCache.put(projectUniqueId, SECTION_ACTIVITIES, dashboard.getRecentActivities());
+        snapshotCache.put(projectUniqueId, SECTION_TOP_VENDORS, dashboard.getTopVendors());
+        snapshotCache.put(projectUniqueId, SECTION_SPENDING_TREND, dashboard.getSpendingTrend());
+        snapshotCache.put(projectUniqueId, SECTION_TIMELINE, dashboard.getProjectTimeline());
+        snapshotCache.put(projectUniqueId, SECTION_PAYMENT_METHODS, dashboard.getPaymentMethodDistribution());
+        snapshotCache.put(projectUniqueId, SECTION_PAYMENT_TIMELINE, dashboard.getPaymentTimeline());
+        
         log.info("Dashboard data built successfully for project: {}", projectUniqueId);
         return dashboard;
     }
     
+    private ProjectEntity findProject(String projectUniqueId) {
+        return projectRepository.findByProjectUniqueId(projectUniqueId)
+            .orElseThrow(() -> new RuntimeException("Project not found: " + projectUniqueId));
+    }
+    
+    /**
+     * Sections that only query child tables still 404 for unknown projects
+     * instead of caching an empty result.
+     */
+    private String requireProjectId(String projectUniqueId) {
+        if (!projectRepository.existsByProjectUniqueId(projectUniqueId)) {
+            throw new RuntimeException("Project not found: " + projectUniqueId);
+        }
+        return projectUniqueId;
+    }
  
 	/**
  * Build financial data from project stats
- * CORRECTED FORMULA:
- * - Projected Profit = Budget - Amount Spent (not Total Bills)
  * - Amount Spent = Amount Paid to Vendors
+ * - Budget utilization and profit as defined by ProjectFinancials
  */
 private FinancialData buildFinancialData(ProjectEntity project) {
     // TOTAL PROJECT VALUE = BUDGET
@@ -97,36 +217,12 @@ private FinancialData buildFinancialData(ProjectEntity project) {
     // TOTAL PROCUREMENT COST = ALL BILLS (including unpaid)
     BigDecimal totalProcurementCost = totalBillValue;
     
-    // BUDGET UTILIZATION PERCENTAGE (based on amount spent)
-    Double budgetUtilizationPercent = totalProjectValue.compareTo(BigDecimal.ZERO) > 0
-        ? amountSpent.multiply(new BigDecimal("100"))
-            .divide(totalProjectValue, 2, RoundingMode.HALF_UP)
-            .doubleValue()
-        : 0.0;
-    
-    // PROFIT CALCULATION
-    BigDecimal projectedProfit;
-    Double profitMargin;
-    
-    if (isCompleted) {
-        // PROJECT COMPLETED: Show actual profit
-        // Actual Profit = Total received from client - Total paid to vendors
-        projectedProfit = paidInvoiceValue.subtract(paidBillValue);
-        profitMargin = paidInvoiceValue.compareTo(BigDecimal.ZERO) > 0
-            ? projectedProfit.multiply(new BigDecimal("100"))
-                .divide(paidInvoiceValue, 2, RoundingMode.HALF_UP)
-                .doubleValue()
-            : 0.0;
-    } else {
-        // PROJECT IN PROGRESS: Show projected profit
-        // CORRECTED: Projected Profit = Budget - Amount Spent
-        projectedProfit = totalProjectValue.subtract(amountSpent);
-        profitMargin = totalProjectValue.compareTo(BigDecimal.ZERO) > 0
-            ? projectedProfit.multiply(new BigDecimal("100"))
-                .divide(totalProjectValue, 2, RoundingMode.HALF_UP)
-                .doubleValue()
-            : 0.0;
-    }
+    // BUDGET UTILIZATION AND PROFIT, defined once in ProjectFinancials
+    // (completed projects show actual profit from paid invoices)
+    ProjectFinancials financials = ProjectFinancials.of(project);
+    Double budgetUtilizationPercent = financials.budgetUtilizationPercent().doubleValue();
+    BigDecimal projectedProfit = financials.projectedProfit();
+    Double profitMargin = financials.profitMarginPercent().doubleValue();
     
     // CASH FLOW CALCULATIONS
     BigDecimal cashInHand = paidInvoiceValue.subtract(paidBillValue);
@@ -149,17 +245,8 @@ private FinancialData buildFinancialData(ProjectEntity project) {
             .doubleValue()
         : 0.0;
     
-    // MANUALLY UPDATE PROJECT STATS
-    try {
-        project.setBudgetUtilized(amountSpent);
-        project.setBudgetUtilizationPercent(new BigDecimal(budgetUtilizationPercent));
-        project.setProjectedProfit(projectedProfit);
-        project.setProfitMarginPercent(new BigDecimal(profitMargin));
-        project.setStatsCalculatedAt(LocalDateTime.now());
-        projectRepository.save(project);
-    } catch (Exception e) {
-        log.warn("Could not update project stats", e);
-    }
+    // Derived metrics are computed on read only; the stats pipeline persists them
+    writeFreeFinancialReads.incrementAndGet();
     
     return FinancialData.builder()
         .totalProjectValue(totalProjectValue)
@@ -306,35 +393,69 @@ private FinancialData buildFinancialData(ProjectEntity project) {
     }
     
     private List<SpendingTrendDTO> getSpendingTrend(String projectUniqueId) {
+        return buildSpendingTrend(projectUniqueId, DEFAULT_TREND_PERIODS, TREND_MONTH);
+    }
+    
+    /**
+     * Spending trend over the last {@code periods} months or ISO weeks (including
+     * the current one), from one grouped query. Periods without orders are zero.
+     */
+    private List<SpendingTrendDTO> buildSpendingTrend(String projectUniqueId, int periods, String granularity) {
+        if (periods < 1 || periods > MAX_TREND_PERIODS) {
+            throw new IllegalArgumentException("periods must be between 1 and " + MAX_TREND_PERIODS);
+        }
+        
+        Map<Long, Object[]> totals = new HashMap<>();
         List<SpendingTrendDTO> trend = new ArrayList<>();
-        YearMonth currentMonth = YearMonth.now();
         
-        for (int i = 5; i >= 0; i--) {
-            YearMonth month = currentMonth.minusMonths(i);
-            LocalDate startOfMonth = month.atDay(1);
-            LocalDate endOfMonth = month.atEndOfMonth();
+        if (TREND_MONTH.equals(granularity)) {
+            YearMonth first = YearMonth.now().minusMonths(periods - 1);
+            purchaseOrderRepository.sumSpendingByProjectIdGroupByMonth(projectUniqueId,
+                    first.atDay(1).atStartOfDay(), YearMonth.now().plusMonths(1).atDay(1).atStartOfDay())
+                .forEach(arr -> totals.put(((Number) arr[0]).longValue() * 100 + ((Number) arr[1]).longValue(),
+                    new Object[] { arr[2], arr[3] }));
             
-            BigDecimal monthlySpending = purchaseOrderRepository
-                .sumTotalValueByProjectIdAndDateRange(projectUniqueId, startOfMonth.atStartOfDay(), endOfMonth.atTime(23, 59, 59));
-            
-            Long monthlyOrders = purchaseOrderRepository
-                .countByProjectIdAndDateRange(projectUniqueId, startOfMonth.atStartOfDay(), endOfMonth.atTime(23, 59, 59));
-            
-            BigDecimal avgOrderValue = monthlyOrders > 0 && monthlySpending != null
-                ? monthlySpending.divide(new BigDecimal(monthlyOrders), 2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
+            for (int i = 0; i < periods; i++) {
+                YearMonth month = first.plusMonths(i);
+                trend.add(trendPoint(
+                    month.getMonth().toString().substring(0, 3) + " " + String.valueOf(month.getYear()).substring(2),
+                    totals.get(month.getYear() * 100L + month.getMonthValue())));
+            }
+        } else if (TREND_WEEK.equals(granularity)) {
+            LocalDate first = LocalDate.now().with(DayOfWeek.MONDAY).minusWeeks(periods - 1);
+            purchaseOrderRepository.sumSpendingByProjectIdGroupByWeek(projectUniqueId,
+                    first.atStartOfDay(), LocalDate.now().with(DayOfWeek.MONDAY).plusWeeks(1).atStartOfDay())
+                .forEach(arr -> totals.put(((Number) arr[0]).longValue(), new Object[] { arr[1], arr[2] }));
             
-            trend.add(SpendingTrendDTO.builder()
-                .month(month.getMonth().toString().substring(0, 3) + " " + String.valueOf(month.getYear()).substring(2))
-                .spending(monthlySpending != null ? monthlySpending : BigDecimal.ZERO)
-                .orders(monthlyOrders.intValue())
-                .avgOrderValue(avgOrderValue)
-                .build());
+            for (int i = 0; i < periods; i++) {
+                LocalDate weekStart = first.plusWeeks(i);
+                int weekYear = weekStart.get(IsoFields.WEEK_BASED_YEAR);
+                int week = weekStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+                trend.add(trendPoint(
+                    String.format("W%02d %s", week, String.valueOf(weekYear).substring(2)),
+                    totals.get(weekYear * 100L + week)));
+            }
+        } else {
+            throw new IllegalArgumentException("granularity must be '" + TREND_MONTH + "' or '" + TREND_WEEK + "'");
         }
         
         return trend;
     }
     
+    private SpendingTrendDTO trendPoint(String label, Object[] totals) {
+        BigDecimal spending = totals != null && totals[0] != null ? (BigDecimal) totals[0] : BigDecimal.ZERO;
+        int orders = totals != null ? ((Number) totals[1]).intValue() : 0;
+        
+        return SpendingTrendDTO.builder()
+            .month(label)
+            .spending(spending)
+            .orders(orders)
+            .avgOrderValue(orders > 0
+                ? spending.divide(new BigDecimal(orders), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO)
+            .build();
+    }
+    
     /**
      * Build comprehensive project timeline with procurement milestones
      */
@@ -0,0 +1,60 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.entity.ProjectEntity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The one definition of a project's budget and profit figures, persisted by
+ * ProjectStatsService and shown by ProjectDashboardService:
+ * - budget utilized = amount paid to vendors (paid bills)
+ * - utilization % = budget utilized / budget
+ * - in progress: profit = budget - budget utilized, margin % of budget
+ * - completed: profit = received from client (paid invoices) - paid to
+ *   vendors, margin % of the amount received
+ * Percentages are rounded to 2 decimals; a zero base gives 0.
+ */
+public record ProjectFinancials(BigDecimal budgetUtilized, BigDecimal budgetUtilizationPercent,
+                                BigDecimal projectedProfit, BigDecimal profitMarginPercent) {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    public static ProjectFinancials of(ProjectEntity project) {
+        BigDecimal budget = orZero(project.getBudget());
+        BigDecimal paidBills = orZero(project.getPaidBillValue());
+
+        BigDecimal profit;
+        BigDecimal margin;
+        if (project.getStatus() == ProjectEntity.ProjectStatus.COMPLETED) {
+            BigDecimal paidInvoices = orZero(project.getPaidInvoiceValue());
+            profit = paidInvoices.subtract(paidBills);
+            margin = percent(profit, paidInvoices);
+        } else {
+            profit = budget.subtract(paidBills);
+            margin = percent(profit, budget);
+        }
+        return new ProjectFinancials(paidBills, percent(paidBills, budget), profit, margin);
+    }
+
+    /**
+     * Copy the figures onto the project's stored stats
+     */
+    public void applyTo(ProjectEntity project) {
+        project.setBudgetUtilized(budgetUtilized);
+        project.setBudgetUtilizationPercent(budgetUtilizationPercent);
+        project.setProjectedProfit(projectedProfit);
+        project.setProfitMarginPercent(profitMarginPercent);
+    }
+
+    private static BigDecimal percent(BigDecimal value, BigDecimal base) {
+        if (base.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return value.multiply(HUNDRED).divide(base, 2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,155 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.repo.ProjectRepository;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.StatsRecalculationResultDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Full project-stats recalculation split into chunks.
+ *
+ * Each chunk runs ProjectStatsService.recalculateProjectBatch in its own short
+ * transaction on a virtual thread; a semaphore caps concurrent chunks below the
+ * connection pool size so request traffic still gets connections.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectStatsBatchRecalculator {
+
+    private final ProjectRepository projectRepository;
+    private final ProjectStatsService projectStatsService;
+    private final DashboardSnapshotCache dashboardSnapshotCache;
+
+    @Value("${scheduler.project-stats.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${scheduler.project-stats.parallelism:4}")
+    private int parallelism;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Recalculate stats for all active projects
+     * @return one result per chunk, in chunk order
+     */
+    public List<StatsRecalculationResultDTO> recalculateAllProjectStats() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Project stats recalculation already running, skipping");
+            return List.of(StatsRecalculationResultDTO.builder()
+                    .success(false)
+                    .message("Recalculation already running")
+                    .calculatedAt(LocalDateTime.now())
+                    .build());
+        }
+
+        try {
+            List<String> projectIds = projectRepository.findActiveProjectUniqueIds();
+            List<List<String>> chunks = new ArrayList<>();
+            int size = Math.max(1, chunkSize);
+            for (int from = 0; from < projectIds.size(); from += size) {
+                chunks.add(projectIds.subList(from, Math.min(from + size, projectIds.size())));
+            }
+
+            int threads = Math.max(1, Math.min(parallelism, connectionPoolSize - 2));
+            log.info("Recalculating stats for {} projects in {} chunks ({} in parallel)",
+                    projectIds.size(), chunks.size(), threads);
+
+            Semaphore permits = new Semaphore(threads);
+            List<Future<StatsRecalculationResultDTO>> futures = new ArrayList<>();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < chunks.size(); i++) {
+                    int chunkIndex = i;
+                    List<String> chunk = chunks.get(i);
+                    futures.add(executor.submit(() -> {
+                        permits.acquire();
+                        try {
+                            return recalculateChunk(chunkIndex, chunks.size(), chunk);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                }
+            }
+
+            List<StatsRecalculationResultDTO> results = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(resultOf(futures.get(i), i, chunks.get(i).size()));
+            }
+            dashboardSnapshotCache.evictAll();
+            return results;
+
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private StatsRecalculationResultDTO recalculateChunk(int chunkIndex, int chunkCount, List<String> projectIds) {
+        long startTime = System.currentTimeMillis();
+        try {
+            int recalculated = projectStatsService.recalculateProjectBatch(projectIds);
+            long duration = System.currentTimeMillis() - startTime;
+            log.info("Stats chunk {}/{} done: {} projects in {} ms",
+                    chunkIndex + 1, chunkCount, recalculated, duration);
+
+            return StatsRecalculationResultDTO.builder()
+                    .success(true)
+                    .chunkIndex(chunkIndex)
+                    .projectCount(recalculated)
+                    .message("Recalculated " + recalculated + " projects")
+                    .calculatedAt(LocalDateTime.now())
+                    .executionTimeMs(duration)
+                    .build();
+
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            log.error("Stats chunk {}/{} failed after {} ms", chunkIndex + 1, chunkCount, duration, e);
+
+            return StatsRecalculationResultDTO.builder()
+                    .success(false)
+                    .chunkIndex(chunkIndex)
+                    .projectCount(projectIds.size())
+                    .message("Failed: " + e.getMessage())
+                    .calculatedAt(LocalDateTime.now())
+                    .executionTimeMs(duration)
+                    .build();
+        }
+    }
+
+    private StatsRecalculationResultDTO resultOf(Future<StatsRecalculationResultDTO> future, int chunkIndex, int projectCount) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failedChunk(chunkIndex, projectCount, "Interrupted");
+        } catch (ExecutionException e) {
+            return failedChunk(chunkIndex, projectCount, "Failed: " + e.getCause().getMessage());
+        }
+    }
+
+    private StatsRecalculationResultDTO failedChunk(int chunkIndex, int projectCount, String message) {
+        return StatsRecalculationResultDTO.builder()
+                .success(false)
+                .chunkIndex(chunkIndex)
+                .projectCount(projectCount)
+                .message(message)
+                .calculatedAt(LocalDateTime.now())
+                .build();
+    }
+}
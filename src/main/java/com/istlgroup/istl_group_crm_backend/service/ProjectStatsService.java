@@ -3,17 +3,24 @@ package com.istlgroup.istl_group_crm_backend.service;
 
 
 import com.istlgroup.istl_group_crm_backend.entity.ProjectEntity;
+import com.istlgroup.istl_group_crm_backend.event.ProjectDataChangedEvent;
 import com.istlgroup.istl_group_crm_backend.repo.*;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.ProjectStatsDriftDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +32,39 @@ public class ProjectStatsService {
     private final QuotationRepository quotationRepository;
     private final BillRepository billRepository;
     private final VendorRepository vendorRepository;
+    private final InvoiceRepository invoiceRepository;
+
+    /** Projects per aggregate query when verifying all projects */
+    private static final int VERIFY_BATCH_SIZE = 500;
+
+    /** Stored stats checked by the consistency verifier, in report order */
+    private static final Map<String, Function<ProjectEntity, Object>> VERIFIED_FIELDS = new LinkedHashMap<>();
+    static {
+        VERIFIED_FIELDS.put("totalPoCount", ProjectEntity::getTotalPoCount);
+        VERIFIED_FIELDS.put("totalPoValue", ProjectEntity::getTotalPoValue);
+        VERIFIED_FIELDS.put("deliveredPoCount", ProjectEntity::getDeliveredPoCount);
+        VERIFIED_FIELDS.put("deliveredPoValue", ProjectEntity::getDeliveredPoValue);
+        VERIFIED_FIELDS.put("pendingPoValue", ProjectEntity::getPendingPoValue);
+        VERIFIED_FIELDS.put("cancelledPoValue", ProjectEntity::getCancelledPoValue);
+        VERIFIED_FIELDS.put("totalQuotationCount", ProjectEntity::getTotalQuotationCount);
+        VERIFIED_FIELDS.put("totalQuotationValue", ProjectEntity::getTotalQuotationValue);
+        VERIFIED_FIELDS.put("approvedQuotationCount", ProjectEntity::getApprovedQuotationCount);
+        VERIFIED_FIELDS.put("approvedQuotationValue", ProjectEntity::getApprovedQuotationValue);
+        VERIFIED_FIELDS.put("totalBillCount", ProjectEntity::getTotalBillCount);
+        VERIFIED_FIELDS.put("totalBillValue", ProjectEntity::getTotalBillValue);
+        VERIFIED_FIELDS.put("paidBillCount", ProjectEntity::getPaidBillCount);
+        VERIFIED_FIELDS.put("paidBillValue", ProjectEntity::getPaidBillValue);
+        VERIFIED_FIELDS.put("pendingPaymentValue", ProjectEntity::getPendingPaymentValue);
+        VERIFIED_FIELDS.put("totalInvoiceCount", ProjectEntity::getTotalInvoiceCount);
+        VERIFIED_FIELDS.put("totalInvoiceValue", ProjectEntity::getTotalInvoiceValue);
+        VERIFIED_FIELDS.put("paidInvoiceCount", ProjectEntity::getPaidInvoiceCount);
+        VERIFIED_FIELDS.put("paidInvoiceValue", ProjectEntity::getPaidInvoiceValue);
+        VERIFIED_FIELDS.put("pendingInvoiceValue", ProjectEntity::getPendingInvoiceValue);
+        VERIFIED_FIELDS.put("activeVendorCount", ProjectEntity::getActiveVendorCount);
+        VERIFIED_FIELDS.put("totalVendorSpend", ProjectEntity::getTotalVendorSpend);
+        VERIFIED_FIELDS.put("budgetUtilized", ProjectEntity::getBudgetUtilized);
+        VERIFIED_FIELDS.put("projectedProfit", ProjectEntity::getProjectedProfit);
+    }
 
     /**
      * Recalculate ALL project statistics from scratch
@@ -37,61 +77,58 @@ public class ProjectStatsService {
         ProjectEntity project = projectRepository.findByProjectUniqueId(projectUniqueId)
             .orElseThrow(() -> new RuntimeException("Project not found: " + projectUniqueId));
 
-        // Calculate all stats
-        calculatePOStats(project);
-        calculateQuotationStats(project);
-        calculateBillStats(project);
-        calculateVendorStats(project);
-        calculateFinancialMetrics(project);
-        
-        // Update timestamps
-        project.setStatsCalculatedAt(LocalDateTime.now());
-        project.setLastProcurementUpdate(LocalDateTime.now());
-        
-        projectRepository.save(project);
+        recalculateStats(List.of(project));
         log.info("Statistics recalculated successfully for project: {}", projectUniqueId);
     }
 
     /**
-     * Calculate Purchase Order statistics
+     * Recalculate and save stats for a batch of projects
      */
-    private void calculatePOStats(ProjectEntity project) {
-        String projectId = project.getProjectUniqueId();
+    private void recalculateStats(List<ProjectEntity> projects) {
+        applyLiveAggregates(projects);
         
-        // Total POs
-        Long totalCount = purchaseOrderRepository.countByProjectId(projectId);
-        project.setTotalPoCount(totalCount != null ? totalCount.intValue() : 0);
-        
-        BigDecimal totalValue = purchaseOrderRepository.sumTotalValueByProjectId(projectId)
-            .orElse(BigDecimal.ZERO);
-        project.setTotalPoValue(totalValue);
-        
-        // Delivered POs
-        Long deliveredCount = purchaseOrderRepository.countByProjectIdAndStatus(projectId, "Delivered");
-        project.setDeliveredPoCount(deliveredCount != null ? deliveredCount.intValue() : 0);
+        LocalDateTime now = LocalDateTime.now();
+        for (ProjectEntity project : projects) {
+            project.setStatsCalculatedAt(now);
+            project.setLastProcurementUpdate(now);
+        }
         
-        BigDecimal deliveredValue = purchaseOrderRepository
-            .sumTotalValueByProjectIdAndStatus(projectId, "Delivered")
-            .orElse(BigDecimal.ZERO);
-        project.setDeliveredPoValue(deliveredValue);
+        projectRepository.saveAll(projects);
+    }
+
+    /**
+     * Fill the stats fields of the given projects using one conditional-aggregation
+     * query per source table (POs, quotations, bills, invoices, vendors), grouped by project
+     */
+    private void applyLiveAggregates(List<ProjectEntity> projects) {
+        List<String> projectIds = projects.stream()
+            .map(ProjectEntity::getProjectUniqueId)
+            .toList();
         
-        // Pending POs (Approved, Ordered, In-Transit)
-        BigDecimal pendingValue = BigDecimal.ZERO;
-        List<String> pendingStatuses = Arrays.asList("Approved", "Ordered", "In-Transit");
+        Map<String, Object[]> poRows = rowsByProject(purchaseOrderRepository.aggregateStatsByProjectIds(projectIds));
+        Map<String, Object[]> quotationRows = rowsByProject(quotationRepository.aggregateStatsByProjectIds(projectIds));
+        Map<String, Object[]> billRows = rowsByProject(billRepository.aggregateStatsByProjectIds(projectIds));
+        Map<String, Object[]> invoiceRows = rowsByProject(invoiceRepository.aggregateStatsByProjectIds(projectIds));
+        Map<String, Object[]> vendorRows = rowsByProject(vendorRepository.aggregateStatsByProjectIds(projectIds));
         
-        for (String status : pendingStatuses) {
-            BigDecimal statusValue = purchaseOrderRepository
-                .sumTotalValueByProjectIdAndStatus(projectId, status)
-                .orElse(BigDecimal.ZERO);
-            pendingValue = pendingValue.add(statusValue);
+        for (ProjectEntity project : projects) {
+            String projectId = project.getProjectUniqueId();
+            applyPOStats(project, poRows.get(projectId));
+            applyQuotationStats(project, quotationRows.get(projectId));
+            applyBillStats(project, billRows.get(projectId));
+            applyInvoiceStats(project, invoiceRows.get(projectId));
+            applyVendorStats(project, vendorRows.get(projectId));
+            calculateFinancialMetrics(project);
         }
-        project.setPendingPoValue(pendingValue);
-        
-        // Cancelled POs
-        BigDecimal cancelledValue = purchaseOrderRepository
-            .sumTotalValueByProjectIdAndStatus(projectId, "Cancelled")
-            .orElse(BigDecimal.ZERO);
-        project.setCancelledPoValue(cancelledValue);
+    }
+
+    /**
+     * Calculate Purchase Order statistics
+     */
+    private void calculatePOStats(ProjectEntity project) {
+        String projectId = project.getProjectUniqueId();
+        applyPOStats(project, rowsByProject(
+            purchaseOrderRepository.aggregateStatsByProjectIds(List.of(projectId))).get(projectId));
     }
 
     /**
@@ -99,21 +136,8 @@ public class ProjectStatsService {
      */
     private void calculateQuotationStats(ProjectEntity project) {
         String projectId = project.getProjectUniqueId();
-        
-        Long totalCount = quotationRepository.countByProjectId(projectId);
-        project.setTotalQuotationCount(totalCount != null ? totalCount.intValue() : 0);
-        
-        BigDecimal totalValue = quotationRepository.sumTotalValueByProjectId(projectId)
-            .orElse(BigDecimal.ZERO);
-        project.setTotalQuotationValue(totalValue);
-        
-        Long approvedCount = quotationRepository.countByProjectIdAndStatus(projectId, "Approved");
-        project.setApprovedQuotationCount(approvedCount != null ? approvedCount.intValue() : 0);
-        
-        BigDecimal approvedValue = quotationRepository
-            .sumTotalValueByProjectIdAndStatus(projectId, "Approved")
-            .orElse(BigDecimal.ZERO);
-        project.setApprovedQuotationValue(approvedValue);
+        applyQuotationStats(project, rowsByProject(
+            quotationRepository.aggregateStatsByProjectIds(List.of(projectId))).get(projectId));
     }
 
     /**
@@ -121,24 +145,17 @@ public class ProjectStatsService {
      */
     private void calculateBillStats(ProjectEntity project) {
         String projectId = project.getProjectUniqueId();
-        
-        Long totalCount = billRepository.countByProjectId(projectId);
-        project.setTotalBillCount(totalCount != null ? totalCount.intValue() : 0);
-        
-        BigDecimal totalAmount = billRepository.sumTotalAmountByProjectId(projectId)
-            .orElse(BigDecimal.ZERO);
-        project.setTotalBillValue(totalAmount);
-        
-        Long paidCount = billRepository.countByProjectIdAndStatus(projectId, "Paid");
-        project.setPaidBillCount(paidCount != null ? paidCount.intValue() : 0);
-        
-        BigDecimal paidAmount = billRepository.sumPaidAmountByProjectId(projectId)
-            .orElse(BigDecimal.ZERO);
-        project.setPaidBillValue(paidAmount);
-        
-        BigDecimal balanceAmount = billRepository.sumBalanceAmountByProjectId(projectId)
-            .orElse(BigDecimal.ZERO);
-        project.setPendingPaymentValue(balanceAmount);
+        applyBillStats(project, rowsByProject(
+            billRepository.aggregateStatsByProjectIds(List.of(projectId))).get(projectId));
+    }
+
+    /**
+     * Calculate Invoice statistics
+     */
+    private void calculateInvoiceStats(ProjectEntity project) {
+        String projectId = project.getProjectUniqueId();
+        applyInvoiceStats(project, rowsByProject(
+            invoiceRepository.aggregateStatsByProjectIds(List.of(projectId))).get(projectId));
     }
 
     /**
@@ -146,78 +163,127 @@ public class ProjectStatsService {
      */
     private void calculateVendorStats(ProjectEntity project) {
         String projectId = project.getProjectUniqueId();
-        
-        Long activeCount = vendorRepository.countByProjectIdAndStatus(projectId, "Active");
-        project.setActiveVendorCount(activeCount != null ? activeCount.intValue() : 0);
-        
-        BigDecimal totalSpend = vendorRepository.sumTotalPurchaseValueByProjectId(projectId)
-            .orElse(BigDecimal.ZERO);
-        project.setTotalVendorSpend(totalSpend);
+        applyVendorStats(project, rowsByProject(
+            vendorRepository.aggregateStatsByProjectIds(List.of(projectId))).get(projectId));
+    }
+
+    // Row layouts are documented on the aggregateStatsByProjectIds queries;
+    // a null row means the project has no records in that table
+
+    private void applyPOStats(ProjectEntity project, Object[] row) {
+        project.setTotalPoCount(intAt(row, 1));
+        project.setTotalPoValue(decimalAt(row, 2));
+        project.setDeliveredPoCount(intAt(row, 3));
+        project.setDeliveredPoValue(decimalAt(row, 4));
+        project.setPendingPoValue(decimalAt(row, 5));
+        project.setCancelledPoValue(decimalAt(row, 6));
+    }
+
+    private void applyQuotationStats(ProjectEntity project, Object[] row) {
+        project.setTotalQuotationCount(intAt(row, 1));
+        project.setTotalQuotationValue(decimalAt(row, 2));
+        project.setApprovedQuotationCount(intAt(row, 3));
+        project.setApprovedQuotationValue(decimalAt(row, 4));
+    }
+
+    private void applyBillStats(ProjectEntity project, Object[] row) {
+        project.setTotalBillCount(intAt(row, 1));
+        project.setTotalBillValue(decimalAt(row, 2));
+        project.setPaidBillCount(intAt(row, 3));
+        project.setPaidBillValue(decimalAt(row, 4));
+        project.setPendingPaymentValue(decimalAt(row, 5));
+    }
+
+    private void applyInvoiceStats(ProjectEntity project, Object[] row) {
+        project.setTotalInvoiceCount(intAt(row, 1));
+        project.setTotalInvoiceValue(decimalAt(row, 2));
+        project.setPaidInvoiceCount(intAt(row, 3));
+        project.setPaidInvoiceValue(decimalAt(row, 4));
+        project.setPendingInvoiceValue(decimalAt(row, 5));
+    }
+
+    private void applyVendorStats(ProjectEntity project, Object[] row) {
+        project.setActiveVendorCount(intAt(row, 1));
+        project.setTotalVendorSpend(decimalAt(row, 2));
+    }
+
+    private static Map<String, Object[]> rowsByProject(List<Object[]> rows) {
+        Map<String, Object[]> byProject = new HashMap<>();
+        for (Object[] row : rows) {
+            byProject.put((String) row[0], row);
+        }
+        return byProject;
+    }
+
+    private static int intAt(Object[] row, int index) {
+        if (row == null || row[index] == null) {
+            return 0;
+        }
+        return ((Number) row[index]).intValue();
+    }
+
+    private static BigDecimal decimalAt(Object[] row, int index) {
+        if (row == null || row[index] == null) {
+            return BigDecimal.ZERO;
+        }
+        Object value = row[index];
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
     }
 
     /**
-     * Calculate financial metrics
+     * Calculate financial metrics (see ProjectFinancials for their definition)
      */
     private void calculateFinancialMetrics(ProjectEntity project) {
-        BigDecimal budget = project.getBudget() != null ? project.getBudget() : BigDecimal.ZERO;
-        
-        // Budget utilized = Total PO Value - Cancelled POs
-        BigDecimal budgetUtilized = project.getTotalPoValue()
-            .subtract(project.getCancelledPoValue());
-        project.setBudgetUtilized(budgetUtilized);
-        
-        // Budget utilization percentage
-        if (budget.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal utilizationPercent = budgetUtilized
-                .divide(budget, 4, RoundingMode.HALF_UP)
-                .multiply(new BigDecimal("100"))
-                .setScale(2, RoundingMode.HALF_UP);
-            project.setBudgetUtilizationPercent(utilizationPercent);
-        } else {
-            project.setBudgetUtilizationPercent(BigDecimal.ZERO);
-        }
-        
-        // Projected profit = Budget - Budget Utilized
-        BigDecimal projectedProfit = budget.subtract(budgetUtilized);
-        project.setProjectedProfit(projectedProfit);
-        
-        // Profit margin percentage
-        if (budget.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal profitMargin = projectedProfit
-                .divide(budget, 4, RoundingMode.HALF_UP)
-                .multiply(new BigDecimal("100"))
-                .setScale(2, RoundingMode.HALF_UP);
-            project.setProfitMarginPercent(profitMargin);
-        } else {
-            project.setProfitMarginPercent(BigDecimal.ZERO);
+        ProjectFinancials.of(project).applyTo(project);
+    }
+
+    /**
+     * Recalculate stats for one chunk of projects in its own transaction.
+     * Called per chunk by ProjectStatsBatchRecalculator; use that for full runs.
+     * @return number of projects recalculated
+     */
+    @Transactional
+    public int recalculateProjectBatch(List<String> projectUniqueIds) {
+        List<ProjectEntity> projects = projectRepository.findByProjectUniqueIdIn(projectUniqueIds);
+        if (!projects.isEmpty()) {
+            recalculateStats(projects);
         }
+        return projects.size();
     }
 
     /**
-     * Recalculate stats for all projects
-     * Use with caution - can be time-consuming
+     * Refresh only the stats fed by the changed sources.
+     * Called by ProjectStatsEventListener with changes coalesced per project.
      */
     @Transactional
-    public void recalculateAllProjectStats() {
-        log.info("Starting recalculation for all active projects");
-        
-        List<ProjectEntity> projects = projectRepository.findByIsActive(true);
-        int successCount = 0;
-        int failCount = 0;
+    public void updateProjectAfterChanges(String projectUniqueId, Set<ProjectDataChangedEvent.Source> sources) {
+        ProjectEntity project = projectRepository.findByProjectUniqueId(projectUniqueId).orElse(null);
+        if (project == null) {
+            log.debug("Skipping stats update for unknown project {}", projectUniqueId);
+            return;
+        }
         
-        for (ProjectEntity project : projects) {
-            try {
-                recalculateProjectStats(project.getProjectUniqueId());
-                successCount++;
-            } catch (Exception e) {
-                failCount++;
-                log.error("Failed to recalculate stats for project: {}", 
-                    project.getProjectUniqueId(), e);
-            }
+        if (sources.contains(ProjectDataChangedEvent.Source.PURCHASE_ORDER)) {
+            calculatePOStats(project);
+        }
+        if (sources.contains(ProjectDataChangedEvent.Source.QUOTATION)) {
+            calculateQuotationStats(project);
+        }
+        if (sources.contains(ProjectDataChangedEvent.Source.BILL)) {
+            calculateBillStats(project);
+        }
+        if (sources.contains(ProjectDataChangedEvent.Source.INVOICE)) {
+            calculateInvoiceStats(project);
+        }
+        if (sources.contains(ProjectDataChangedEvent.Source.VENDOR)) {
+            calculateVendorStats(project);
         }
         
-        log.info("Completed recalculation for all projects. Success: {}, Failed: {}", 
-            successCount, failCount);
+        // Depends on paid bills and invoices
+        calculateFinancialMetrics(project);
+        project.setLastProcurementUpdate(LocalDateTime.now());
+        projectRepository.save(project);
+        log.debug("Updated {} stats for project {}", sources, projectUniqueId);
     }
 
     /**
@@ -264,6 +330,7 @@ public class ProjectStatsService {
             .orElseThrow(() -> new RuntimeException("Project not found"));
         
         calculateBillStats(project);
+        calculateFinancialMetrics(project);
         project.setLastProcurementUpdate(LocalDateTime.now());
         
         projectRepository.save(project);
@@ -302,25 +369,15 @@ public class ProjectStatsService {
      * Verify project stats consistency
      * Returns true if stats match actual data
      */
+    @Transactional(readOnly = true)
     public boolean verifyProjectStats(String projectUniqueId) {
         ProjectEntity project = projectRepository.findByProjectUniqueId(projectUniqueId)
             .orElseThrow(() -> new RuntimeException("Project not found"));
         
-        // Verify PO count
-        Long actualPOCount = purchaseOrderRepository.countByProjectId(projectUniqueId);
-        if (!actualPOCount.equals(Long.valueOf(project.getTotalPoCount()))) {
-            log.warn("PO count mismatch for project {}: stored={}, actual={}", 
-                projectUniqueId, project.getTotalPoCount(), actualPOCount);
-            return false;
-        }
-        
-        // Verify PO value
-        BigDecimal actualPOValue = purchaseOrderRepository
-            .sumTotalValueByProjectId(projectUniqueId)
-            .orElse(BigDecimal.ZERO);
-        if (project.getTotalPoValue().compareTo(actualPOValue) != 0) {
-            log.warn("PO value mismatch for project {}: stored={}, actual={}", 
-                projectUniqueId, project.getTotalPoValue(), actualPOValue);
+        List<ProjectStatsDriftDTO> drifts = compareWithLiveAggregates(List.of(project));
+        if (!drifts.isEmpty()) {
+            drifts.forEach(drift -> log.warn("{} mismatch for project {}: stored={}, actual={}",
+                drift.getField(), projectUniqueId, drift.getStoredValue(), drift.getActualValue()));
             return false;
         }
         
@@ -328,23 +385,94 @@ public class ProjectStatsService {
         return true;
     }
 
+    /**
+     * Compare stored stats of all active projects with live aggregates.
+     * Uses five set-based queries per batch of projects.
+     * @return every drifted field, grouped by project
+     */
+    @Transactional(readOnly = true)
+    public List<ProjectStatsDriftDTO> findDriftedStats() {
+        return findDriftedStats(projectRepository.findByIsActive(true));
+    }
+
+    private List<ProjectStatsDriftDTO> findDriftedStats(List<ProjectEntity> projects) {
+        List<ProjectStatsDriftDTO> drifts = new ArrayList<>();
+        for (int from = 0; from < projects.size(); from += VERIFY_BATCH_SIZE) {
+            drifts.addAll(compareWithLiveAggregates(
+                projects.subList(from, Math.min(from + VERIFY_BATCH_SIZE, projects.size()))));
+        }
+        return drifts;
+    }
+
+    private List<ProjectStatsDriftDTO> compareWithLiveAggregates(List<ProjectEntity> projects) {
+        // Compute expected values on detached copies so managed entities stay untouched
+        List<ProjectEntity> expected = projects.stream()
+            .map(project -> {
+                ProjectEntity copy = new ProjectEntity();
+                copy.setProjectUniqueId(project.getProjectUniqueId());
+                copy.setBudget(project.getBudget());
+                copy.setStatus(project.getStatus());
+                return copy;
+            })
+            .toList();
+        applyLiveAggregates(expected);
+        
+        List<ProjectStatsDriftDTO> drifts = new ArrayList<>();
+        for (int i = 0; i < projects.size(); i++) {
+            ProjectEntity stored = projects.get(i);
+            ProjectEntity actual = expected.get(i);
+            
+            for (Map.Entry<String, Function<ProjectEntity, Object>> field : VERIFIED_FIELDS.entrySet()) {
+                Object storedValue = field.getValue().apply(stored);
+                Object actualValue = field.getValue().apply(actual);
+                if (!sameStatValue(storedValue, actualValue)) {
+                    drifts.add(ProjectStatsDriftDTO.builder()
+                        .projectId(stored.getProjectUniqueId())
+                        .field(field.getKey())
+                        .storedValue(storedValue)
+                        .actualValue(actualValue)
+                        .build());
+                }
+            }
+        }
+        return drifts;
+    }
+
+    private static boolean sameStatValue(Object stored, Object actual) {
+        if (stored instanceof BigDecimal || actual instanceof BigDecimal) {
+            BigDecimal storedDecimal = stored != null ? (BigDecimal) stored : BigDecimal.ZERO;
+            BigDecimal actualDecimal = actual != null ? (BigDecimal) actual : BigDecimal.ZERO;
+            return storedDecimal.compareTo(actualDecimal) == 0;
+        }
+        int storedInt = stored != null ? ((Number) stored).intValue() : 0;
+        int actualInt = actual != null ? ((Number) actual).intValue() : 0;
+        return storedInt == actualInt;
+    }
+
     /**
      * Fix inconsistent project stats
+     * Only projects reported by the bulk verifier are recalculated
      */
     @Transactional
     public void fixInconsistentStats() {
         log.info("Starting to fix inconsistent project stats");
         
         List<ProjectEntity> projects = projectRepository.findByIsActive(true);
-        int fixedCount = 0;
+        List<ProjectStatsDriftDTO> drifts = findDriftedStats(projects);
         
-        for (ProjectEntity project : projects) {
-            if (!verifyProjectStats(project.getProjectUniqueId())) {
-                recalculateProjectStats(project.getProjectUniqueId());
-                fixedCount++;
-            }
+        Set<String> driftedIds = new HashSet<>();
+        for (ProjectStatsDriftDTO drift : drifts) {
+            driftedIds.add(drift.getProjectId());
+        }
+        
+        List<ProjectEntity> driftedProjects = projects.stream()
+            .filter(project -> driftedIds.contains(project.getProjectUniqueId()))
+            .toList();
+        
+        for (int from = 0; from < driftedProjects.size(); from += VERIFY_BATCH_SIZE) {
+            recalculateStats(driftedProjects.subList(from, Math.min(from + VERIFY_BATCH_SIZE, driftedProjects.size())));
         }
         
-        log.info("Fixed stats for {} projects", fixedCount);
+        log.info("Fixed stats for {} projects ({} drifted fields)", driftedProjects.size(), drifts.size());
     }
 }
@@ -1,7 +1,10 @@
 package com.istlgroup.istl_group_crm_backend.service;
 
 import com.istlgroup.istl_group_crm_backend.customException.CustomException;
+import com.istlgroup.istl_group_crm_backend.entity.CustomersEntity;
+import com.istlgroup.istl_group_crm_backend.entity.LeadsEntity;
 import com.istlgroup.istl_group_crm_backend.entity.ProposalsEntity;
+import com.istlgroup.istl_group_crm_backend.entity.UsersEntity;
 import com.istlgroup.istl_group_crm_backend.repo.ProposalsRepo;
 import com.istlgroup.istl_group_crm_backend.repo.LeadsRepo;
 import com.istlgroup.istl_group_crm_backend.repo.CustomersRepo;
@@ -15,21 +18,20 @@ import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.AreaBreak;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
-import com.itextpdf.kernel.colors.ColorConstants;
-import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
-import com.itextpdf.layout.borders.SolidBorder;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ProposalsPDFService {
@@ -46,10 +48,19 @@ public class ProposalsPDFService {
     @Autowired
     private UsersRepo usersRepo; 
     
+    @Autowired
+    private PdfRenderService pdfRenderService;
+    
     private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Pricing and BOM columns are stored as JSON arrays of string maps
+    private static final ObjectReader ROWS_READER = new ObjectMapper()
+        .readerFor(new TypeReference<List<Map<String, String>>>() {});
     
-    public byte[] generateProposalPDF(Long proposalId, Long userId, String userRole) throws CustomException {
+    /**
+     * Cached PDF of the proposal, rendered on the PDF worker pool when the
+     * proposal, its lead/customer or the preparer changed since the last download
+     */
+    public CompletableFuture<Resource> renderProposalPDF(Long proposalId, Long userId, String userRole) throws CustomException {
         ProposalsEntity proposal = proposalsRepo.findById(proposalId)
             .orElseThrow(() -> new CustomException("Proposal not found"));
         
@@ -61,18 +72,32 @@ public class ProposalsPDFService {
             throw new CustomException("You don't have permission to download this proposal");
         }
         
+        LeadsEntity lead = proposal.getLeadId() != null ? leadsRepo.findById(proposal.getLeadId()).orElse(null) : null;
+        CustomersEntity customer = proposal.getCustomerId() != null ? customersRepo.findById(proposal.getCustomerId()).orElse(null) : null;
+        UsersEntity preparedBy = proposal.getPreparedBy() != null ? usersRepo.findById(proposal.getPreparedBy()).orElse(null) : null;
+        
+        String version = proposal.getUpdatedAt()
+            + "|" + (lead != null ? lead.getUpdatedAt() : null)
+            + "|" + (customer != null ? customer.getUpdatedAt() : null)
+            + "|" + (preparedBy != null ? preparedBy.getUpdated_at() : null);
+        return pdfRenderService.render("proposal", proposal.getId(), version,
+            out -> writeProposalPDF(proposal, lead, customer, preparedBy, out));
+    }
+    
+    private void writeProposalPDF(ProposalsEntity proposal, LeadsEntity lead, CustomersEntity customer,
+                                  UsersEntity preparedBy, OutputStream out) throws CustomException {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
+            PdfWriter writer = new PdfWriter(out);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
             document.setMargins(36, 36, 36, 36);
             
-            PdfFont boldFont = PdfFontFactory.createFont(com.itextpdf.io.font.constants.StandardFonts.HELVETICA_BOLD);
-            PdfFont normalFont = PdfFontFactory.createFont(com.itextpdf.io.font.constants.StandardFonts.HELVETICA);
+            PdfStyles.Fonts fonts = PdfStyles.fonts();
+            PdfFont boldFont = fonts.bold();
+            PdfFont normalFont = fonts.normal();
             
             // PAGE 1: Title Page
-            addTitlePage(document, proposal, boldFont, normalFont);
+            addTitlePage(document, proposal, lead, customer, preparedBy, boldFont, normalFont);
             document.add(new AreaBreak());
             
             // PAGE 2: About Us
@@ -119,20 +144,20 @@ public class ProposalsPDFService {
             }
             
             document.close();
-            return baos.toByteArray();
             
         } catch (Exception e) {
             throw new CustomException("Error generating PDF: " + e.getMessage());
         }
     }
     
-    private void addTitlePage(Document document, ProposalsEntity proposal, PdfFont boldFont, PdfFont normalFont) throws Exception {
+    private void addTitlePage(Document document, ProposalsEntity proposal, LeadsEntity lead, CustomersEntity customer,
+                              UsersEntity preparedBy, PdfFont boldFont, PdfFont normalFont) throws Exception {
         String companyName = proposal.getCompanyName() != null ? proposal.getCompanyName() : "SESOLA POWER PROJECTS PROPOSAL PVT LTD";
         Paragraph company = new Paragraph(companyName)
             .setFont(boldFont)
             .setFontSize(20)
             .setTextAlignment(TextAlignment.CENTER)
-            .setFontColor(new DeviceRgb(49, 130, 206))
+            .setFontColor(PdfStyles.ACCENT_BLUE)
             .setMarginBottom(20);
         document.add(company);
         
@@ -144,7 +169,7 @@ public class ProposalsPDFService {
         document.add(title);
         
         Table infoTable = new Table(2).setWidth(UnitValue.createPercentValue(100));
-        infoTable.setBorder(new SolidBorder(ColorConstants.LIGHT_GRAY, 1));
+        infoTable.setBorder(PdfStyles.LIGHT_GRAY);
         
         addInfoRow(infoTable, "Proposal No:", proposal.getProposalNo(), boldFont, normalFont);
         addInfoRow(infoTable, "Date:", proposal.getCreatedAt().format(dateFormatter), boldFont, normalFont);
@@ -166,16 +191,14 @@ public class ProposalsPDFService {
             .setMarginBottom(10);
         document.add(toLabel);
         
-        addClientInformation(document, proposal, boldFont, normalFont);
+        addClientInformation(document, lead, customer, boldFont, normalFont);
         
-        if (proposal.getPreparedBy() != null) {
-            usersRepo.findById(proposal.getPreparedBy()).ifPresent(user -> {
-                Paragraph preparedBy = new Paragraph("Prepared By: " + user.getName())
-                    .setFont(normalFont)
-                    .setFontSize(11)
-                    .setMarginTop(20);
-                document.add(preparedBy);
-            });
+        if (preparedBy != null) {
+            Paragraph preparedByLine = new Paragraph("Prepared By: " + preparedBy.getName())
+                .setFont(normalFont)
+                .setFontSize(11)
+                .setMarginTop(20);
+            document.add(preparedByLine);
         }
         
         document.add(new Paragraph("\n"));
@@ -198,7 +221,7 @@ public class ProposalsPDFService {
             Paragraph totalValue = new Paragraph("Total Project Value: ₹" + String.format("%,.2f", proposal.getTotalValue()))
                 .setFont(boldFont)
                 .setFontSize(13)
-                .setFontColor(new DeviceRgb(34, 139, 34))
+                .setFontColor(PdfStyles.TOTAL_GREEN)
                 .setMarginTop(20);
             document.add(totalValue);
         }
@@ -206,19 +229,16 @@ public class ProposalsPDFService {
     
     private void addInfoRow(Table table, String label, String value, PdfFont boldFont, PdfFont normalFont) {
         table.addCell(new Cell().add(new Paragraph(label).setFont(boldFont).setFontSize(10))
-            .setBorder(new SolidBorder(ColorConstants.LIGHT_GRAY, 0.5f))
-            .setBackgroundColor(new DeviceRgb(247, 250, 252))
-            .setPadding(8));
+            .addStyle(PdfStyles.INFO_LABEL));
         table.addCell(new Cell().add(new Paragraph(value).setFont(normalFont).setFontSize(10))
-            .setBorder(new SolidBorder(ColorConstants.LIGHT_GRAY, 0.5f))
-            .setPadding(8));
+            .addStyle(PdfStyles.INFO_VALUE));
     }
     
     private void addSectionWithTitle(Document document, String title, String content, PdfFont boldFont, PdfFont normalFont) {
         Paragraph sectionTitle = new Paragraph(title)
             .setFont(boldFont)
             .setFontSize(16)
-            .setFontColor(new DeviceRgb(49, 130, 206))
+            .setFontColor(PdfStyles.ACCENT_BLUE)
             .setMarginBottom(15);
         document.add(sectionTitle);
         
@@ -233,25 +253,22 @@ public class ProposalsPDFService {
         Paragraph title = new Paragraph("SYSTEM PRICING")
             .setFont(boldFont)
             .setFontSize(16)
-            .setFontColor(new DeviceRgb(49, 130, 206))
+            .setFontColor(PdfStyles.ACCENT_BLUE)
             .setMarginBottom(15);
         document.add(title);
         
-        List<Map<String, String>> pricingItems = objectMapper.readValue(pricingJson, new TypeReference<List<Map<String, String>>>() {});
+        List<Map<String, String>> pricingItems = ROWS_READER.readValue(pricingJson);
         
         Table table = new Table(3).setWidth(UnitValue.createPercentValue(100));
         
         table.addHeaderCell(new Cell().add(new Paragraph("Item").setFont(boldFont).setFontSize(11))
-            .setBackgroundColor(new DeviceRgb(49, 130, 206))
-            .setFontColor(ColorConstants.WHITE)
+            .addStyle(PdfStyles.ACCENT_HEADER)
             .setPadding(10));
         table.addHeaderCell(new Cell().add(new Paragraph("Description").setFont(boldFont).setFontSize(11))
-            .setBackgroundColor(new DeviceRgb(49, 130, 206))
-            .setFontColor(ColorConstants.WHITE)
+            .addStyle(PdfStyles.ACCENT_HEADER)
             .setPadding(10));
         table.addHeaderCell(new Cell().add(new Paragraph("Amount (₹)").setFont(boldFont).setFontSize(11))
-            .setBackgroundColor(new DeviceRgb(49, 130, 206))
-            .setFontColor(ColorConstants.WHITE)
+            .addStyle(PdfStyles.ACCENT_HEADER)
             .setPadding(10));
         
         double total = 0;
@@ -264,11 +281,11 @@ public class ProposalsPDFService {
         }
         
         table.addCell(new Cell(1, 2).add(new Paragraph("Total").setFont(boldFont).setFontSize(11))
-            .setBackgroundColor(new DeviceRgb(247, 250, 252))
+            .addStyle(PdfStyles.TOTAL_ROW)
             .setTextAlignment(TextAlignment.RIGHT)
             .setPadding(10));
         table.addCell(new Cell().add(new Paragraph(String.format("₹%,.2f", total)).setFont(boldFont).setFontSize(11))
-            .setBackgroundColor(new DeviceRgb(247, 250, 252))
+            .addStyle(PdfStyles.TOTAL_ROW)
             .setPadding(10));
         
         document.add(table);
@@ -278,19 +295,18 @@ public class ProposalsPDFService {
         Paragraph title = new Paragraph("BILL OF MATERIALS (BOM)")
             .setFont(boldFont)
             .setFontSize(16)
-            .setFontColor(new DeviceRgb(49, 130, 206))
+            .setFontColor(PdfStyles.ACCENT_BLUE)
             .setMarginBottom(15);
         document.add(title);
         
-        List<Map<String, String>> bomItems = objectMapper.readValue(bomJson, new TypeReference<List<Map<String, String>>>() {});
+        List<Map<String, String>> bomItems = ROWS_READER.readValue(bomJson);
         
         Table table = new Table(6).setWidth(UnitValue.createPercentValue(100));
         
         String[] headers = {"Item", "Specification", "Quantity", "Unit", "Rate (₹)", "Amount (₹)"};
         for (String header : headers) {
             table.addHeaderCell(new Cell().add(new Paragraph(header).setFont(boldFont).setFontSize(10))
-                .setBackgroundColor(new DeviceRgb(49, 130, 206))
-                .setFontColor(ColorConstants.WHITE)
+                .addStyle(PdfStyles.ACCENT_HEADER)
                 .setPadding(8));
         }
         
@@ -308,54 +324,50 @@ public class ProposalsPDFService {
         }
         
         table.addCell(new Cell(1, 5).add(new Paragraph("Total").setFont(boldFont).setFontSize(10))
-            .setBackgroundColor(new DeviceRgb(247, 250, 252))
+            .addStyle(PdfStyles.TOTAL_ROW)
             .setTextAlignment(TextAlignment.RIGHT)
             .setPadding(8));
         table.addCell(new Cell().add(new Paragraph(String.format("₹%,.2f", total)).setFont(boldFont).setFontSize(10))
-            .setBackgroundColor(new DeviceRgb(247, 250, 252))
+            .addStyle(PdfStyles.TOTAL_ROW)
             .setPadding(8));
         
         document.add(table);
     }
     
-    private void addClientInformation(Document document, ProposalsEntity proposal, PdfFont boldFont, PdfFont normalFont) {
+    private void addClientInformation(Document document, LeadsEntity lead, CustomersEntity customer, PdfFont boldFont, PdfFont normalFont) {
         Table clientTable = new Table(2).setWidth(UnitValue.createPercentValue(100));
-        clientTable.setBorder(new SolidBorder(ColorConstants.LIGHT_GRAY, 1));
+        clientTable.setBorder(PdfStyles.LIGHT_GRAY);
         
-        if (proposal.getLeadId() != null) {
-            leadsRepo.findById(proposal.getLeadId()).ifPresent(lead -> {
-                addInfoRow(clientTable, "Lead:", lead.getName(), boldFont, normalFont);
-                addInfoRow(clientTable, "Lead Code:", lead.getLeadCode(), boldFont, normalFont);
-                if (lead.getEmail() != null) {
-                    addInfoRow(clientTable, "Email:", lead.getEmail(), boldFont, normalFont);
-                }
-                if (lead.getPhone() != null) {
-                    addInfoRow(clientTable, "Phone:", lead.getPhone(), boldFont, normalFont);
-                }
-            });
+        if (lead != null) {
+            addInfoRow(clientTable, "Lead:", lead.getName(), boldFont, normalFont);
+            addInfoRow(clientTable, "Lead Code:", lead.getLeadCode(), boldFont, normalFont);
+            if (lead.getEmail() != null) {
+                addInfoRow(clientTable, "Email:", lead.getEmail(), boldFont, normalFont);
+            }
+            if (lead.getPhone() != null) {
+                addInfoRow(clientTable, "Phone:", lead.getPhone(), boldFont, normalFont);
+            }
         }
         
-        if (proposal.getCustomerId() != null) {
-            customersRepo.findById(proposal.getCustomerId()).ifPresent(customer -> {
-                addInfoRow(clientTable, "Customer:", customer.getName(), boldFont, normalFont);
-                addInfoRow(clientTable, "Customer Code:", customer.getCustomerCode(), boldFont, normalFont);
-                if (customer.getCompanyName() != null) {
-                    addInfoRow(clientTable, "Company:", customer.getCompanyName(), boldFont, normalFont);
-                }
-                if (customer.getEmail() != null) {
-                    addInfoRow(clientTable, "Email:", customer.getEmail(), boldFont, normalFont);
-                }
-                if (customer.getPhone() != null) {
-                    addInfoRow(clientTable, "Phone:", customer.getPhone(), boldFont, normalFont);
-                }
-                if (customer.getAddress() != null) {
-                    String fullAddress = customer.getAddress();
-                    if (customer.getCity() != null) fullAddress += ", " + customer.getCity();
-                    if (customer.getState() != null) fullAddress += ", " + customer.getState();
-                    if (customer.getPincode() != null) fullAddress += " - " + customer.getPincode();
-                    addInfoRow(clientTable, "Address:", fullAddress, boldFont, normalFont);
-                }
-            });
+        if (customer != null) {
+            addInfoRow(clientTable, "Customer:", customer.getName(), boldFont, normalFont);
+            addInfoRow(clientTable, "Customer Code:", customer.getCustomerCode(), boldFont, normalFont);
+            if (customer.getCompanyName() != null) {
+                addInfoRow(clientTable, "Company:", customer.getCompanyName(), boldFont, normalFont);
+            }
+            if (customer.getEmail() != null) {
+                addInfoRow(clientTable, "Email:", customer.getEmail(), boldFont, normalFont);
+            }
+            if (customer.getPhone() != null) {
+                addInfoRow(clientTable, "Phone:", customer.getPhone(), boldFont, normalFont);
+            }
+            if (customer.getAddress() != null) {
+                String fullAddress = customer.getAddress();
+                if (customer.getCity() != null) fullAddress += ", " + customer.getCity();
+                if (customer.getState() != null) fullAddress += ", " + customer.getState();
+                if (customer.getPincode() != null) fullAddress += " - " + customer.getPincode();
+                addInfoRow(clientTable, "Address:", fullAddress, boldFont, normalFont);
+            }
         }
         
         document.add(clientTable);
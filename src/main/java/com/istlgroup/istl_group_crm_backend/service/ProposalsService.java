@@ -42,6 +42,9 @@ public class ProposalsService {
     @Autowired
     private UsersRepo usersRepo;
     
+    @Autowired
+    private DocumentSequenceService documentSequenceService;
+    
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
     
     /**
@@ -295,8 +298,9 @@ public Page<ProposalWrapper> getAllProposalsPaginated(Long userId, String userRo
         int currentYear = Calendar.getInstance().get(Calendar.YEAR);
         String prefix = "PROP-" + currentYear + "-";
         
-        long count = proposalsRepo.countByProposalNoStartingWith(prefix);
-        String sequence = String.format("%04d", count + 1);
+        long next = documentSequenceService.next("PROP-" + currentYear,
+                () -> proposalsRepo.countByProposalNoStartingWith(prefix));
+        String sequence = String.format("%04d", next);
         
         return prefix + sequence;
     }
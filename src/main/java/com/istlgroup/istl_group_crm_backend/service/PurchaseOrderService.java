@@ -1,15 +1,19 @@
 package com.istlgroup.istl_group_crm_backend.service;
 
 import com.istlgroup.istl_group_crm_backend.entity.*;
+import com.istlgroup.istl_group_crm_backend.event.ProjectDataChangedEvent;
 import com.istlgroup.istl_group_crm_backend.repo.*;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
 import com.istlgroup.istl_group_crm_backend.wrapperClasses.PurchaseOrderDropdownWrapper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,9 +21,12 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Year;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +39,9 @@ public class PurchaseOrderService {
     private final QuotationRepository quotationRepository;
     private final QuotationItemRepository quotationItemRepository;
     private final VendorRepository vendorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchIndexService searchIndexService;
+    private final DocumentSequenceService documentSequenceService;
     
     /**
      * Get purchase orders with role-based and project-based filtering
@@ -60,7 +70,11 @@ public class PurchaseOrderService {
         
         // Search takes priority
         if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            return purchaseOrderRepository.search(searchTerm, pageable);
+            Set<Long> ids = searchIndexService.matchingIds(SearchIndexService.Domain.PURCHASE_ORDERS, searchTerm);
+            if (ids == null) {
+                return purchaseOrderRepository.search(searchTerm, pageable);
+            }
+            return ids.isEmpty() ? Page.empty(pageable) : purchaseOrderRepository.findActiveByIdIn(ids, pageable);
         }
         
         // Project-based filtering
@@ -89,6 +103,43 @@ public class PurchaseOrderService {
         }
     }
     
+    /**
+     * Keyset-paged variant of getPurchaseOrders: same filters, no COUNT query
+     * @param cursor nextCursor of the previous slice, or blank for the first slice
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<PurchaseOrderEntity> getPurchaseOrdersSlice(
+            String groupName,
+            String subGroupName,
+            String projectId,
+            String searchTerm,
+            Long userId,
+            String userRole,
+            String cursor,
+            int size,
+            String sortBy,
+            String sortDirection
+    ) {
+        Specification<PurchaseOrderEntity> spec;
+        Long accessUserId = isAdmin(userRole) ? null : userId;
+        
+        // Same precedence as getPurchaseOrders: search, then project, subgroup, group
+        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+            spec = PurchaseOrderRepository.activeMatching(null, null, null, null, searchTerm);
+        } else if (projectId != null && !projectId.isEmpty()) {
+            spec = PurchaseOrderRepository.activeMatching(null, null, projectId, accessUserId, null);
+        } else if (subGroupName != null && !subGroupName.isEmpty()) {
+            spec = PurchaseOrderRepository.activeMatching(groupName, subGroupName, null, accessUserId, null);
+        } else if (groupName != null && !groupName.isEmpty()) {
+            spec = PurchaseOrderRepository.activeMatching(groupName, null, null, accessUserId, null);
+        } else {
+            spec = PurchaseOrderRepository.activeMatching(null, null, null, accessUserId, null);
+        }
+        
+        return KeysetPager.scroll(purchaseOrderRepository, PurchaseOrderEntity.class, spec,
+                Sort.by(Sort.Direction.fromString(sortDirection), sortBy), size, cursor);
+    }
+    
     /**
      * Get PO by ID
      */
@@ -226,6 +277,7 @@ public class PurchaseOrderService {
             log.info("Created PO {} from quotation {} with {} items, total: {}", 
                 savedPO.getPoNo(), quotation.getQuoteNo(), itemsData.size(), totalValue);
             
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(savedPO.getProjectId(), ProjectDataChangedEvent.Source.PURCHASE_ORDER));
             return savedPO;
             
         } catch (Exception e) {
@@ -268,6 +320,7 @@ public class PurchaseOrderService {
             
             VendorEntity savedVendor = vendorRepository.save(vendor);
             log.info("Created new vendor {} with auto-generated ID: {}", vendorName, savedVendor.getId());
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(savedVendor.getProjectId(), ProjectDataChangedEvent.Source.VENDOR));
             
             return savedVendor.getId();
             
@@ -314,6 +367,7 @@ public class PurchaseOrderService {
             
             VendorEntity savedVendor = vendorRepository.save(vendor);
             log.info("Created vendor with auto-generated ID: {} (original requested: {})", savedVendor.getId(), vendorId);
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(savedVendor.getProjectId(), ProjectDataChangedEvent.Source.VENDOR));
             
             // Update quotation with the actual vendor ID
             quotation.setVendorId(savedVendor.getId());
@@ -340,6 +394,7 @@ public class PurchaseOrderService {
         }
         
         log.info("Updated PO {} status from {} to {}", po.getPoNo(), oldStatus, newStatus);
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(po.getProjectId(), ProjectDataChangedEvent.Source.PURCHASE_ORDER));
         return purchaseOrderRepository.save(po);
     }
     
@@ -354,6 +409,7 @@ public class PurchaseOrderService {
         purchaseOrderRepository.save(po);
         
         log.info("Soft deleted PO: {}", po.getPoNo());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(po.getProjectId(), ProjectDataChangedEvent.Source.PURCHASE_ORDER));
     }
     
     /**
@@ -395,6 +451,7 @@ public class PurchaseOrderService {
             updateVendorAfterDelivery(po);
         }
         
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(po.getProjectId(), ProjectDataChangedEvent.Source.PURCHASE_ORDER));
         return purchaseOrderRepository.save(po);
     }
     
@@ -454,6 +511,7 @@ public class PurchaseOrderService {
         }
         
         log.info("Created manual PO: {}", savedPO.getPoNo());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(savedPO.getProjectId(), ProjectDataChangedEvent.Source.PURCHASE_ORDER));
         return savedPO;
     }
     
@@ -526,6 +584,7 @@ public class PurchaseOrderService {
         }
         
         log.info("Created PO {} from quotation {}", savedPO.getPoNo(), quotation.getQuoteNo());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(savedPO.getProjectId(), ProjectDataChangedEvent.Source.PURCHASE_ORDER));
         return savedPO;
     }
     
@@ -548,36 +607,39 @@ public class PurchaseOrderService {
     public POStats getStatistics(String groupName, String subGroupName, String projectId, Long userId, String userRole) {
         boolean isAdmin = isAdmin(userRole);
         
-        Page<PurchaseOrderEntity> allPOs = getPurchaseOrders(
-                groupName, subGroupName, projectId, null, null,
-                userId, userRole, 0, Integer.MAX_VALUE, "orderDate", "DESC"
-        );
-        
-        List<PurchaseOrderEntity> pos = allPOs.getContent();
-        
-        long total = pos.size();
-        long draft = pos.stream().filter(p -> "Draft".equals(p.getStatus())).count();
-        long approved = pos.stream().filter(p -> "Approved".equals(p.getStatus())).count();
-        long ordered = pos.stream().filter(p -> "Ordered".equals(p.getStatus())).count();
-        long inTransit = pos.stream().filter(p -> "In-Transit".equals(p.getStatus())).count();
-        long delivered = pos.stream().filter(p -> "Delivered".equals(p.getStatus())).count();
-        long cancelled = pos.stream().filter(p -> "Cancelled".equals(p.getStatus())).count();
+        // Same filter precedence as getPurchaseOrders: project, then sub-group, then group
+        boolean hasProject = projectId != null && !projectId.isEmpty();
+        boolean hasSubGroup = !hasProject && subGroupName != null && !subGroupName.isEmpty();
+        boolean hasGroup = !hasProject && groupName != null && !groupName.isEmpty();
+        
+        Map<String, Long> countsByStatus = new HashMap<>();
+        BigDecimal totalValue = BigDecimal.ZERO;
+        if (isAdmin || userId != null) {
+            List<Object[]> rows = purchaseOrderRepository.countAndSumGroupByStatus(
+                    hasGroup || hasSubGroup ? groupName : null,
+                    hasSubGroup ? subGroupName : null,
+                    hasProject ? projectId : null,
+                    isAdmin ? null : userId
+            );
+            for (Object[] row : rows) {
+                countsByStatus.put((String) row[0], ((Number) row[1]).longValue());
+                if (row[2] != null) {
+                    totalValue = totalValue.add(new BigDecimal(row[2].toString()));
+                }
+            }
+        }
         
-        Double totalValue = pos.stream()
-                .map(PurchaseOrderEntity::getTotalValue)
-                .filter(v -> v != null)
-                .mapToDouble(BigDecimal::doubleValue)
-                .sum();
+        long total = countsByStatus.values().stream().mapToLong(Long::longValue).sum();
         
         return POStats.builder()
                 .totalPOs(total)
-                .draft(draft)
-                .approved(approved)
-                .ordered(ordered)
-                .inTransit(inTransit)
-                .delivered(delivered)
-                .cancelled(cancelled)
-                .totalValue(totalValue)
+                .draft(countsByStatus.getOrDefault("Draft", 0L))
+                .approved(countsByStatus.getOrDefault("Approved", 0L))
+                .ordered(countsByStatus.getOrDefault("Ordered", 0L))
+                .inTransit(countsByStatus.getOrDefault("In-Transit", 0L))
+                .delivered(countsByStatus.getOrDefault("Delivered", 0L))
+                .cancelled(countsByStatus.getOrDefault("Cancelled", 0L))
+                .totalValue(totalValue.doubleValue())
                 .build();
     }
     
@@ -588,8 +650,10 @@ public class PurchaseOrderService {
     }
     
     private String generatePONumber() {
-        long count = purchaseOrderRepository.countActivePOs();
-        return String.format("PO-2024-%03d", count + 1);
+        String prefix = "PO-" + Year.now().getValue();
+        long sequence = documentSequenceService.next(prefix,
+                () -> purchaseOrderRepository.countByPoNoStartingWith(prefix + "-"));
+        return String.format("%s-%03d", prefix, sequence);
     }
     
     private void updateVendorAfterDelivery(PurchaseOrderEntity po) {
@@ -607,6 +671,7 @@ public class PurchaseOrderService {
             
             vendorRepository.save(vendor);
             log.info("Updated vendor {} stats after delivery", vendor.getName());
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(vendor.getProjectId(), ProjectDataChangedEvent.Source.VENDOR));
         });
     }
     
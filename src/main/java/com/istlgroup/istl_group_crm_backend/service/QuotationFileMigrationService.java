@@ -0,0 +1,114 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.entity.QuotationAttachmentEntity;
+import com.istlgroup.istl_group_crm_backend.entity.QuotationEntity;
+import com.istlgroup.istl_group_crm_backend.repo.QuotationAttachmentRepository;
+import com.istlgroup.istl_group_crm_backend.repo.QuotationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+/**
+ * Moves quotation files still stored in the legacy quotations.quotation_file
+ * LONGBLOB column into FileContentStore, one quotation per transaction.
+ *
+ * Runs once after startup (disable with quotation.file-migration.enabled=false)
+ * and can be re-run safely: migrated rows have the column cleared.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QuotationFileMigrationService {
+
+    private final QuotationRepository quotationRepository;
+    private final QuotationAttachmentRepository quotationAttachmentRepository;
+    private final FileContentStore fileContentStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${quotation.file-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quotation.file-migration.batch-size:50}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            log.info("Quotation file migration is disabled");
+            return;
+        }
+        try {
+            migrateLegacyFiles();
+        } catch (Exception e) {
+            log.error("Quotation file migration failed", e);
+        }
+    }
+
+    /**
+     * Migrate all legacy blobs in batches
+     * @return number of quotations migrated
+     */
+    public int migrateLegacyFiles() {
+        int migrated = 0;
+        List<Long> ids = quotationRepository.findIdsWithLegacyFile(batchSize);
+
+        while (!ids.isEmpty()) {
+            int batchMigrated = 0;
+            for (Long id : ids) {
+                try {
+                    Boolean done = transactionTemplate.execute(status -> migrateOne(id));
+                    if (Boolean.TRUE.equals(done)) {
+                        batchMigrated++;
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to migrate file for quotation {}", id, e);
+                }
+            }
+            migrated += batchMigrated;
+
+            // Stop if nothing in this batch could be migrated, to avoid looping on failures
+            if (batchMigrated == 0) {
+                break;
+            }
+            ids = quotationRepository.findIdsWithLegacyFile(batchSize);
+        }
+
+        if (migrated > 0) {
+            log.info("Migrated {} quotation files to the content store", migrated);
+        }
+        return migrated;
+    }
+
+    private boolean migrateOne(Long quotationId) {
+        byte[] data = quotationRepository.findLegacyFile(quotationId);
+        if (data == null) {
+            return false;
+        }
+
+        QuotationEntity quotation = quotationRepository.findById(quotationId).orElse(null);
+        if (quotation == null) {
+            return false;
+        }
+
+        FileContentStore.StoredFile stored = fileContentStore.store(
+                QuotationService.FILE_AREA, new ByteArrayInputStream(data));
+
+        QuotationAttachmentEntity attachment = quotationAttachmentRepository.findByQuotationId(quotationId)
+                .orElseGet(() -> QuotationAttachmentEntity.builder().quotationId(quotationId).build());
+        attachment.setContentHash(stored.getHash());
+        attachment.setFileName(quotation.getFileName());
+        attachment.setFileType(quotation.getFileType());
+        attachment.setFileSize(stored.getSize());
+        quotationAttachmentRepository.save(attachment);
+
+        quotationRepository.clearLegacyFile(quotationId);
+        return true;
+    }
+}
@@ -1,26 +1,38 @@
 package com.istlgroup.istl_group_crm_backend.service;
 
+import com.istlgroup.istl_group_crm_backend.entity.QuotationAttachmentEntity;
 import com.istlgroup.istl_group_crm_backend.entity.QuotationEntity;
 import com.istlgroup.istl_group_crm_backend.entity.QuotationItemEntity;
+import com.istlgroup.istl_group_crm_backend.event.ProjectDataChangedEvent;
+import com.istlgroup.istl_group_crm_backend.repo.QuotationAttachmentRepository;
 import com.istlgroup.istl_group_crm_backend.repo.QuotationRepository;
 import com.istlgroup.istl_group_crm_backend.repo.QuotationItemRepository;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Year;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +41,13 @@ public class QuotationService {
     
     private final QuotationRepository quotationRepository;
     private final QuotationItemRepository quotationItemRepository;
+    private final QuotationAttachmentRepository quotationAttachmentRepository;
+    private final FileContentStore fileContentStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchIndexService searchIndexService;
+    private final DocumentSequenceService documentSequenceService;
+    
+    static final String FILE_AREA = "quotations";
     
     /**
      * Get quotations with role-based and project-based filtering
@@ -57,7 +76,11 @@ public class QuotationService {
         
         // Search takes priority
         if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            return quotationRepository.searchProcurement(searchTerm, pageable);
+            Set<Long> ids = searchIndexService.matchingIds(SearchIndexService.Domain.QUOTATIONS, searchTerm);
+            if (ids == null) {
+                return quotationRepository.searchProcurement(searchTerm, pageable);
+            }
+            return ids.isEmpty() ? Page.empty(pageable) : quotationRepository.findProcurementByIdIn(ids, pageable);
         }
         
         // Project-based filtering
@@ -86,6 +109,43 @@ public class QuotationService {
         }
     }
     
+    /**
+     * Keyset-paged variant of getQuotations: same filters, no COUNT query
+     * @param cursor nextCursor of the previous slice, or blank for the first slice
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<QuotationEntity> getQuotationsSlice(
+            String groupName,
+            String subGroupName,
+            String projectId,
+            String searchTerm,
+            Long userId,
+            String userRole,
+            String cursor,
+            int size,
+            String sortBy,
+            String sortDirection
+    ) {
+        Specification<QuotationEntity> spec;
+        Long preparedBy = isAdmin(userRole) ? null : userId;
+        
+        // Same precedence as getQuotations: search, then project, subgroup, group
+        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+            spec = QuotationRepository.activeProcurementMatching(null, null, null, null, searchTerm);
+        } else if (projectId != null && !projectId.isEmpty()) {
+            spec = QuotationRepository.activeProcurementMatching(null, null, projectId, preparedBy, null);
+        } else if (subGroupName != null && !subGroupName.isEmpty()) {
+            spec = QuotationRepository.activeProcurementMatching(groupName, subGroupName, null, preparedBy, null);
+        } else if (groupName != null && !groupName.isEmpty()) {
+            spec = QuotationRepository.activeProcurementMatching(groupName, null, null, preparedBy, null);
+        } else {
+            spec = QuotationRepository.activeProcurementMatching(null, null, null, preparedBy, null);
+        }
+        
+        return KeysetPager.scroll(quotationRepository, QuotationEntity.class, spec,
+                Sort.by(Sort.Direction.fromString(sortDirection), sortBy), size, cursor);
+    }
+    
     /**
      * Get quotation by ID
      */
@@ -95,6 +155,62 @@ public class QuotationService {
                 .orElseThrow(() -> new RuntimeException("Quotation not found with id: " + id));
     }
     
+    /**
+     * Store the uploaded file in the content store and link it to the quotation
+     */
+    @Transactional
+    public QuotationEntity attachFile(Long quotationId, MultipartFile file) throws IOException {
+        QuotationEntity quotation = getQuotationById(quotationId);
+        
+        FileContentStore.StoredFile stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = fileContentStore.store(FILE_AREA, in);
+        }
+        
+        QuotationAttachmentEntity attachment = quotationAttachmentRepository.findByQuotationId(quotationId)
+                .orElseGet(() -> QuotationAttachmentEntity.builder().quotationId(quotationId).build());
+        attachment.setContentHash(stored.getHash());
+        attachment.setFileName(file.getOriginalFilename());
+        attachment.setFileType(file.getContentType());
+        attachment.setFileSize(stored.getSize());
+        quotationAttachmentRepository.save(attachment);
+        
+        quotation.setFileName(attachment.getFileName());
+        quotation.setFileType(attachment.getFileType());
+        quotation.setFileSize(attachment.getFileSize());
+        
+        log.info("Attached file {} ({} bytes) to quotation {}", stored.getHash(), stored.getSize(), quotationId);
+        return quotationRepository.save(quotation);
+    }
+    
+    /**
+     * Create a quotation and attach its file in one transaction, so a failed
+     * attach does not leave a quotation without its file. Content stored by a
+     * rolled back upload stays in the store like any unreferenced content.
+     */
+    @Transactional
+    public QuotationEntity createQuotationWithFile(QuotationEntity quotation, Long userId, MultipartFile file)
+            throws IOException {
+        QuotationEntity created = createQuotation(quotation, userId);
+        return attachFile(created.getId(), file);
+    }
+    
+    /**
+     * Get file metadata for a quotation
+     */
+    @Transactional(readOnly = true)
+    public QuotationAttachmentEntity getAttachment(Long quotationId) {
+        return quotationAttachmentRepository.findByQuotationId(quotationId)
+                .orElseThrow(() -> new RuntimeException("No file attached to quotation with id: " + quotationId));
+    }
+    
+    /**
+     * Open the stored file content for streaming
+     */
+    public Resource loadAttachmentContent(QuotationAttachmentEntity attachment) {
+        return fileContentStore.load(FILE_AREA, attachment.getContentHash());
+    }
+    
     /**
      * Create new procurement quotation
      * FIXED: Proper handling of bidirectional relationship and cascade
@@ -197,6 +313,7 @@ public class QuotationService {
             
             log.info("Quotation created successfully: {} (ID: {}) by user: {}", 
                     savedQuotation.getQuoteNo(), savedQuotation.getId(), userId);
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(savedQuotation.getProjectId(), ProjectDataChangedEvent.Source.QUOTATION));
             return savedQuotation;
             
         } catch (Exception e) {
@@ -211,6 +328,7 @@ public class QuotationService {
     @Transactional
     public QuotationEntity updateQuotation(Long id, QuotationEntity updatedQuotation) {
         QuotationEntity existing = getQuotationById(id);
+        String previousProjectId = existing.getProjectId();
         
         // Update fields
         existing.setVendorId(updatedQuotation.getVendorId());
@@ -246,6 +364,10 @@ public class QuotationService {
             existing.setTotalValue(totalValue);
         }
         
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(existing.getProjectId(), ProjectDataChangedEvent.Source.QUOTATION));
+        if (previousProjectId != null && !previousProjectId.equals(existing.getProjectId())) {
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(previousProjectId, ProjectDataChangedEvent.Source.QUOTATION));
+        }
         return quotationRepository.save(existing);
     }
     
@@ -258,6 +380,7 @@ public class QuotationService {
         quotation.setStatus(newStatus);
         
         log.info("Updated quotation {} status to: {}", quotation.getQuoteNo(), newStatus);
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(quotation.getProjectId(), ProjectDataChangedEvent.Source.QUOTATION));
         return quotationRepository.save(quotation);
     }
     
@@ -271,6 +394,7 @@ public class QuotationService {
         quotationRepository.save(quotation);
         
         log.info("Soft deleted quotation: {}", quotation.getQuoteNo());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(quotation.getProjectId(), ProjectDataChangedEvent.Source.QUOTATION));
     }
     
     /**
@@ -291,6 +415,7 @@ public class QuotationService {
         
         for (QuotationEntity quotation : expiredQuotations) {
             quotation.setStatus("Expired");
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(quotation.getProjectId(), ProjectDataChangedEvent.Source.QUOTATION));
         }
         
         quotationRepository.saveAll(expiredQuotations);
@@ -304,29 +429,33 @@ public class QuotationService {
     public QuotationStats getStatistics(String groupName, String subGroupName, String projectId, Long userId, String userRole) {
         boolean isAdmin = isAdmin(userRole);
         
-        // Get filtered quotations based on project and role
-        Page<QuotationEntity> allQuotations = getQuotations(
-                groupName, subGroupName, projectId, null, null,
-                userId, userRole, 0, Integer.MAX_VALUE, "uploadedAt", "DESC"
-        );
+        // Same filter precedence as getQuotations: project, then sub-group, then group
+        boolean hasProject = projectId != null && !projectId.isEmpty();
+        boolean hasSubGroup = !hasProject && subGroupName != null && !subGroupName.isEmpty();
+        boolean hasGroup = !hasProject && groupName != null && !groupName.isEmpty();
         
-        List<QuotationEntity> quotations = allQuotations.getContent();
+        Map<String, Long> countsByStatus = new HashMap<>();
+        if (isAdmin || userId != null) {
+            List<Object[]> rows = quotationRepository.countProcurementGroupByStatus(
+                    hasGroup || hasSubGroup ? groupName : null,
+                    hasSubGroup ? subGroupName : null,
+                    hasProject ? projectId : null,
+                    isAdmin ? null : userId
+            );
+            for (Object[] row : rows) {
+                countsByStatus.put((String) row[0], ((Number) row[1]).longValue());
+            }
+        }
         
-        // Calculate stats from filtered quotations
-        long total = quotations.size();
-        long newQuotations = quotations.stream().filter(q -> "New".equals(q.getStatus())).count();
-        long shortlisted = quotations.stream().filter(q -> "Shortlisted".equals(q.getStatus())).count();
-        long approved = quotations.stream().filter(q -> "Approved".equals(q.getStatus())).count();
-        long rejected = quotations.stream().filter(q -> "Rejected".equals(q.getStatus())).count();
-        long expired = quotations.stream().filter(q -> "Expired".equals(q.getStatus())).count();
+        long total = countsByStatus.values().stream().mapToLong(Long::longValue).sum();
         
         return QuotationStats.builder()
                 .totalQuotations(total)
-                .newQuotations(newQuotations)
-                .shortlisted(shortlisted)
-                .approved(approved)
-                .rejected(rejected)
-                .expired(expired)
+                .newQuotations(countsByStatus.getOrDefault("New", 0L))
+                .shortlisted(countsByStatus.getOrDefault("Shortlisted", 0L))
+                .approved(countsByStatus.getOrDefault("Approved", 0L))
+                .rejected(countsByStatus.getOrDefault("Rejected", 0L))
+                .expired(countsByStatus.getOrDefault("Expired", 0L))
                 .build();
     }
     
@@ -353,6 +482,7 @@ public class QuotationService {
         // For now, just update status
         quotation.setStatus("PO Created");
         quotationRepository.save(quotation);
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(quotation.getProjectId(), ProjectDataChangedEvent.Source.QUOTATION));
         
         Map<String, Object> result = new HashMap<>();
         result.put("message", "PO creation initiated");
@@ -380,8 +510,10 @@ public class QuotationService {
     }
     
     private String generateQuoteNumber() {
-        long count = quotationRepository.countProcurementQuotations();
-        return String.format("QUO-2024-%03d", count + 1);
+        String prefix = "QUO-" + Year.now().getValue();
+        long sequence = documentSequenceService.next(prefix,
+                () -> quotationRepository.countByQuoteNoStartingWith(prefix + "-"));
+        return String.format("%s-%03d", prefix, sequence);
     }
     
     private BigDecimal calculateTotalValue(List<QuotationItemEntity> items) {
@@ -0,0 +1,146 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Serialized responses of the dropdown and master-data endpoints, kept as
+ * JSON bytes with an ETag so an unchanged list costs neither a query nor a
+ * serialization, and a client holding it gets 304 Not Modified.
+ *
+ * Each kind has a version that the writing services bump through invalidate();
+ * entries built under an older version are rebuilt on the next request.
+ * Entries also expire after reference-data.max-age-seconds to pick up rows
+ * changed outside the application (e.g. the BOM master list).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataCache {
+
+    /**
+     * Cached data sets; one version is kept per kind
+     */
+    public enum Kind {
+        GROUPS, SUB_GROUPS, PROJECTS, LEADS_USERS, BOM_ITEMS, BOM_CATEGORIES
+    }
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${reference-data.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    @Value("${reference-data.max-entries:500}")
+    private int maxEntries;
+
+    private final Map<Kind, AtomicLong> versions = initVersions();
+
+    // "SUB_GROUPS:groupName" → serialized response
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 200 with the cached JSON, or 304 when the request's If-None-Match
+     * matches (checked by Spring from the ETag). The variant distinguishes
+     * responses of the same kind, e.g. the request parameters.
+     */
+    public ResponseEntity<byte[]> respond(Kind kind, String variant, Supplier<?> loader) {
+        Entry entry = get(kind, variant, loader);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(entry.etag())
+                .body(entry.json());
+    }
+
+    /**
+     * Mark the given kinds as changed, now and again after the current
+     * transaction commits so a concurrent reload cannot cache pre-commit rows
+     */
+    public void invalidate(Kind... kinds) {
+        bump(kinds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(kinds);
+                }
+            });
+        }
+    }
+
+    private Entry get(Kind kind, String variant, Supplier<?> loader) {
+        String key = variant != null ? kind + ":" + variant : kind.name();
+        // Read before loading, so a change committed meanwhile leaves this entry stale
+        long version = versions.get(kind).get();
+        long now = System.currentTimeMillis();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == version && now < entry.expiresAt()) {
+            return entry;
+        }
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(loader.get());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + kind + " reference data", e);
+        }
+
+        if (entries.size() >= maxEntries) {
+            // Variants come from request parameters; keep arbitrary values from growing the map
+            log.debug("Reference data cache reached {} entries; clearing", entries.size());
+            entries.clear();
+        }
+        Entry fresh = new Entry(json, etag(json), version, now + maxAgeSeconds * 1000);
+        entries.put(key, fresh);
+        return fresh;
+    }
+
+    private void bump(Kind... kinds) {
+        for (Kind kind : kinds) {
+            versions.get(kind).incrementAndGet();
+        }
+    }
+
+    private static Map<Kind, AtomicLong> initVersions() {
+        Map<Kind, AtomicLong> versions = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            versions.put(kind, new AtomicLong());
+        }
+        return versions;
+    }
+
+    /**
+     * Derived from the content, so it stays valid across restarts and reloads
+     * that return the same data
+     */
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(byte[] json, String etag, long version, long expiresAt) {
+    }
+}
@@ -0,0 +1,370 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.entity.CustomersEntity;
+import com.istlgroup.istl_group_crm_backend.entity.InvoiceEntity;
+import com.istlgroup.istl_group_crm_backend.entity.LeadsEntity;
+import com.istlgroup.istl_group_crm_backend.entity.LoginEntity;
+import com.istlgroup.istl_group_crm_backend.entity.PurchaseOrderEntity;
+import com.istlgroup.istl_group_crm_backend.entity.QuotationEntity;
+import com.istlgroup.istl_group_crm_backend.entity.UsersEntity;
+import com.istlgroup.istl_group_crm_backend.entity.VendorEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory trigram index over the columns the list endpoints search with
+ * LIKE '%term%'. A search returns the matching ids so the database only
+ * hydrates the hits by primary key.
+ *
+ * The index is built after startup and kept in sync by
+ * SearchIndexEntityListener after each commit. Callers fall back to the LIKE
+ * query whenever matchingIds returns null (index disabled or still building,
+ * or too many hits for an IN list).
+ */
+@Service
+@Slf4j
+public class SearchIndexService {
+
+    private static final int GRAM = 3;
+
+    /**
+     * Searchable record types; the query loads the id followed by the searched columns of active rows
+     */
+    public enum Domain {
+        LEADS(LeadsEntity.class,
+                "SELECT l.id, l.name, l.email, l.phone, l.leadCode FROM LeadsEntity l WHERE l.deletedAt IS NULL"),
+        CUSTOMERS(CustomersEntity.class,
+                "SELECT c.id, c.name, c.companyName, c.email, c.phone, c.customerCode, c.gstNumber " +
+                "FROM CustomersEntity c WHERE c.deletedAt IS NULL"),
+        // LoginEntity maps the same users table (login and profile updates)
+        USERS(List.of(UsersEntity.class, LoginEntity.class),
+                "SELECT u.id, u.name, u.email, u.phone, u.user_id FROM UsersEntity u"),
+        PURCHASE_ORDERS(PurchaseOrderEntity.class,
+                "SELECT po.id, po.poNo, po.rfqId FROM PurchaseOrderEntity po WHERE po.deletedAt IS NULL"),
+        QUOTATIONS(QuotationEntity.class,
+                "SELECT q.id, q.quoteNo, q.rfqId FROM QuotationEntity q " +
+                "WHERE q.type = 'Procurement' AND q.deletedAt IS NULL"),
+        INVOICES(InvoiceEntity.class,
+                "SELECT i.id, i.invoiceNo FROM InvoiceEntity i WHERE i.deletedAt IS NULL"),
+        VENDORS(VendorEntity.class,
+                "SELECT v.id, v.name, v.email, v.phone, v.vendorCode FROM VendorEntity v WHERE v.deletedAt IS NULL");
+
+        private final List<Class<?>> entityTypes;
+        private final String loadQuery;
+
+        Domain(Class<?> entityType, String loadQuery) {
+            this(List.of(entityType), loadQuery);
+        }
+
+        Domain(List<Class<?>> entityTypes, String loadQuery) {
+            this.entityTypes = entityTypes;
+            this.loadQuery = loadQuery;
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${search-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search-index.max-hits:1000}")
+    private int maxHits;
+
+    private final Map<Domain, Index> indexes = new EnumMap<>(Domain.class);
+
+    public SearchIndexService() {
+        for (Domain domain : Domain.values()) {
+            indexes.put(domain, new Index());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            log.info("Search index is disabled; list searches use LIKE queries");
+            return;
+        }
+        for (Domain domain : Domain.values()) {
+            try {
+                rebuild(domain);
+            } catch (Exception e) {
+                log.error("Failed to build {} search index; falling back to LIKE queries", domain, e);
+            }
+        }
+    }
+
+    /**
+     * Reload one domain from the database. Rows changed while loading keep
+     * the state applied by the change listener.
+     */
+    public void rebuild(Domain domain) {
+        long start = System.currentTimeMillis();
+        Index index = indexes.get(domain);
+        index.beginRebuild();
+
+        List<Object[]> rows = entityManager.createQuery(domain.loadQuery, Object[].class).getResultList();
+        for (Object[] row : rows) {
+            String[] fields = new String[row.length - 1];
+            for (int i = 1; i < row.length; i++) {
+                fields[i - 1] = row[i] != null ? row[i].toString() : null;
+            }
+            index.load((Long) row[0], fields);
+        }
+
+        index.endRebuild();
+        log.info("Built {} search index: {} rows in {} ms", domain, rows.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Ids of active rows with any searched column containing the term (case-insensitive)
+     * @return null when the caller should use the LIKE query instead
+     */
+    public Set<Long> matchingIds(Domain domain, String term) {
+        if (!enabled || term == null || term.isEmpty()) {
+            return null;
+        }
+        Index index = indexes.get(domain);
+        if (!index.ready) {
+            return null;
+        }
+        Set<Long> hits = index.search(normalize(term), maxHits);
+        if (hits == null) {
+            log.debug("{} search for '{}' exceeded {} hits; using LIKE query", domain, term, maxHits);
+        }
+        return hits;
+    }
+
+    /**
+     * @return true if changes to this entity type are indexed
+     */
+    public boolean isIndexed(Class<?> entityType) {
+        return domainOf(entityType) != null;
+    }
+
+    /**
+     * Apply a committed insert or update; soft-deleted rows leave the index
+     */
+    public void onEntitySaved(Object entity, Object id) {
+        Domain domain = domainOf(entity.getClass());
+        if (domain == null || !(id instanceof Long rowId)) {
+            return;
+        }
+        String[] fields = searchedFields(entity);
+        if (fields == null) {
+            indexes.get(domain).remove(rowId);
+        } else {
+            indexes.get(domain).put(rowId, fields);
+        }
+    }
+
+    /**
+     * Apply a committed delete
+     */
+    public void onEntityDeleted(Object entity, Object id) {
+        Domain domain = domainOf(entity.getClass());
+        if (domain != null && id instanceof Long rowId) {
+            indexes.get(domain).remove(rowId);
+        }
+    }
+
+    private static Domain domainOf(Class<?> entityType) {
+        for (Domain domain : Domain.values()) {
+            for (Class<?> type : domain.entityTypes) {
+                if (type.isAssignableFrom(entityType)) {
+                    return domain;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Searched column values in the same order as the domain load query,
+     * or null if the row should not be searchable
+     */
+    private static String[] searchedFields(Object entity) {
+        return switch (entity) {
+            case LeadsEntity l -> l.getDeletedAt() != null ? null
+                    : new String[]{l.getName(), l.getEmail(), l.getPhone(), l.getLeadCode()};
+            case CustomersEntity c -> c.getDeletedAt() != null ? null
+                    : new String[]{c.getName(), c.getCompanyName(), c.getEmail(), c.getPhone(),
+                            c.getCustomerCode(), c.getGstNumber()};
+            case UsersEntity u -> new String[]{u.getName(), u.getEmail(), u.getPhone(), u.getUser_id()};
+            case LoginEntity u -> new String[]{u.getName(), u.getEmail(), u.getPhone(), u.getUser_id()};
+            case PurchaseOrderEntity po -> po.getDeletedAt() != null ? null
+                    : new String[]{po.getPoNo(), po.getRfqId()};
+            case QuotationEntity q -> q.getDeletedAt() != null || !"Procurement".equals(q.getType()) ? null
+                    : new String[]{q.getQuoteNo(), q.getRfqId()};
+            case InvoiceEntity i -> i.getDeletedAt() != null ? null
+                    : new String[]{i.getInvoiceNo()};
+            case VendorEntity v -> v.getDeletedAt() != null ? null
+                    : new String[]{v.getName(), v.getEmail(), v.getPhone(), v.getVendorCode()};
+            default -> null;
+        };
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Trigram postings for one domain. Writers are serialized; readers verify
+     * each candidate against the stored values, so they never return a
+     * non-matching row.
+     */
+    private static final class Index {
+
+        private final Map<Long, String[]> docs = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+        private volatile boolean ready;
+        // Ids written by the change listener during a rebuild; the bulk load must not overwrite them
+        private Set<Long> changedDuringRebuild;
+
+        synchronized void beginRebuild() {
+            ready = false;
+            docs.clear();
+            postings.clear();
+            changedDuringRebuild = new HashSet<>();
+        }
+
+        synchronized void endRebuild() {
+            changedDuringRebuild = null;
+            ready = true;
+        }
+
+        synchronized void load(Long id, String[] fields) {
+            if (changedDuringRebuild == null || !changedDuringRebuild.contains(id)) {
+                putInternal(id, fields);
+            }
+        }
+
+        synchronized void put(Long id, String[] fields) {
+            markChanged(id);
+            putInternal(id, fields);
+        }
+
+        synchronized void remove(Long id) {
+            markChanged(id);
+            removeInternal(id);
+        }
+
+        Set<Long> search(String term, int limit) {
+            List<Long> candidates;
+            if (term.length() < GRAM) {
+                candidates = new ArrayList<>(docs.keySet());
+            } else {
+                candidates = intersect(grams(term));
+            }
+
+            Set<Long> hits = new HashSet<>();
+            for (Long id : candidates) {
+                String[] fields = docs.get(id);
+                if (fields != null && containsTerm(fields, term)) {
+                    if (hits.size() >= limit) {
+                        return null;
+                    }
+                    hits.add(id);
+                }
+            }
+            return hits;
+        }
+
+        private List<Long> intersect(Set<String> grams) {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return List.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            List<Long> result = new ArrayList<>();
+            for (Long id : lists.get(0)) {
+                boolean inAll = true;
+                for (int i = 1; i < lists.size() && inAll; i++) {
+                    inAll = lists.get(i).contains(id);
+                }
+                if (inAll) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+
+        private void markChanged(Long id) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(id);
+            }
+        }
+
+        private void putInternal(Long id, String[] fields) {
+            removeInternal(id);
+            String[] normalized = Arrays.stream(fields)
+                    .map(field -> field != null ? normalize(field) : null)
+                    .toArray(String[]::new);
+            for (String field : normalized) {
+                if (field != null) {
+                    for (String gram : grams(field)) {
+                        postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+                    }
+                }
+            }
+            docs.put(id, normalized);
+        }
+
+        private void removeInternal(Long id) {
+            String[] previous = docs.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String field : previous) {
+                if (field != null) {
+                    for (String gram : grams(field)) {
+                        Set<Long> ids = postings.get(gram);
+                        if (ids != null) {
+                            ids.remove(id);
+                            if (ids.isEmpty()) {
+                                postings.remove(gram);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private static boolean containsTerm(String[] fields, String term) {
+            for (String field : fields) {
+                if (field != null && field.contains(term)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static Set<String> grams(String value) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                grams.add(value.substring(i, i + GRAM));
+            }
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.SessionStatusWrapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes session expiry warnings over UserEventStream so clients do not
+ * poll /session/check, /login/ping or /login/validate-session.
+ *
+ * Sessions with an open stream are checked every session.events.check-seconds
+ * against their timeout, counted from the later of the last access time and
+ * the last stream (re)connect. getLastAccessedTime only moves when a request
+ * ends, while the container's idle clock restarts when one begins, and the
+ * stream request itself never ends while it is open:
+ * - "session-expiring" once the remaining time drops to session.warning.seconds
+ * - "session-active" when a warned session was used again (e.g. in another tab)
+ * - "session-expired" only once the session is really gone (logout or
+ *   container timeout); the streams are then closed
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionExpiryNotifier implements HttpSessionListener {
+
+    public static final String EXPIRING_EVENT = "session-expiring";
+    public static final String ACTIVE_EVENT = "session-active";
+    public static final String EXPIRED_EVENT = "session-expired";
+
+    private final UserEventStream userEventStream;
+
+    @Value("${session.warning.seconds}")
+    private Duration warningTime;
+
+    @Value("${session.events.check-seconds:5}")
+    private long checkSeconds;
+
+    // Session id → session with an open stream, and whether it has been warned
+    private final Map<String, Watched> watched = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-expiry-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void init() {
+        executor.scheduleWithFixedDelay(this::check, checkSeconds, checkSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Open an event stream for the session, starting with its current status
+     */
+    public SseEmitter subscribe(HttpSession session) {
+        String sessionId = session.getId();
+        SseEmitter emitter = userEventStream.subscribeSession(sessionId);
+        // A new stream or an EventSource reconnect is a request, so the container's idle clock restarted
+        Watched state = watched.computeIfAbsent(sessionId, id -> new Watched(session));
+        state.connectedAt = System.currentTimeMillis();
+        state.warned = false;
+        userEventStream.sendToSession(sessionId, ACTIVE_EVENT, status("ACTIVE", session, remainingMillis(state)), false);
+        return emitter;
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        String sessionId = event.getSession().getId();
+        if (watched.remove(sessionId) != null) {
+            userEventStream.sendToSession(sessionId, EXPIRED_EVENT, status("EXPIRED", event.getSession(), 0), true);
+        }
+    }
+
+    private void check() {
+        for (Map.Entry<String, Watched> entry : watched.entrySet()) {
+            String sessionId = entry.getKey();
+            Watched state = entry.getValue();
+            try {
+                if (!userEventStream.isSessionConnected(sessionId)) {
+                    // All tabs closed their streams
+                    watched.remove(sessionId);
+                    continue;
+                }
+
+                long remaining;
+                try {
+                    remaining = remainingMillis(state);
+                } catch (IllegalStateException e) {
+                    // Invalidated without a destroy notification reaching us
+                    watched.remove(sessionId);
+                    userEventStream.sendToSession(sessionId, EXPIRED_EVENT, status("EXPIRED", state.session, 0), true);
+                    continue;
+                }
+
+                // Past our estimate the session stays "expiring" until the container
+                // actually expires it; sessionDestroyed then sends EXPIRED
+                if (remaining <= warningTime.toMillis()) {
+                    if (!state.warned) {
+                        state.warned = true;
+                        userEventStream.sendToSession(sessionId, EXPIRING_EVENT,
+                                status("EXPIRING", state.session, remaining), false);
+                    }
+                } else if (state.warned) {
+                    state.warned = false;
+                    userEventStream.sendToSession(sessionId, ACTIVE_EVENT,
+                            status("ACTIVE", state.session, remaining), false);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to check expiry of session {}", sessionId, e);
+            }
+        }
+    }
+
+    /**
+     * Time left before the container may expire the session
+     * @throws IllegalStateException if the session was invalidated
+     */
+    private static long remainingMillis(Watched state) {
+        int maxInactive = state.session.getMaxInactiveInterval();
+        if (maxInactive <= 0) {
+            return Long.MAX_VALUE;
+        }
+        long lastActivity = Math.max(state.session.getLastAccessedTime(), state.connectedAt);
+        return lastActivity + TimeUnit.SECONDS.toMillis(maxInactive) - System.currentTimeMillis();
+    }
+
+    private SessionStatusWrapper status(String status, HttpSession session, long remainingMillis) {
+        long timeout;
+        try {
+            timeout = session.getMaxInactiveInterval();
+        } catch (IllegalStateException e) {
+            timeout = 0;
+        }
+        return new SessionStatusWrapper(status, Math.max(0, TimeUnit.MILLISECONDS.toSeconds(remainingMillis)),
+                timeout, warningTime.getSeconds());
+    }
+
+    private static final class Watched {
+        private final HttpSession session;
+        // Start of the latest stream request for the session
+        private volatile long connectedAt;
+        private volatile boolean warned;
+
+        private Watched(HttpSession session) {
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.repo.UsersRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves user display names for list mappers.
+ *
+ * Callers collect every user ID referenced by a page of rows and resolve them
+ * in one call; names not yet cached are loaded with a single IN query.
+ * Entries are evicted by UsersService when a user is updated or deleted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserDirectoryService {
+
+    private final UsersRepo usersRepo;
+
+    private final Map<Long, String> nameCache = new ConcurrentHashMap<>();
+
+    /**
+     * Resolve names for the given user IDs (nulls are ignored).
+     * Unknown IDs are simply absent from the returned map.
+     */
+    public Map<Long, String> resolveNames(Collection<Long> userIds) {
+        Map<Long, String> result = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return result;
+        }
+
+        Set<Long> missing = new HashSet<>();
+        for (Long userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            String name = nameCache.get(userId);
+            if (name != null) {
+                result.put(userId, name);
+            } else {
+                missing.add(userId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<Object[]> rows = usersRepo.findNamesByIdIn(missing);
+            for (Object[] row : rows) {
+                Long id = ((Number) row[0]).longValue();
+                String name = (String) row[1];
+                if (name != null) {
+                    nameCache.put(id, name);
+                    result.put(id, name);
+                }
+            }
+            log.debug("Resolved {} user names from DB ({} requested)", rows.size(), missing.size());
+        }
+
+        return result;
+    }
+
+    /**
+     * Resolve a single user name, or null if the user does not exist
+     */
+    public String getName(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return resolveNames(List.of(userId)).get(userId);
+    }
+
+    /**
+     * Resolve a single user name with a fallback for missing users
+     */
+    public String getNameOrDefault(Long userId, String defaultName) {
+        return Objects.requireNonNullElse(getName(userId), defaultName);
+    }
+
+    /**
+     * Drop a cached entry after the user was changed or removed
+     */
+    public void evict(Long userId) {
+        if (userId != null) {
+            nameCache.remove(userId);
+        }
+    }
+
+    public void evictAll() {
+        nameCache.clear();
+    }
+}
@@ -0,0 +1,177 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Event connections per user and per HTTP session, so the server
+ * can push notifications instead of clients polling for them.
+ *
+ * A user or session may hold several connections (one per open tab); every
+ * event is sent to all of them. Sends run on a single background thread so a
+ * slow client never blocks the caller, and a periodic comment keeps idle
+ * connections open through proxies and detects closed ones.
+ */
+@Service
+@Slf4j
+public class UserEventStream {
+
+    @Value("${sse.emitter-timeout-minutes:30}")
+    private long emitterTimeoutMinutes;
+
+    @Value("${sse.heartbeat-seconds:25}")
+    private long heartbeatSeconds;
+
+    // "user:42" / "session:<id>" → open connections
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-event-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void init() {
+        executor.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        emitters.values().forEach(set -> set.forEach(SseEmitter::complete));
+        emitters.clear();
+    }
+
+    /**
+     * Open a connection for the user; the client reconnects when it times out
+     */
+    public SseEmitter subscribe(Long userId) {
+        return open(userKey(userId));
+    }
+
+    /**
+     * Open a connection for events about one HTTP session
+     */
+    public SseEmitter subscribeSession(String sessionId) {
+        return open(sessionKey(sessionId));
+    }
+
+    private SseEmitter open(String key) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(emitterTimeoutMinutes));
+        emitters.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(emitter);
+        emitter.onCompletion(() -> remove(key, emitter));
+        emitter.onTimeout(() -> remove(key, emitter));
+        emitter.onError(e -> remove(key, emitter));
+
+        try {
+            // Commits the response so the client sees the stream open at once
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            remove(key, emitter);
+            emitter.completeWithError(e);
+        }
+        log.debug("Opened event stream {} ({} connections)", key, connectionCount(key));
+        return emitter;
+    }
+
+    /**
+     * Queue a named JSON event for all of the user's connections; a user
+     * without connections is skipped
+     */
+    public void send(Long userId, String eventName, Object data) {
+        if (userId != null) {
+            enqueue(userKey(userId), eventName, data, false);
+        }
+    }
+
+    /**
+     * Queue a named JSON event for the session's connections, optionally
+     * closing them after it is sent
+     */
+    public void sendToSession(String sessionId, String eventName, Object data, boolean close) {
+        enqueue(sessionKey(sessionId), eventName, data, close);
+    }
+
+    public boolean isConnected(Long userId) {
+        return connectionCount(userKey(userId)) > 0;
+    }
+
+    public boolean isSessionConnected(String sessionId) {
+        return connectionCount(sessionKey(sessionId)) > 0;
+    }
+
+    private void enqueue(String key, String eventName, Object data, boolean close) {
+        if (!emitters.containsKey(key)) {
+            return;
+        }
+        executor.execute(() -> {
+            deliver(key, () -> SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON));
+            if (close) {
+                Set<SseEmitter> set = emitters.remove(key);
+                if (set != null) {
+                    set.forEach(SseEmitter::complete);
+                }
+            }
+        });
+    }
+
+    private int connectionCount(String key) {
+        Set<SseEmitter> set = emitters.get(key);
+        return set != null ? set.size() : 0;
+    }
+
+    /**
+     * Send to every connection of the key; a builder is single-use, so each gets its own
+     */
+    private void deliver(String key, Supplier<SseEmitter.SseEventBuilder> event) {
+        Set<SseEmitter> set = emitters.get(key);
+        if (set == null) {
+            return;
+        }
+        for (SseEmitter emitter : set) {
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the container reports it on the next write at the latest
+                remove(key, emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (String key : emitters.keySet()) {
+            deliver(key, () -> SseEmitter.event().comment("ping"));
+        }
+    }
+
+    private void remove(String key, SseEmitter emitter) {
+        emitters.computeIfPresent(key, (k, set) -> {
+            set.remove(emitter);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static String userKey(Long userId) {
+        return "user:" + userId;
+    }
+
+    private static String sessionKey(String sessionId) {
+        return "session:" + sessionId;
+    }
+}
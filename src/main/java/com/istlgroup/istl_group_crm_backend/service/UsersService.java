@@ -6,7 +6,7 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 
 import org.mindrot.jbcrypt.BCrypt;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -51,6 +51,18 @@ public class UsersService {
     @Autowired
     private RolesRepo rolesRepo;  // ← ADD THIS
 
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private PermissionCacheService permissionCacheService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public ResponseEntity<?> UpdateUser(LoginEntity newData, Long id) throws CustomException {
         UsersEntity isUserExist = usersRepo.findById(id).orElseThrow(() -> new CustomException("Invalid User"));
 
@@ -63,6 +75,8 @@ public class UsersService {
         isUserExist.setUpdated_type("PROFILE_UPDATED");
 
         UsersEntity response = usersRepo.save(isUserExist);
+        userDirectoryService.evict(id);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.LEADS_USERS);
         if (response == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Update Failed");
         }
@@ -84,6 +98,9 @@ public class UsersService {
 
         // Delete user
         usersRepo.deleteById(id);
+        userDirectoryService.evict(id);
+        referenceDataCache.invalidate(ReferenceDataCache.Kind.LEADS_USERS);
+        permissionCacheService.evict(id);
         
         return ResponseEntity.ok("User deleted successfully");
     }
@@ -115,6 +132,7 @@ public class UsersService {
         menuPerms.setOffice_use(permissions.getOrDefault("office_use", 0));
 
         menuPermissionsRepo.save(menuPerms);
+        permissionCacheService.evict(id);
 
         return ResponseEntity.ok("Menu permissions updated successfully");
     }
@@ -155,6 +173,7 @@ public class UsersService {
         
         // Save to database
         pagePermissions.save(userPermissions);
+        permissionCacheService.evict(id);
 
         return ResponseEntity.ok("Page permissions updated successfully for user: " + user.getName());
     }
@@ -415,6 +434,7 @@ public class UsersService {
 
 	    // ---------------- SAVE USER ----------------
 	    UsersEntity newUser = usersRepo.save(user);
+	    referenceDataCache.invalidate(ReferenceDataCache.Kind.LEADS_USERS);
 	    if (newUser == null) {
 	        throw new CustomException("Insertion Failed");
 	    }
@@ -471,6 +491,7 @@ public class UsersService {
 	            creatorMenuPermissions.getProcurement_bills_received());
 
 	    menuPermissionsRepo.save(newUserMenuPermissions);
+	    permissionCacheService.evict(newUser.getId());
 
 	    // ---------------- DONE ----------------
 	    return ResponseEntity.ok("New User Added Successfully");
@@ -541,12 +562,24 @@ public class UsersService {
 	
 	
 	public UsersResponseWrapper SearchUsers(Long userId, String searchTerm, String role, int page, int size) throws CustomException {
+	    return SearchUsers(userId, searchTerm, role, page, size, null);
+	}
+
+	/**
+	 * @param cursor null for offset paging; otherwise keyset paging after the cursor
+	 *               (blank for the first slice), without the total count query
+	 */
+	public UsersResponseWrapper SearchUsers(Long userId, String searchTerm, String role, int page, int size, String cursor) throws CustomException {
 	    
 	    // Validate logged-in user
 	    UsersEntity loggedInUser = usersRepo.findById(userId)
 	            .orElseThrow(() -> new CustomException("Invalid User"));
 
-	    int offset = (page - 1) * size;
+	    boolean keyset = cursor != null;
+	    long afterId = keyset ? KeysetPager.decodeId(cursor) : 0L;
+	    int offset = keyset ? 0 : (page - 1) * size;
+	    // Keyset mode reads one extra row to know whether another slice follows
+	    int limit = keyset ? size + 1 : size;
 
 	    List<UsersEntity> users;
 	    long totalUsers;
@@ -554,31 +587,47 @@ public class UsersService {
 	    // Clean up search term
 	    String cleanSearchTerm = (searchTerm == null || searchTerm.trim().isEmpty()) ? null : searchTerm.trim();
 	    
+	    // Resolve the search term through the in-memory index when it is available
+	    Set<Long> searchIds = cleanSearchTerm == null
+	        ? null
+	        : searchIndexService.matchingIds(SearchIndexService.Domain.USERS, cleanSearchTerm);
+
+	    if (searchIds != null) {
+	        Long createdBy = "SUPERADMIN".equalsIgnoreCase(loggedInUser.getRole()) ? null : userId;
+	        String roleFilter = role.equals("all") ? null : role;
+	        if (searchIds.isEmpty()) {
+	            users = List.of();
+	            totalUsers = 0;
+	        } else {
+	            users = usersRepo.searchByIds(searchIds, createdBy, roleFilter, afterId, limit, offset);
+	            totalUsers = keyset ? 0 : usersRepo.countSearchByIds(searchIds, createdBy, roleFilter);
+	        }
+	    }
 	    // SUPERADMIN - can see ALL users
-	    if ("SUPERADMIN".equalsIgnoreCase(loggedInUser.getRole())) {
+	    else if ("SUPERADMIN".equalsIgnoreCase(loggedInUser.getRole())) {
 	        
 	        // Determine which query to use based on filters
 	        if (cleanSearchTerm == null) {
 	            // No search term
 	            if (role.equals("all")) {
 	                // No filters at all
-	                users = usersRepo.findAllWithPagination(size, offset);
-	                totalUsers = usersRepo.count();
+	                users = usersRepo.findAllWithPagination(afterId, limit, offset);
+	                totalUsers = keyset ? 0 : usersRepo.count();
 	            } else {
 	                // Only role filter
-	                users = usersRepo.findByRole(role, size, offset);
-	                totalUsers = usersRepo.countByRole(role);
+	                users = usersRepo.findByRole(role, afterId, limit, offset);
+	                totalUsers = keyset ? 0 : usersRepo.countByRole(role);
 	            }
 	        } else {
 	            // Has search term
 	            if (role.equals("all")) {
 	                // Only search term filter
-	                users = usersRepo.searchByNameOrEmailOrUserId(cleanSearchTerm, size, offset);
-	                totalUsers = usersRepo.countSearchResults(cleanSearchTerm);
+	                users = usersRepo.searchByNameOrEmailOrUserId(cleanSearchTerm, afterId, limit, offset);
+	                totalUsers = keyset ? 0 : usersRepo.countSearchResults(cleanSearchTerm);
 	            } else {
 	                // Both search term and role filter
-	                users = usersRepo.searchByNameOrEmailOrUserIdAndRole(cleanSearchTerm, role, size, offset);
-	                totalUsers = usersRepo.countSearchResultsWithRole(cleanSearchTerm, role);
+	                users = usersRepo.searchByNameOrEmailOrUserIdAndRole(cleanSearchTerm, role, afterId, limit, offset);
+	                totalUsers = keyset ? 0 : usersRepo.countSearchResultsWithRole(cleanSearchTerm, role);
 	            }
 	        }
 	    } 
@@ -590,27 +639,33 @@ public class UsersService {
 	            // No search term
 	            if (role.equals("all")) {
 	                // No filters - just created_by
-	                users = usersRepo.findByCreatedBy(userId, size, offset);
-	                totalUsers = usersRepo.countByCreatedBy(userId);
+	                users = usersRepo.findByCreatedBy(userId, afterId, limit, offset);
+	                totalUsers = keyset ? 0 : usersRepo.countByCreatedBy(userId);
 	            } else {
 	                // created_by + role filter
-	                users = usersRepo.findByCreatedByAndRole(userId, role, size, offset);
-	                totalUsers = usersRepo.countByCreatedByAndRole(userId, role);
+	                users = usersRepo.findByCreatedByAndRole(userId, role, afterId, limit, offset);
+	                totalUsers = keyset ? 0 : usersRepo.countByCreatedByAndRole(userId, role);
 	            }
 	        } else {
 	            // Has search term
 	            if (role.equals("all")) {
 	                // created_by + search term
-	                users = usersRepo.searchByCreatedBy(userId, cleanSearchTerm, size, offset);
-	                totalUsers = usersRepo.countSearchByCreatedBy(userId, cleanSearchTerm);
+	                users = usersRepo.searchByCreatedBy(userId, cleanSearchTerm, afterId, limit, offset);
+	                totalUsers = keyset ? 0 : usersRepo.countSearchByCreatedBy(userId, cleanSearchTerm);
 	            } else {
 	                // created_by + search term + role filter
-	                users = usersRepo.searchByCreatedByAndRole(userId, cleanSearchTerm, role, size, offset);
-	                totalUsers = usersRepo.countSearchByCreatedByAndRole(userId, cleanSearchTerm, role);
+	                users = usersRepo.searchByCreatedByAndRole(userId, cleanSearchTerm, role, afterId, limit, offset);
+	                totalUsers = keyset ? 0 : usersRepo.countSearchByCreatedByAndRole(userId, cleanSearchTerm, role);
 	            }
 	        }
 	    }
 
+	    boolean hasNext = false;
+	    if (keyset && users.size() > size) {
+	        hasNext = true;
+	        users = users.subList(0, size);
+	    }
+
 	    // Transform users with permission counts
 	    List<UserWrapper> userWrappers = users.stream()
 	        .map(user -> {
@@ -624,113 +679,49 @@ public class UsersService {
 	            wrapper.setCreated_at(user.getCreated_at());
 	            wrapper.setRole(user.getRole());
 
-	            // Page permissions count
-	            Optional<PagePermissionsEntity> p_permissions = 
-	                    pagePermissions.findByUserId(user.getId());
-
-	            long totalPermissionCount = countEnabledPagePermissions(p_permissions);
-	            wrapper.setPagePermissionsCount(totalPermissionCount);
-
-	            // Menu permissions count
-	            MenuPermissionsEntity permissions = 
-	                    menuPermissionsRepo.findByUsersId(user.getId());
-
-	            if (permissions == null) {
-	                wrapper.setMenuPermissionsCount(0L);
-	            } else {
-	                int menuCount = countMenuPermissions(permissions);
-	                wrapper.setMenuPermissionsCount((long) menuCount);
-	            }
+	            // Permission counts from the compiled per-user bitsets
+	            PermissionCacheService.UserPermissions permissions = permissionCacheService.get(user.getId());
+	            wrapper.setPagePermissionsCount(permissions.pageCount());
+	            wrapper.setMenuPermissionsCount((long) permissions.menuCount());
 
 	            return wrapper;
 	        })
 	        .toList();
 
-	    // Count active/inactive from TOTAL results (not just current page)
-	    int activeUsers = (int) (cleanSearchTerm == null && role.equals("all") 
-	        ? usersRepo.countByIsActive(1L) 
-	        : users.stream().filter(u -> u.getIs_active() == 1).count());
-
-	    int inactiveUsers = (int) (cleanSearchTerm == null && role.equals("all")
-	        ? usersRepo.countByIsActive(0L)
-	        : users.stream().filter(u -> u.getIs_active() == 0).count());
-
 	    // Get all unique roles for filter dropdown
 	    List<String> allRoles = usersRepo.findDistinctRoles();
 
 	    // Build response
 	    UsersResponseWrapper response = new UsersResponseWrapper();
 	    response.setUserWrapper(userWrappers);
-	    response.setTotalUsers((int) totalUsers);
-	    response.setActiveUsers(activeUsers);
-	    response.setInactiveUsers(inactiveUsers);
 	    response.setRoles(allRoles);
 
+	    // Keyset slices run no count queries, so totals are left out
+	    if (!keyset) {
+	        // Count active/inactive from TOTAL results (not just current page)
+	        int activeUsers = (int) (cleanSearchTerm == null && role.equals("all") 
+	            ? usersRepo.countByIsActive(1L) 
+	            : users.stream().filter(u -> u.getIs_active() == 1).count());
+
+	        int inactiveUsers = (int) (cleanSearchTerm == null && role.equals("all")
+	            ? usersRepo.countByIsActive(0L)
+	            : users.stream().filter(u -> u.getIs_active() == 0).count());
+
+	        response.setTotalUsers((int) totalUsers);
+	        response.setActiveUsers((long) activeUsers);
+	        response.setInactiveUsers((long) inactiveUsers);
+	        response.setTotalPages((int) Math.ceil((double) totalUsers / size));
+	    }
+
 	    // Pagination metadata
 	    response.setCurrentPage(page);
 	    response.setPageSize(size);
-	    response.setTotalPages((int) Math.ceil((double) totalUsers / size));
-
-	    return response;
-	}
-	
-	
-	
-	// Helper method to count page permissions
-	private long countEnabledPagePermissions(Optional<PagePermissionsEntity> res) {
-	    if (res.isEmpty()) {
-	        return 0L;
-	    }
-
-	    PagePermissionsEntity entity = res.get();
-	    long count = 0;
-
-	    for (Field field : PagePermissionsEntity.class.getDeclaredFields()) {
-	        field.setAccessible(true);
-
-	        try {
-	            Object value = field.get(entity);
-
-	            // Skip non-permission fields
-	            if (field.getName().equals("id") ||
-	                field.getName().equals("user_id") ||
-	                field.getName().equals("created_at") ||
-	                field.getName().equals("updated_at")) {
-	                continue;
-	            }
-
-	            // Count only enabled permissions
-	            if (value instanceof Integer && ((Integer) value) == 1) {
-	                count++;
-	            }
-
-	        } catch (IllegalAccessException e) {
-	            throw new RuntimeException("Failed to count page permissions", e);
-	        }
+	    response.setHasNext(hasNext);
+	    if (hasNext) {
+	        response.setNextCursor(KeysetPager.encodeId(users.get(users.size() - 1).getId()));
 	    }
 
-	    return count;
-	}
-
-	// Helper method to count menu permissions
-	private int countMenuPermissions(MenuPermissionsEntity perms) {
-	    int count = 0;
-	    if (perms.getDashboard() == 1) count++;
-	    if (perms.getAnalytics() == 1) count++;
-	    if (perms.getDocuments() == 1) count++;
-	    if (perms.getSettings() == 1) count++;
-	    if (perms.getFollow_ups() == 1) count++;
-	    if (perms.getReports() == 1) count++;
-	    if (perms.getInvoices() == 1) count++;
-	    if (perms.getSales_clients() == 1) count++;
-	    if (perms.getSales_leads() == 1) count++;
-	    if (perms.getSales_estimation() == 1) count++;
-	    if (perms.getProcurement_venders() == 1) count++;
-	    if (perms.getProcurement_quotations_recived() == 1) count++;
-	    if (perms.getProcurement_purchase_orders() == 1) count++;
-	    if (perms.getProcurement_bills_received() == 1) count++;
-	    if (perms.getOffice_use() == 1) count++;
-	    return count;
+	    return response;
 	}
 	
 }
\ No newline at end of file
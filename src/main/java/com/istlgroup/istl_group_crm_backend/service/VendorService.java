@@ -2,14 +2,18 @@ package com.istlgroup.istl_group_crm_backend.service;
 
 import com.istlgroup.istl_group_crm_backend.entity.QuotationEntity;
 import com.istlgroup.istl_group_crm_backend.entity.VendorEntity;
+import com.istlgroup.istl_group_crm_backend.event.ProjectDataChangedEvent;
 import com.istlgroup.istl_group_crm_backend.repo.QuotationRepository;
 import com.istlgroup.istl_group_crm_backend.repo.VendorRepository;
+import com.istlgroup.istl_group_crm_backend.wrapperClasses.KeysetSlice;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +21,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +30,9 @@ public class VendorService {
     
     private final VendorRepository vendorRepository;
     private final QuotationRepository quotationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchIndexService searchIndexService;
+    private final DocumentSequenceService documentSequenceService;
     
     /**
      * Get vendors with role-based and project-based filtering + category + status
@@ -60,10 +68,18 @@ public class VendorService {
         
         // Search takes priority
         if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+            Set<Long> ids = searchIndexService.matchingIds(SearchIndexService.Domain.VENDORS, searchTerm);
+            if (ids != null && ids.isEmpty()) {
+                return Page.empty(pageable);
+            }
             if (isAdmin) {
-                return vendorRepository.searchVendors(searchTerm, pageable);
+                return ids != null
+                        ? vendorRepository.findActiveByIdIn(ids, pageable)
+                        : vendorRepository.searchVendors(searchTerm, pageable);
             } else {
-                return vendorRepository.searchVendorsWithUserAccess(searchTerm, userId, pageable);
+                return ids != null
+                        ? vendorRepository.findActiveByIdInWithUserAccess(ids, userId, pageable)
+                        : vendorRepository.searchVendorsWithUserAccess(searchTerm, userId, pageable);
             }
         }
         
@@ -94,6 +110,49 @@ public class VendorService {
         }
     }
     
+    /**
+     * Keyset-paged variant of getVendors: same filters, no COUNT query
+     * @param cursor nextCursor of the previous slice, or blank for the first slice
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<VendorEntity> getVendorsSlice(
+            String groupName,
+            String subGroupName,
+            String projectId,
+            String category,
+            String status,
+            String searchTerm,
+            Long userId,
+            String userRole,
+            String cursor,
+            int size,
+            String sortBy,
+            String sortDirection
+    ) {
+        Specification<VendorEntity> spec;
+        boolean isAdmin = isAdmin(userRole);
+        Long accessUserId = isAdmin ? null : userId;
+        
+        // Category/status filters apply to admin listings only, as in getVendors
+        String categoryFilter = isAdmin && category != null && !category.equals("all") ? category : null;
+        String statusFilter = isAdmin && status != null && !status.equals("all") ? status : null;
+        
+        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+            spec = VendorRepository.activeMatching(null, null, null, null, null, accessUserId, searchTerm);
+        } else if (projectId != null && !projectId.isEmpty()) {
+            spec = VendorRepository.activeMatching(null, null, projectId, categoryFilter, statusFilter, accessUserId, null);
+        } else if (subGroupName != null && !subGroupName.isEmpty()) {
+            spec = VendorRepository.activeMatching(groupName, subGroupName, null, categoryFilter, statusFilter, accessUserId, null);
+        } else if (groupName != null && !groupName.isEmpty()) {
+            spec = VendorRepository.activeMatching(groupName, null, null, categoryFilter, statusFilter, accessUserId, null);
+        } else {
+            spec = VendorRepository.activeMatching(null, null, null, categoryFilter, statusFilter, accessUserId, null);
+        }
+        
+        return KeysetPager.scroll(vendorRepository, VendorEntity.class, spec,
+                Sort.by(Sort.Direction.fromString(sortDirection), sortBy), size, cursor);
+    }
+    
     /**
      * Get vendor by ID
      */
@@ -136,6 +195,7 @@ public class VendorService {
         
         VendorEntity savedVendor = vendorRepository.save(vendor);
         log.info("Created new vendor {} with ID: {}", vendorName, savedVendor.getId());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(savedVendor.getProjectId(), ProjectDataChangedEvent.Source.VENDOR));
         
         return savedVendor.getId();
     }
@@ -170,6 +230,7 @@ public class VendorService {
         
         VendorEntity savedVendor = vendorRepository.save(vendor);
         log.info("Created vendor: {} by user: {}", vendor.getName(), userId);
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(savedVendor.getProjectId(), ProjectDataChangedEvent.Source.VENDOR));
         
         return savedVendor;
     }
@@ -180,6 +241,7 @@ public class VendorService {
     @Transactional
     public VendorEntity updateVendor(Long id, VendorEntity updatedVendor) {
         VendorEntity existing = getVendorById(id);
+        String previousProjectId = existing.getProjectId();
         
         // Update basic info
         existing.setName(updatedVendor.getName());
@@ -208,6 +270,10 @@ public class VendorService {
         
         existing.setUpdatedAt(LocalDateTime.now());
         
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(existing.getProjectId(), ProjectDataChangedEvent.Source.VENDOR));
+        if (previousProjectId != null && !previousProjectId.equals(existing.getProjectId())) {
+            eventPublisher.publishEvent(new ProjectDataChangedEvent(previousProjectId, ProjectDataChangedEvent.Source.VENDOR));
+        }
         return vendorRepository.save(existing);
     }
     
@@ -222,6 +288,7 @@ public class VendorService {
         vendorRepository.save(vendor);
         
         log.info("Soft deleted vendor: {}", vendor.getName());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(vendor.getProjectId(), ProjectDataChangedEvent.Source.VENDOR));
     }
     
     /**
@@ -296,6 +363,7 @@ public class VendorService {
         vendorRepository.save(vendor);
         log.info("Updated purchase stats for vendor: {} - Total: {}, Orders: {}", 
             vendor.getName(), vendor.getTotalPurchaseValue(), vendor.getTotalOrders());
+        eventPublisher.publishEvent(new ProjectDataChangedEvent(vendor.getProjectId(), ProjectDataChangedEvent.Source.VENDOR));
     }
     
     // Helper methods
@@ -305,8 +373,9 @@ public class VendorService {
     }
     
     private String generateVendorCode() {
-        long count = vendorRepository.countActiveVendors();
-        return String.format("VEN-%05d", count + 1);
+        long sequence = documentSequenceService.next("VEN",
+                () -> vendorRepository.countByVendorCodeStartingWith("VEN-"));
+        return String.format("VEN-%05d", sequence);
     }
     
     // Stats inner class
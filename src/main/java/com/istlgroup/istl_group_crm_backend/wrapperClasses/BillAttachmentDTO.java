@@ -0,0 +1,20 @@
+package com.istlgroup.istl_group_crm_backend.wrapperClasses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * File metadata of a bill, loaded without the rest of the bill for downloads.
+ * fileType and fileHash are null for files uploaded before they were recorded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillAttachmentDTO {
+    private String filePath;
+    private String fileName;
+    private String fileType;
+    private Long fileSize;
+    private String fileHash;
+}
@@ -0,0 +1,24 @@
+package com.istlgroup.istl_group_crm_backend.wrapperClasses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Follow-up reminder pushed to the assigned user when a follow-up becomes
+ * due or overdue
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowupReminderWrapper {
+    private Long followupId;
+    private String transition; // "DUE", "OVERDUE"
+    private String followupType;
+    private String priority;
+    private String relatedType;
+    private Long relatedId;
+    private Long leadId;
+    private String scheduledAt;
+    private String notes;
+}
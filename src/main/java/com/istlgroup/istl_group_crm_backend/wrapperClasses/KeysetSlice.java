@@ -0,0 +1,25 @@
+package com.istlgroup.istl_group_crm_backend.wrapperClasses;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import lombok.Getter;
+
+/**
+ * Slice returned by keyset (cursor) paging. Pass nextCursor back as the
+ * cursor parameter to fetch the following slice; it is null on the last one.
+ */
+@Getter
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String nextCursor;
+
+    public KeysetSlice(List<T> content, int size, boolean hasNext, String nextCursor) {
+        super(content, PageRequest.ofSize(size), hasNext);
+        this.nextCursor = nextCursor;
+    }
+}
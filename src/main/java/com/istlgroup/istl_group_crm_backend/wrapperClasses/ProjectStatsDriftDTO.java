@@ -0,0 +1,20 @@
+package com.istlgroup.istl_group_crm_backend.wrapperClasses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One stored project stat that no longer matches the live aggregate
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectStatsDriftDTO {
+    private String projectId;
+    private String field;
+    private Object storedValue;
+    private Object actualValue;
+}
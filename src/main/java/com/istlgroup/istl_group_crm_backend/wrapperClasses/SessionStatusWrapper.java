@@ -0,0 +1,18 @@
+package com.istlgroup.istl_group_crm_backend.wrapperClasses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Session state pushed over the session event stream
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionStatusWrapper {
+    private String status; // "ACTIVE", "EXPIRING", "EXPIRED"
+    private long secondsRemaining;
+    private long sessionTimeout;
+    private long warningTime;
+}
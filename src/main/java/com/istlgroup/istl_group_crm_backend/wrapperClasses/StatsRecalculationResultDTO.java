@@ -20,4 +20,8 @@ public class StatsRecalculationResultDTO {
     private String message;
     private LocalDateTime calculatedAt;
     private Long executionTimeMs;
+    
+    // Set for chunked batch recalculation results
+    private Integer chunkIndex;
+    private Integer projectCount;
 }
@@ -2,6 +2,8 @@ package com.istlgroup.istl_group_crm_backend.wrapperClasses;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 
 @Data
@@ -9,13 +11,22 @@ public class UsersResponseWrapper {
 
     private List<UserWrapper> userWrapper;
 
-    private int totalUsers;
-    private long activeUsers;
-    private long inactiveUsers;
+    // Totals are omitted in keyset paging, which runs no count queries
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalUsers;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long activeUsers;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long inactiveUsers;
     private List<String> roles;
     private int currentPage;
-    private int totalPages;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages;
     private int totalElements;
     private int pageSize;
+
+    // Keyset paging only
+    private boolean hasNext;
+    private String nextCursor;
 }
 
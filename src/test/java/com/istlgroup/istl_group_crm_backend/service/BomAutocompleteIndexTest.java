@@ -0,0 +1,150 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.entity.BomItemsMasterEntity;
+import com.istlgroup.istl_group_crm_backend.repo.BomItemsMasterRepo;
+import com.istlgroup.istl_group_crm_backend.service.ReferenceDataCache.Kind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BomAutocompleteIndexTest {
+
+    private final List<BomItemsMasterEntity> items = new ArrayList<>(List.of(
+            item(1L, "CCMS", "LED Street Light 40W", "Philips", "9405", null, null),
+            item(2L, "CCMS", "Street Light Pole", "Bajaj", null, null, null),
+            item(3L, "ITMS", "Cable Tray", "Legrand", null, null, "For LED fittings"),
+            item(4L, "COMMON", "Ledger Board", null, null, null, null),
+            item(5L, "CCMS", "Flood Light", "Philips", null, "LED 100W", null),
+            item(6L, "COMMON", "Philips Connector Kit", null, null, null, null)));
+
+    private BomItemsMasterRepo bomItemsMasterRepo;
+    private ReferenceDataCache referenceDataCache;
+    private BomAutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bomItemsMasterRepo = mock(BomItemsMasterRepo.class);
+        when(bomItemsMasterRepo.findByIsActiveTrue()).thenAnswer(invocation -> List.copyOf(items));
+        referenceDataCache = mock(ReferenceDataCache.class);
+
+        index = new BomAutocompleteIndex(bomItemsMasterRepo, referenceDataCache);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        index.refresh();
+    }
+
+    @Test
+    void nameStartingWithTheTypedTextRanksFirst() {
+        // Both match "street" and "light" exactly in the name; only 2 starts with them
+        assertThat(ids(index.search("street light", null, 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void rankedByMatchedFieldAndExactWords() {
+        // Exact name word, name prefix, exact specification word, exact description word
+        assertThat(ids(index.search("led", null, 10))).containsExactly(1L, 4L, 5L, 3L);
+    }
+
+    @Test
+    void equalScoresPreferShorterNames() {
+        // 6 matches by name; 5 and 1 tie on the brand and the shorter name wins
+        assertThat(ids(index.search("PHILIPS", null, 10))).containsExactly(6L, 5L, 1L);
+    }
+
+    @Test
+    void everyTypedWordMustMatch() {
+        assertThat(ids(index.search("philips pole", null, 10))).isEmpty();
+        assertThat(ids(index.search("phil 94", null, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void onlyTheBestHitsUpToTheLimitAreReturned() {
+        assertThat(ids(index.search("led", null, 2))).containsExactly(1L, 4L);
+        assertThat(index.search("", null, 3)).hasSize(3);
+    }
+
+    @Test
+    void categoryFilterIsApplied() {
+        assertThat(ids(index.search("philips", "CCMS", 10))).containsExactly(5L, 1L);
+        assertThat(ids(index.search("philips", "ITMS", 10))).isEmpty();
+    }
+
+    @Test
+    void resultsAreTheApiRows() {
+        Map<String, Object> row = index.search("pole", null, 10).get(0);
+
+        assertThat(row).containsEntry("id", 2L)
+                .containsEntry("itemName", "Street Light Pole")
+                .containsEntry("makeBrand", "Bajaj")
+                .containsEntry("defaultUnit", "Nos");
+    }
+
+    @Test
+    void committedChangesAreApplied() {
+        clearInvocations(referenceDataCache);
+
+        BomItemsMasterEntity renamed = item(2L, "CCMS", "Octagonal Pole 9m", "Bajaj", null, null, null);
+        index.onEntitySaved(renamed);
+        BomItemsMasterEntity deactivated = item(6L, "COMMON", "Philips Connector Kit", null, null, null, null);
+        deactivated.setIsActive(false);
+        index.onEntitySaved(deactivated);
+
+        assertThat(ids(index.search("street", null, 10))).containsExactly(1L);
+        assertThat(ids(index.search("pole", null, 10))).containsExactly(2L);
+        assertThat(ids(index.search("philips", null, 10))).containsExactly(5L, 1L);
+        verify(referenceDataCache, times(2)).invalidate(Kind.BOM_ITEMS, Kind.BOM_CATEGORIES);
+    }
+
+    @Test
+    void refreshReindexesOnlyChangedRows() {
+        verify(referenceDataCache, times(1)).invalidate(Kind.BOM_ITEMS, Kind.BOM_CATEGORIES);
+
+        index.refresh();
+        verify(referenceDataCache, times(1)).invalidate(Kind.BOM_ITEMS, Kind.BOM_CATEGORIES);
+
+        items.removeIf(item -> item.getId() == 4L);
+        items.get(0).setMakeBrand("Havells");
+        index.refresh();
+
+        verify(referenceDataCache, times(2)).invalidate(Kind.BOM_ITEMS, Kind.BOM_CATEGORIES);
+        assertThat(ids(index.search("ledger", null, 10))).isEmpty();
+        assertThat(ids(index.search("havells", null, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void notLoadedOrDisabledFallsBackToTheDatabase() {
+        BomAutocompleteIndex unloaded = new BomAutocompleteIndex(bomItemsMasterRepo, referenceDataCache);
+        ReflectionTestUtils.setField(unloaded, "enabled", true);
+        assertThat(unloaded.search("led", null, 10)).isNull();
+
+        ReflectionTestUtils.setField(index, "enabled", false);
+        assertThat(index.search("led", null, 10)).isNull();
+    }
+
+    private static List<Object> ids(List<Map<String, Object>> rows) {
+        return rows.stream().map(row -> row.get("id")).toList();
+    }
+
+    private static BomItemsMasterEntity item(Long id, String category, String itemName, String makeBrand,
+                                             String hsnCode, String specification, String description) {
+        BomItemsMasterEntity item = new BomItemsMasterEntity();
+        item.setId(id);
+        item.setCategory(category);
+        item.setItemName(itemName);
+        item.setMakeBrand(makeBrand);
+        item.setHsnCode(hsnCode);
+        item.setSpecification(specification);
+        item.setDescription(description);
+        return item;
+    }
+}
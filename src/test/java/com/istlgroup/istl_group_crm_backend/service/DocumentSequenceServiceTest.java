@@ -0,0 +1,134 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.entity.DocumentSequenceEntity;
+import com.istlgroup.istl_group_crm_backend.repo.DocumentSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentSequenceServiceTest {
+
+    private DocumentSequenceRepository repository;
+    private DocumentSequenceService service;
+
+    // document_sequences rows as the database holds them
+    private final Map<String, DocumentSequenceEntity> rows = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DocumentSequenceRepository.class);
+        when(repository.findForUpdate(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<String>getArgument(0))));
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> store(invocation.getArgument(0)));
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        service = new DocumentSequenceService(repository, transactionManager);
+        ReflectionTestUtils.setField(service, "blockSize", 5);
+    }
+
+    @Test
+    void newSeriesContinuesAfterTheSeed() {
+        AtomicInteger seedCalls = new AtomicInteger();
+
+        List<Long> numbers = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            numbers.add(service.next("LEAD-2025", () -> {
+                seedCalls.incrementAndGet();
+                return 41;
+            }));
+        }
+
+        assertThat(numbers).containsExactly(42L, 43L, 44L, 45L, 46L, 47L, 48L, 49L, 50L, 51L, 52L, 53L);
+        assertThat(seedCalls).hasValue(1);
+    }
+
+    @Test
+    void reservesOneBlockPerRoundTrip() {
+        for (int i = 0; i < 12; i++) {
+            service.next("PO-2025", () -> 0);
+        }
+
+        // 1-5, 6-10, 11-15: the row already points past the last reserved block
+        verify(repository, times(3)).saveAndFlush(any());
+        assertThat(rows.get("PO-2025").getNextValue()).isEqualTo(16L);
+    }
+
+    @Test
+    void blockSizeOfOneLeavesNoGaps() {
+        ReflectionTestUtils.setField(service, "blockSize", 1);
+
+        assertThat(service.next("BILL-2025", () -> 9)).isEqualTo(10L);
+        assertThat(service.next("BILL-2025", () -> 9)).isEqualTo(11L);
+        assertThat(rows.get("BILL-2025").getNextValue()).isEqualTo(12L);
+        verify(repository, times(2)).saveAndFlush(any());
+    }
+
+    @Test
+    void resumesFromTheStoredRowAfterARestart() {
+        store(DocumentSequenceEntity.builder().name("LEAD-2025").nextValue(100L).build());
+
+        assertThat(service.next("LEAD-2025", () -> 0)).isEqualTo(100L);
+        assertThat(rows.get("LEAD-2025").getNextValue()).isEqualTo(105L);
+    }
+
+    @Test
+    void seriesAreNumberedIndependently() {
+        assertThat(service.next("LEAD-2025", () -> 0)).isEqualTo(1L);
+        assertThat(service.next("LEAD-2026", () -> 0)).isEqualTo(1L);
+        assertThat(service.next("LEAD-2025", () -> 0)).isEqualTo(2L);
+    }
+
+    @Test
+    void retriesWhenAnotherInstanceCreatedTheSeriesFirst() {
+        AtomicInteger saves = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (saves.incrementAndGet() == 1) {
+                // Lost the insert race; the winner has already reserved 1-5
+                store(DocumentSequenceEntity.builder().name("LEAD-2025").nextValue(6L).build());
+                throw new DataIntegrityViolationException("Duplicate entry 'LEAD-2025'");
+            }
+            return store(invocation.getArgument(0));
+        }).when(repository).saveAndFlush(any());
+
+        assertThat(service.next("LEAD-2025", () -> 0)).isEqualTo(6L);
+        assertThat(rows.get("LEAD-2025").getNextValue()).isEqualTo(11L);
+    }
+
+    @Test
+    void givesUpAfterRepeatedConflicts() {
+        doThrow(new DataIntegrityViolationException("Duplicate entry")).when(repository).saveAndFlush(any());
+
+        assertThatThrownBy(() -> service.next("LEAD-2025", () -> 0))
+                .isInstanceOf(RuntimeException.class)
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        verify(repository, times(3)).saveAndFlush(any());
+    }
+
+    private DocumentSequenceEntity store(DocumentSequenceEntity sequence) {
+        rows.put(sequence.getName(), sequence);
+        return sequence;
+    }
+}
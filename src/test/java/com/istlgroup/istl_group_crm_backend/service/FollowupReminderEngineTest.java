@@ -0,0 +1,72 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static com.istlgroup.istl_group_crm_backend.service.FollowupReminderEngine.roundsFor;
+import static com.istlgroup.istl_group_crm_backend.service.FollowupReminderEngine.slotFor;
+import static com.istlgroup.istl_group_crm_backend.service.FollowupReminderEngine.tickFor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FollowupReminderEngineTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void deadlineRoundsUpToTheTickThatEndsAfterIt() {
+        assertThat(tickFor(START + 1000, START, 1000)).isEqualTo(1);
+        assertThat(tickFor(START + 1001, START, 1000)).isEqualTo(2);
+        assertThat(tickFor(START + 1999, START, 1000)).isEqualTo(2);
+        assertThat(tickFor(START + 60_000, START, 1000)).isEqualTo(60);
+        // Already passed; addTimer skips it
+        assertThat(tickFor(START - 500, START, 1000)).isEqualTo(0);
+    }
+
+    @Test
+    void slotWrapsAroundTheWheel() {
+        assertThat(slotFor(5, 8)).isEqualTo(5);
+        assertThat(slotFor(8, 8)).isEqualTo(0);
+        assertThat(slotFor(21, 8)).isEqualTo(5);
+        assertThat(slotFor(10_800, 512)).isEqualTo(10_800 % 512);
+    }
+
+    @Test
+    void roundsCountFullRotationsBeforeTheTick() {
+        // Within the current rotation
+        assertThat(roundsFor(5, 1, 8)).isZero();
+        assertThat(roundsFor(8, 1, 8)).isZero();
+        // Slot 1 is visited at tick 1, then again at tick 9
+        assertThat(roundsFor(9, 1, 8)).isEqualTo(1);
+        assertThat(roundsFor(21, 3, 8)).isEqualTo(2);
+        assertThat(roundsFor(21, 6, 8)).isEqualTo(1);
+    }
+
+    @Test
+    void timerExpiresExactlyAtItsTick() {
+        int wheelSize = 8;
+        for (long nextTick = 1; nextTick <= 2 * wheelSize; nextTick++) {
+            for (long tick = nextTick; tick < nextTick + 5 * wheelSize; tick++) {
+                assertThat(expiryTick(tick, nextTick, wheelSize))
+                        .as("timer for tick %d added before tick %d", tick, nextTick)
+                        .isEqualTo(tick);
+            }
+        }
+    }
+
+    /**
+     * Advance the wheel the way FollowupReminderEngine.advance does and
+     * return the tick at which a timer for the given tick expires
+     */
+    private static long expiryTick(long tick, long nextTick, int wheelSize) {
+        int slot = slotFor(tick, wheelSize);
+        long rounds = roundsFor(tick, nextTick, wheelSize);
+        for (long current = nextTick; ; current++) {
+            if (slotFor(current, wheelSize) == slot) {
+                if (rounds > 0) {
+                    rounds--;
+                } else {
+                    return current;
+                }
+            }
+        }
+    }
+}
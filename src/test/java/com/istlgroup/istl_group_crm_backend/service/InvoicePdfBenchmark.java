@@ -0,0 +1,177 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.customException.CustomException;
+import com.istlgroup.istl_group_crm_backend.entity.CustomersEntity;
+import com.istlgroup.istl_group_crm_backend.entity.InvoiceEntity;
+import com.istlgroup.istl_group_crm_backend.entity.InvoiceItemEntity;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.itextpdf.layout.properties.VerticalAlignment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-document render time and allocation of invoice PDFs.
+ *
+ * renderInvoice renders a 25-item invoice through InvoicePdfService into
+ * memory. itemTablePerDocumentStyles and itemTableSharedStyles render the
+ * same item table the way the invoice was rendered before and after PdfStyles:
+ * fonts parsed for every document and a new colour and border for every cell,
+ * against shared font programs and cell styles.
+ *
+ * Run with the GC profiler; gc.alloc.rate.norm is the allocation per document:
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) \
+ *       org.openjdk.jmh.Main InvoicePdfBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoicePdfBenchmark {
+
+    private static final int ITEMS = 25;
+    private static final String[] HEADERS = {"Sl", "Description", "Qty", "Unit", "Rate", "Amount"};
+
+    private InvoicePdfService invoicePdfService;
+    private InvoiceEntity invoice;
+    private CustomersEntity customer;
+
+    @Setup
+    public void setUp() {
+        // writeInvoicePdf does not use the customer lookup or the render pool
+        invoicePdfService = new InvoicePdfService(null, null);
+
+        List<InvoiceItemEntity> items = new ArrayList<>();
+        for (int i = 1; i <= ITEMS; i++) {
+            items.add(InvoiceItemEntity.builder()
+                    .description("LED street light fixture 40W with mounting bracket, item " + i)
+                    .quantity(BigDecimal.valueOf(i * 3L))
+                    .unitPrice(new BigDecimal("4250.00"))
+                    .taxPercent(new BigDecimal("18.00"))
+                    .unitType("Nos")
+                    .build());
+        }
+        invoice = InvoiceEntity.builder()
+                .id(1L)
+                .invoiceNo("ISTL/2025-26/0042")
+                .projectId("PRJ-0001")
+                .company("ISTL")
+                .invoiceDate(LocalDate.of(2025, 6, 30))
+                .updatedAt(LocalDateTime.of(2025, 6, 30, 10, 0))
+                .items(items)
+                .build();
+
+        customer = new CustomersEntity();
+        customer.setId(1L);
+        customer.setName("Greater Hyderabad Municipal Corporation");
+        customer.setCompanyName("GHMC");
+        customer.setAddress("Tank Bund Road, Lower Tank Bund");
+        customer.setCity("Hyderabad");
+        customer.setState("Telangana");
+        customer.setPincode("500063");
+        customer.setGstNumber("36AAALG0001A1Z5");
+    }
+
+    @Benchmark
+    public int renderInvoice() throws CustomException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        invoicePdfService.writeInvoicePdf(invoice, customer, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int itemTablePerDocumentStyles() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        Document document = new Document(new PdfDocument(new PdfWriter(out)), PageSize.A4);
+        PdfFont bold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        PdfFont normal = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+
+        Table table = new Table(UnitValue.createPercentArray(HEADERS.length)).useAllAvailableWidth();
+        for (String header : HEADERS) {
+            table.addHeaderCell(new Cell()
+                    .add(new Paragraph(header).setFont(bold).setFontSize(7))
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setVerticalAlignment(VerticalAlignment.MIDDLE)
+                    .setPadding(5)
+                    .setBackgroundColor(new DeviceRgb(240, 240, 240))
+                    .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f)));
+        }
+        for (InvoiceItemEntity item : invoice.getItems()) {
+            for (String value : row(item)) {
+                table.addCell(new Cell()
+                        .add(new Paragraph(value).setFont(normal).setFontSize(8))
+                        .setTextAlignment(TextAlignment.LEFT)
+                        .setVerticalAlignment(VerticalAlignment.MIDDLE)
+                        .setPadding(5)
+                        .setBorder(new SolidBorder(ColorConstants.BLACK, 0.5f)));
+            }
+        }
+        document.add(table);
+        document.close();
+        return out.size();
+    }
+
+    @Benchmark
+    public int itemTableSharedStyles() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        Document document = new Document(new PdfDocument(new PdfWriter(out)), PageSize.A4);
+        PdfStyles.Fonts fonts = PdfStyles.fonts();
+
+        Table table = new Table(UnitValue.createPercentArray(HEADERS.length)).useAllAvailableWidth();
+        for (String header : HEADERS) {
+            table.addHeaderCell(new Cell()
+                    .add(new Paragraph(header).setFont(fonts.bold()).setFontSize(7))
+                    .addStyle(PdfStyles.ITEM_HEADER)
+                    .setTextAlignment(TextAlignment.CENTER));
+        }
+        for (InvoiceItemEntity item : invoice.getItems()) {
+            for (String value : row(item)) {
+                table.addCell(new Cell()
+                        .add(new Paragraph(value).setFont(fonts.normal()).setFontSize(8))
+                        .addStyle(PdfStyles.ITEM_CELL)
+                        .setTextAlignment(TextAlignment.LEFT));
+            }
+        }
+        document.add(table);
+        document.close();
+        return out.size();
+    }
+
+    private static String[] row(InvoiceItemEntity item) {
+        return new String[]{"1", item.getDescription(), item.getQuantity().toPlainString(), item.getUnitType(),
+                item.getUnitPrice().toPlainString(), item.getUnitPrice().multiply(item.getQuantity()).toPlainString()};
+    }
+}
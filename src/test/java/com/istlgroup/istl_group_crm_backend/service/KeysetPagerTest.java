@@ -0,0 +1,59 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.customException.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetPagerTest {
+
+    @Test
+    void idCursorRoundTrips() {
+        for (long id : new long[]{1L, 42L, Long.MAX_VALUE}) {
+            String cursor = KeysetPager.encodeId(id);
+
+            assertThat(cursor).matches("[A-Za-z0-9_-]+");
+            assertThat(KeysetPager.decodeId(cursor)).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void noCursorStartsAtTheFirstPage() {
+        assertThat(KeysetPager.encodeId(null)).isNull();
+        assertThat(KeysetPager.decodeId(null)).isZero();
+        assertThat(KeysetPager.decodeId("")).isZero();
+        assertThat(KeysetPager.decodeId("  ")).isZero();
+    }
+
+    @Test
+    void cursorThatIsNotBase64IsRejected() {
+        assertThatThrownBy(() -> KeysetPager.decodeId("not a cursor!"))
+                .isInstanceOf(InvalidCursorException.class)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void cursorIssuedForAnotherSortIsRejected() {
+        String sortedByDate = cursor("createdAt=2025-01-31T10%3A15&id=7");
+
+        assertThatThrownBy(() -> KeysetPager.decodeId(sortedByDate))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void cursorWithNonNumericIdIsRejected() {
+        assertThatThrownBy(() -> KeysetPager.decodeId(cursor("id=abc")))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetPager.decodeId(cursor("id")))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static String cursor(String keys) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keys.getBytes(StandardCharsets.UTF_8));
+    }
+}
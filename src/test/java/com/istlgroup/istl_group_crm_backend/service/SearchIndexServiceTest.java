@@ -0,0 +1,104 @@
+package com.istlgroup.istl_group_crm_backend.service;
+
+import com.istlgroup.istl_group_crm_backend.entity.LoginEntity;
+import com.istlgroup.istl_group_crm_backend.entity.UsersEntity;
+import com.istlgroup.istl_group_crm_backend.service.SearchIndexService.Domain;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchIndexServiceTest {
+
+    private SearchIndexService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Rows as the USERS load query returns them: id, name, email, phone, user_id
+        TypedQuery<Object[]> query = mock(TypedQuery.class);
+        when(query.getResultList()).thenReturn(List.of(
+                new Object[]{1L, "Ravi Kumar", "ravi@istl.com", "9848012345", "EMP001"},
+                new Object[]{2L, "Priya Sharma", "priya@istl.com", null, "EMP002"},
+                new Object[]{3L, "Kumaran S", "kumaran@vendor.in", "9000000003", "EMP003"}));
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.createQuery(anyString(), eq(Object[].class))).thenReturn(query);
+
+        service = new SearchIndexService();
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "maxHits", 1000);
+        service.rebuild(Domain.USERS);
+    }
+
+    @Test
+    void matchesSubstringOfAnySearchedColumnIgnoringCase() {
+        assertThat(service.matchingIds(Domain.USERS, "KUMAR")).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(service.matchingIds(Domain.USERS, "istl.com")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(service.matchingIds(Domain.USERS, "emp003")).containsExactly(3L);
+        assertThat(service.matchingIds(Domain.USERS, "98480")).containsExactly(1L);
+    }
+
+    @Test
+    void trigramCandidatesAreVerifiedAgainstTheWholeTerm() {
+        // Every row sharing the term's trigrams must also contain the whole term
+        assertThat(service.matchingIds(Domain.USERS, "avi@")).containsExactly(1L);
+        assertThat(service.matchingIds(Domain.USERS, "ran s")).containsExactly(3L);
+        assertThat(service.matchingIds(Domain.USERS, "sharmax")).isEmpty();
+    }
+
+    @Test
+    void termsShorterThanATrigramScanAllRows() {
+        assertThat(service.matchingIds(Domain.USERS, "ya")).containsExactly(2L);
+        assertThat(service.matchingIds(Domain.USERS, "0")).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void tooManyHitsFallBackToTheDatabase() {
+        ReflectionTestUtils.setField(service, "maxHits", 2);
+
+        assertThat(service.matchingIds(Domain.USERS, "emp")).isNull();
+        assertThat(service.matchingIds(Domain.USERS, "istl")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void unbuiltDomainOrDisabledIndexFallsBackToTheDatabase() {
+        assertThat(service.matchingIds(Domain.LEADS, "ravi")).isNull();
+
+        ReflectionTestUtils.setField(service, "enabled", false);
+        assertThat(service.matchingIds(Domain.USERS, "ravi")).isNull();
+    }
+
+    @Test
+    void committedChangesThroughEitherUserEntityAreApplied() {
+        UsersEntity created = new UsersEntity();
+        created.setName("Anil Reddy");
+        created.setEmail("anil@istl.com");
+        created.setUser_id("EMP004");
+        service.onEntitySaved(created, 4L);
+
+        // Profile updates go through LoginEntity, which maps the same users table
+        LoginEntity renamed = new LoginEntity();
+        renamed.setName("Ravi Teja");
+        renamed.setEmail("ravi.teja@istl.com");
+        renamed.setUser_id("EMP001");
+        service.onEntitySaved(renamed, 1L);
+
+        assertThat(service.isIndexed(LoginEntity.class)).isTrue();
+        assertThat(service.matchingIds(Domain.USERS, "reddy")).containsExactly(4L);
+        assertThat(service.matchingIds(Domain.USERS, "teja")).containsExactly(1L);
+        assertThat(service.matchingIds(Domain.USERS, "kumar")).containsExactly(3L);
+
+        service.onEntityDeleted(created, 4L);
+        assertThat(service.matchingIds(Domain.USERS, "reddy")).isEmpty();
+    }
+}